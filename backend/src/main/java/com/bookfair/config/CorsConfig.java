@@ -25,6 +25,8 @@ public class CorsConfig {
         config.addAllowedOrigin(allowedOrigin); // Use property-verified origin
         config.addAllowedHeader("*");     //allows all header authroization, content-type, etc
         config.addAllowedMethod("*");
+        config.addExposedHeader("ETag"); // lets the map poller read the validator it revalidates with
+        config.addExposedHeader("Retry-After"); // booking waiting room polling interval
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/api/**", config);
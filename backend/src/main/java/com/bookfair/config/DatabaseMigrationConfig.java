@@ -32,5 +32,40 @@ public class DatabaseMigrationConfig {
         } catch (Exception e) {
             logger.warn("Migration failed or already applied: {}", e.getMessage());
         }
+        try {
+            // At most one active reservation per stall; cancelled/expired history rows stay out of the index
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_reservations_active_stall " +
+                    "ON reservations (event_stall_id) WHERE status IN ('PENDING_PAYMENT', 'PAID')");
+            logger.info("Ensured uq_reservations_active_stall partial unique index.");
+        } catch (Exception e) {
+            logger.warn("Could not create uq_reservations_active_stall (duplicate active reservations?): {}", e.getMessage());
+        }
+        try {
+            // One check-in per reservation; bulk and offline gate writes rely on it to skip duplicates
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_check_in_logs_reservation ON check_in_logs (reservation_id)");
+            logger.info("Ensured uq_check_in_logs_reservation unique index.");
+        } catch (Exception e) {
+            logger.warn("Could not create uq_check_in_logs_reservation (duplicate check-ins?): {}", e.getMessage());
+        }
+        try {
+            // Trigram GIN indexes let LIKE '%q%' search use an index instead of scanning every row
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_business_trgm ON users USING gin (lower(business_name) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reservations_qr_trgm ON reservations USING gin (lower(qr_code) gin_trgm_ops)");
+            logger.info("Ensured pg_trgm search indexes.");
+        } catch (Exception e) {
+            logger.warn("Could not create pg_trgm search indexes (extension not available?); search falls back to scans: {}", e.getMessage());
+        }
+        try {
+            // Inbox pages seek on (recipient, newest first); unread counts only touch unread rows
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_recipient_created " +
+                    "ON notifications (recipient_id, created_at DESC, id DESC)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_unread " +
+                    "ON notifications (recipient_id) WHERE is_read = false");
+            logger.info("Ensured notification inbox indexes.");
+        } catch (Exception e) {
+            logger.warn("Could not create notification inbox indexes: {}", e.getMessage());
+        }
     }
 }
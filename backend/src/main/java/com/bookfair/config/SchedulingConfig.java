@@ -0,0 +1,10 @@
+package com.bookfair.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Enables @Scheduled housekeeping (SSE heartbeats, etc.) on the default single-threaded scheduler.
+}
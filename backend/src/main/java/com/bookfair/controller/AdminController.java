@@ -24,6 +24,9 @@ public class AdminController {
     private final com.bookfair.repository.VenueRepository venueRepository;
     private final com.bookfair.repository.BuildingRepository buildingRepository;
     private final com.bookfair.repository.HallRepository hallRepository;
+    private final com.bookfair.service.TicketPackService ticketPackService;
+    private final com.bookfair.service.CsvExportService csvExportService;
+    private final com.bookfair.service.ReservationListService reservationListService;
 
     // ─── VENUE & BUILDING MANAGEMENT ─────────────────────────────
 
@@ -180,17 +183,50 @@ public class AdminController {
     }
 
     @GetMapping("/events/{id}/stats")
-    public ResponseEntity<Map<String, Object>> getEventStats(@PathVariable Long id) {
+    public ResponseEntity<com.bookfair.dto.response.EventStatsResponse> getEventStats(@PathVariable Long id) {
         return ResponseEntity.ok(adminService.getEventStats(id));
     }
 
+    /**
+     * Mails every vendor with a paid stall at the event, over pooled SMTP connections.
+     * Runs in the background: responds 202 with a job to poll at /mailings/{jobId}.
+     */
+    @PostMapping("/events/{id}/vendors/email")
+    public ResponseEntity<com.bookfair.dto.response.MailingJobResponse> emailEventVendors(
+            @PathVariable Long id, @jakarta.validation.Valid @RequestBody com.bookfair.dto.request.VendorMailRequest request) {
+        com.bookfair.dto.response.MailingJobResponse job = adminService.emailEventVendors(id, request.getSubject(), request.getBody());
+        return ResponseEntity.accepted()
+                .location(java.net.URI.create("/api/v1/admin/mailings/" + job.getJobId()))
+                .body(job);
+    }
+
+    /** Progress and, once finished, the outcome of a vendor mailing. */
+    @GetMapping("/mailings/{jobId}")
+    public ResponseEntity<com.bookfair.dto.response.MailingJobResponse> getMailingJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(adminService.getMailingJob(jobId));
+    }
+
+    /** ZIP of every paid entry pass for the event, streamed as it is rendered. */
+    @GetMapping("/events/{id}/tickets/export")
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportTicketPack(@PathVariable Long id) {
+        ticketPackService.requireEvent(id);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tickets-event-" + id + ".zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(out -> ticketPackService.writeTicketPack(id, out));
+    }
+
     // ─── RESERVATION MANAGEMENT ──────────────────────────────────
 
+    /** Newest first, keyset-paginated: pass the previous page's nextCursor as `cursor`. */
     @GetMapping("/reservations")
-    public ResponseEntity<List<com.bookfair.dto.response.ReservationResponse>> getAllReservations() {
-        return ResponseEntity.ok(adminService.getAllReservations().stream()
-                .map(ReservationController::mapToResponse)
-                .collect(java.util.stream.Collectors.toList()));
+    public ResponseEntity<com.bookfair.dto.response.CursorPage<com.bookfair.dto.response.ReservationResponse>> getAllReservations(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) com.bookfair.entity.Reservation.ReservationStatus status,
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(reservationListService.page(q, status, eventId, null, cursor, limit));
     }
 
     @GetMapping("/reservations/{id}")
@@ -216,12 +252,17 @@ public class AdminController {
 
     /** Export all reservations as CSV */
     @GetMapping("/reservations/export")
-    public ResponseEntity<byte[]> exportReservationsCsv() {
-        byte[] csv = adminService.exportReservationsCsv();
-        return ResponseEntity.ok()
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportReservationsCsv(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = com.bookfair.service.CsvExportService.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations.csv\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csv);
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType("text/csv"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> csvExportService.writeReservations(out, gzip));
     }
 
     // ─── PRICING ─────────────────────────────────────────────────
@@ -3,6 +3,7 @@ package com.bookfair.controller;
 import com.bookfair.dto.response.CheckInResponse;
 import com.bookfair.dto.response.DashboardStats;
 import com.bookfair.dto.response.QrVerificationResponse;
+import com.bookfair.dto.response.CursorPage;
 import com.bookfair.dto.response.ReservationResponse;
 import com.bookfair.repository.ReservationRepository;
 import com.bookfair.repository.UserRepository;
@@ -12,7 +13,6 @@ import org.springframework.web.bind.annotation.*;
 import com.bookfair.service.NotificationService;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
 
@@ -32,69 +32,44 @@ public class EmployeeController {
     private final com.bookfair.repository.CheckInLogRepository checkInLogRepository;
     private final NotificationService notificationService;
     private final com.bookfair.service.ReservationService reservationService;
+    private final com.bookfair.service.CsvExportService csvExportService;
+    private final com.bookfair.service.ReservationListService reservationListService;
+    private final com.bookfair.service.GateService gateService;
+    private final com.bookfair.service.TicketTokenService ticketTokenService;
+    private final com.bookfair.service.CheckInIngestService checkInIngestService;
+    private final com.bookfair.service.DashboardCounters dashboardCounters;
 
     /**
      * Dashboard stats: total stalls, reserved, available, users, reservations.
      * Reserved count is derived from active (PAID or PENDING) reservations.
+     * Served from in-memory counters; pass eventId for a single event's figures.
      */
     @GetMapping("/dashboard")
-    public ResponseEntity<DashboardStats> getDashboardStats() {
-        long totalStalls = eventStallRepository.count();
-        // Count reserved by checking active reservations across all events
-        long reservedStalls = reservationRepository.countByStatusIn(List.of(
-            com.bookfair.entity.Reservation.ReservationStatus.PAID,
-            com.bookfair.entity.Reservation.ReservationStatus.PENDING_PAYMENT
-        ));
-        long availableStalls = totalStalls - reservedStalls;
-        long totalUsers = userRepository.count();
-        long totalReservations = reservationRepository.count();
-
-        long checkedIn = checkInLogRepository.count();
-
-        return ResponseEntity.ok(DashboardStats.builder()
-                .totalStalls(totalStalls)
-                .reservedStalls(reservedStalls)
-                .availableStalls(availableStalls)
-                .totalUsers(totalUsers)
-                .totalReservations(totalReservations)
-                .checkedInCount(checkedIn)
-                .build());
+    public ResponseEntity<DashboardStats> getDashboardStats(@RequestParam(required = false) Long eventId) {
+        return ResponseEntity.ok(eventId != null ? dashboardCounters.employeeStats(eventId) : dashboardCounters.employeeStats());
     }
-    
+
+    /** Newest first, keyset-paginated: pass the previous page's nextCursor as `cursor`. */
     @GetMapping("/reservations")
-    public ResponseEntity<List<ReservationResponse>> getAllReservations() {
-        return ResponseEntity.ok(reservationRepository.findAll().stream()
-                .map(ReservationController::mapToResponse)
-                .collect(Collectors.toList()));
+    public ResponseEntity<CursorPage<ReservationResponse>> getAllReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(reservationListService.page("", null, null, null, cursor, limit));
     }
 
     /**
-     * GET /api/v1/employee/search?q=&status=&eventId=
-     * Search reservations by vendor business name or username with optional filters.
-     * Returns a page-style envelope so the frontend's PageEnvelope<Reservation> type is satisfied.
+     * GET /api/v1/employee/search?q=&status=&eventId=&cursor=&limit=
+     * Search reservations by vendor business name, username or QR code with optional filters.
+     * Returns one keyset page; follow nextCursor for more.
      */
     @GetMapping("/search")
-    public ResponseEntity<java.util.Map<String, Object>> searchReservations(
+    public ResponseEntity<CursorPage<ReservationResponse>> searchReservations(
             @RequestParam(defaultValue = "") String q,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(required = false) String status,
-            @RequestParam(required = false) Long eventId) {
-
-        com.bookfair.entity.Reservation.ReservationStatus statusEnum = status != null && !status.isEmpty() 
-            ? com.bookfair.entity.Reservation.ReservationStatus.valueOf(status) 
-            : null;
-
-        List<ReservationResponse> results = reservationRepository.searchReservations(q, statusEnum, eventId).stream()
-                .map(ReservationController::mapToResponse)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(java.util.Map.of(
-            "content", results,
-            "totalElements", results.size(),
-            "totalPages", 1,
-            "size", results.size(),
-            "number", page
-        ));
+            @RequestParam(required = false) com.bookfair.entity.Reservation.ReservationStatus status,
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(reservationListService.page(q, status, eventId, null, cursor, limit));
     }
 
     /**
@@ -102,26 +77,17 @@ public class EmployeeController {
      * Exports attendance log as CSV.
      */
     @GetMapping("/attendance/export")
-    public ResponseEntity<byte[]> exportAttendance() {
-        StringBuilder csv = new StringBuilder("LogID,Timestamp,ReservationID,Stall,Vendor,Employee,OverrideReason\n");
-        List<com.bookfair.entity.CheckInLog> logs = checkInLogRepository.findAll();
-        
-        for (com.bookfair.entity.CheckInLog log : logs) {
-            com.bookfair.entity.Reservation res = log.getReservation();
-            csv.append(log.getId()).append(",")
-               .append(log.getCheckInTime()).append(",")
-               .append(res.getId()).append(",")
-               .append(res.getEventStall().getStallTemplate().getName()).append(",")
-               .append(res.getUser().getBusinessName()).append(",")
-               .append(log.getEmployee().getUsername()).append(",")
-               .append(log.getOverrideReason() != null ? log.getOverrideReason() : "N/A")
-               .append("\n");
-        }
-
-        return ResponseEntity.ok()
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportAttendance(
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        boolean gzip = com.bookfair.service.CsvExportService.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header("Content-Disposition", "attachment; filename=attendance.csv")
                 .header("Content-Type", "text/csv")
-                .body(csv.toString().getBytes());
+                .header("Vary", "Accept-Encoding");
+        if (gzip) {
+            response.header("Content-Encoding", "gzip");
+        }
+        return response.body(out -> csvExportService.writeAttendance(out, gzip));
     }
 
     /**
@@ -135,6 +101,26 @@ public class EmployeeController {
      */
     @GetMapping("/reservations/{qrOrId}")
     public ResponseEntity<QrVerificationResponse> lookupReservation(@PathVariable String qrOrId) {
+        // Signed tickets carry their reservation id; a forged or expired one stops here
+        if (com.bookfair.service.TicketTokenService.looksLikeToken(qrOrId)) {
+            com.bookfair.dto.response.TicketVerificationResponse ticket = ticketTokenService.verify(qrOrId);
+            if (!ticket.isValid()) {
+                return ResponseEntity.badRequest().body(QrVerificationResponse.builder()
+                        .valid(false)
+                        .message(ticket.getMessage())
+                        .build());
+            }
+            return lookup(String.valueOf(ticket.getReservationId()));
+        }
+        return lookup(qrOrId);
+    }
+
+    private ResponseEntity<QrVerificationResponse> lookup(String qrOrId) {
+        // Open gates answer from memory
+        java.util.Optional<QrVerificationResponse> cached = gateService.lookup(qrOrId);
+        if (cached.isPresent()) {
+            return ResponseEntity.ok(cached.get());
+        }
         // Try QR code first, then reservation ID
         var reservation = reservationRepository.findByQrCode(qrOrId)
                 .or(() -> {
@@ -178,7 +164,12 @@ public class EmployeeController {
     public ResponseEntity<CheckInResponse> admitReservation(
             @PathVariable Long reservationId,
             java.security.Principal principal) {
-        
+
+        java.util.Optional<CheckInResponse> admitted = gateService.admit(reservationId, principal.getName());
+        if (admitted.isPresent()) {
+            return ResponseEntity.ok(admitted.get());
+        }
+
         com.bookfair.entity.Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new com.bookfair.exception.ResourceNotFoundException("Reservation not found"));
         
@@ -197,6 +188,19 @@ public class EmployeeController {
                 .build());
     }
 
+    /**
+     * POST /api/v1/employee/check-ins/bulk
+     * Admits a batch of scans (QR codes, signed tickets or ids) with batched writes in one
+     * transaction. Returns one result per scan; repeats and already-admitted tickets come back
+     * as DUPLICATE, so a gate can safely resend a batch.
+     */
+    @PostMapping("/check-ins/bulk")
+    public ResponseEntity<com.bookfair.dto.response.BulkCheckInResponse> bulkCheckIn(
+            @jakarta.validation.Valid @RequestBody com.bookfair.dto.request.BulkCheckInRequest request,
+            java.security.Principal principal) {
+        return ResponseEntity.ok(checkInIngestService.ingestScans(request.getEventId(), request.getScans(), principal.getName()));
+    }
+
     @PostMapping("/force-check-in")
     public ResponseEntity<CheckInResponse> forceCheckIn(@RequestBody Map<String, Object> request, java.security.Principal principal) {
         Long reservationId = Long.valueOf(request.get("reservationId").toString());
@@ -239,19 +243,39 @@ public class EmployeeController {
         com.bookfair.entity.User employee = userRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new com.bookfair.exception.ResourceNotFoundException("Logged in employee not found"));
 
-        // Check duplicates
-        if (checkInLogRepository.existsByReservationId(reservation.getId())) {
+        // Check duplicates (an open gate may have admitted it from memory, not yet flushed)
+        if (!gateService.tryClaim(reservation.getId())) {
              throw new com.bookfair.exception.ConflictException("Reservation already checked in.");
         }
 
-        com.bookfair.entity.CheckInLog log = com.bookfair.entity.CheckInLog.builder()
-                .reservation(reservation)
-                .employee(employee)
-                .overrideReason(reason)
-                .adminOverrideCode(adminCode)
-                .build();
-        
-        com.bookfair.entity.CheckInLog savedLog = checkInLogRepository.save(log);
+        com.bookfair.entity.CheckInLog savedLog;
+        try {
+            if (checkInLogRepository.existsByReservationId(reservation.getId())) {
+                throw new com.bookfair.exception.ConflictException("Reservation already checked in.");
+            }
+            com.bookfair.entity.CheckInLog log = com.bookfair.entity.CheckInLog.builder()
+                    .reservation(reservation)
+                    .employee(employee)
+                    .overrideReason(reason)
+                    .adminOverrideCode(adminCode)
+                    .build();
+            savedLog = checkInLogRepository.saveAndFlush(log);
+        } catch (org.springframework.dao.DataIntegrityViolationException e) {
+            if (!com.bookfair.repository.ConstraintViolations.violates(e, com.bookfair.repository.CheckInBatchRepository.ONE_CHECK_IN_INDEX)) {
+                gateService.release(reservation.getId());
+                throw e;
+            }
+            // Another gate's batch got there first (unique index on reservation_id)
+            throw new com.bookfair.exception.ConflictException("Reservation already checked in.");
+        } catch (com.bookfair.exception.ConflictException e) {
+            // Checked in for real: the claim stays
+            throw e;
+        } catch (RuntimeException e) {
+            // No check-in row was written (lost connection, timeout...); free the ticket for a retry
+            gateService.release(reservation.getId());
+            throw e;
+        }
+        dashboardCounters.recordCheckIns(reservation.getEventStall().getEvent().getId(), 1);
 
         // Notify Vendor
         notificationService.createNotification(
@@ -265,6 +289,71 @@ public class EmployeeController {
         return savedLog;
     }
 
+    /**
+     * POST /api/v1/employee/gate/{eventId}
+     * Puts an event into gate mode: its PAID tickets are preloaded and scans are decided in memory.
+     */
+    @PostMapping("/gate/{eventId}")
+    public ResponseEntity<Map<String, Object>> openGate(@PathVariable Long eventId) {
+        return ResponseEntity.ok(gateService.openGate(eventId));
+    }
+
+    @GetMapping("/gate/{eventId}")
+    public ResponseEntity<Map<String, Object>> getGateStatus(@PathVariable Long eventId) {
+        return ResponseEntity.ok(gateService.gateStatus(eventId));
+    }
+
+    @DeleteMapping("/gate/{eventId}")
+    public ResponseEntity<Void> closeGate(@PathVariable Long eventId) {
+        gateService.closeGate(eventId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /api/v1/employee/tickets/verify
+     * Checks a signed ticket's signature and expiry without touching the database.
+     */
+    @PostMapping("/tickets/verify")
+    public ResponseEntity<com.bookfair.dto.response.TicketVerificationResponse> verifyTicket(@RequestBody Map<String, String> request) {
+        return ResponseEntity.ok(ticketTokenService.verify(request.get("token")));
+    }
+
+    /**
+     * GET /api/v1/employee/gate/{eventId}/revocations
+     * Reservation ids whose tickets must be refused (anything not PAID), for offline gates.
+     */
+    @GetMapping("/gate/{eventId}/revocations")
+    public ResponseEntity<Map<String, Object>> getRevocations(@PathVariable Long eventId) {
+        return ResponseEntity.ok(Map.of(
+                "eventId", eventId,
+                "generatedAt", java.time.LocalDateTime.now(),
+                "revoked", reservationRepository.findRevokedIdsByEventId(eventId)));
+    }
+
+    /**
+     * GET /api/v1/employee/gate/{eventId}/verification-key
+     * The event's ticket key, so a gate device can check signatures offline.
+     */
+    @GetMapping("/gate/{eventId}/verification-key")
+    public ResponseEntity<Map<String, Object>> getVerificationKey(@PathVariable Long eventId) {
+        return ResponseEntity.ok(Map.of(
+                "eventId", eventId,
+                "algorithm", "HMAC-SHA256",
+                "key", ticketTokenService.verificationKey(eventId)));
+    }
+
+    /**
+     * POST /api/v1/employee/gate/{eventId}/sync
+     * Uploads check-ins a gate recorded offline. Safe to retry: admitted tickets come back as duplicates.
+     */
+    @PostMapping("/gate/{eventId}/sync")
+    public ResponseEntity<com.bookfair.dto.response.BulkCheckInResponse> syncOfflineScans(
+            @PathVariable Long eventId,
+            @jakarta.validation.Valid @RequestBody com.bookfair.dto.request.OfflineScanSyncRequest request,
+            java.security.Principal principal) {
+        return ResponseEntity.ok(checkInIngestService.syncOffline(eventId, request.getScans(), principal.getName()));
+    }
+
     /**
      * DELETE /api/v1/employee/reservations/{id}
      * Cancel a reservation at the gate (e.g. vendor requests cancellation in person).
@@ -1,15 +1,15 @@
 package com.bookfair.controller;
 
+import com.bookfair.dto.response.CursorPage;
 import com.bookfair.dto.response.NotificationResponse;
-import com.bookfair.entity.User;
-import com.bookfair.repository.UserRepository;
+import com.bookfair.service.NotificationInbox;
 import com.bookfair.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.security.Principal;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,26 +18,38 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
-    private final UserRepository userRepository;
+    private final NotificationInbox notificationInbox;
 
+    /** Newest first, keyset-paginated: pass the previous page's nextCursor as `cursor`. */
     @GetMapping
-    public ResponseEntity<List<NotificationResponse>> getNotifications(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new com.bookfair.exception.ResourceNotFoundException("User not found"));
-        return ResponseEntity.ok(notificationService.getNotifications(user));
+    public ResponseEntity<CursorPage<NotificationResponse>> getNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Principal principal) {
+        Long userId = notificationInbox.userIdOf(principal.getName());
+        return ResponseEntity.ok(notificationService.getInbox(userId, cursor, limit));
     }
 
+    /** Served from the in-memory unread counter. */
     @GetMapping("/unread-count")
     public ResponseEntity<Map<String, Long>> getUnreadCount(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new com.bookfair.exception.ResourceNotFoundException("User not found"));
-        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount(user)));
+        Long userId = notificationInbox.userIdOf(principal.getName());
+        return ResponseEntity.ok(Map.of("count", notificationInbox.unreadCount(userId)));
+    }
+
+    /**
+     * GET /api/v1/notifications/unread-count/poll?known=
+     * Long-poll: responds as soon as the unread count differs from `known`, or with the
+     * current count after the poll timeout. Clients re-issue the request on each response.
+     */
+    @GetMapping("/unread-count/poll")
+    public DeferredResult<Map<String, Long>> pollUnreadCount(@RequestParam(defaultValue = "-1") long known,
+                                                             Principal principal) {
+        return notificationInbox.awaitChange(notificationInbox.userIdOf(principal.getName()), known);
     }
 
     @PatchMapping("/{id}/read")
     public ResponseEntity<NotificationResponse> markAsRead(@PathVariable Long id, Principal principal) {
-        User user = userRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new com.bookfair.exception.ResourceNotFoundException("User not found"));
-        return ResponseEntity.ok(notificationService.markAsRead(id, user));
+        return ResponseEntity.ok(notificationService.markAsRead(id, notificationInbox.userIdOf(principal.getName())));
     }
 }
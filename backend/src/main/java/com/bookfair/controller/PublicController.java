@@ -1,18 +1,24 @@
 package com.bookfair.controller;
 
 import com.bookfair.dto.response.EventResponse;
-import com.bookfair.dto.response.StallResponse;
+import com.bookfair.dto.response.StallChangeFeedResponse;
 import com.bookfair.dto.response.VenueResponse;
 import com.bookfair.entity.Venue;
+import com.bookfair.service.EventMapService;
 import com.bookfair.service.EventService;
-import com.bookfair.service.StallService;
+import com.bookfair.service.StallChangeFeed;
+import com.bookfair.service.StallEventBroadcaster;
 import com.bookfair.repository.VenueRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -23,7 +29,9 @@ public class PublicController {
 
     private final VenueRepository venueRepository;
     private final EventService eventService;
-    private final StallService stallService;
+    private final EventMapService eventMapService;
+    private final StallChangeFeed stallChangeFeed;
+    private final StallEventBroadcaster stallEventBroadcaster;
 
     @GetMapping("/venues")
     public ResponseEntity<org.springframework.data.domain.Page<VenueResponse>> getVenues() {
@@ -57,60 +65,46 @@ public class PublicController {
         return ResponseEntity.ok(mapToEventResponse(eventService.getEventById(id)));
     }
 
+    /**
+     * API.md 4.3 Format: { eventId, eventName, stalls: [...], layout: { ... } }
+     * Served from a pre-serialized snapshot; clients revalidate with If-None-Match and get a 304 until the map changes.
+     */
     @GetMapping("/events/{id}/map")
-    public ResponseEntity<Object> getEventMap(@PathVariable Long id) {
-        // API.md 4.3 Format: { eventId, eventName, stalls: [...], layout: { ... } }
-        com.bookfair.entity.Event event = eventService.getEventById(id);
-        List<StallResponse> stalls = stallService.getByEventId(id);
-        
-        Object layout = new java.util.HashMap<>();
-        if (!stalls.isEmpty()) {
-            var firstStallMatch = event.getStalls().stream().findFirst();
-            if (firstStallMatch.isPresent() && firstStallMatch.get().getStallTemplate() != null) {
-                com.bookfair.entity.Hall hall = firstStallMatch.get().getStallTemplate().getHall();
-                if (hall != null && hall.getStaticLayout() != null) {
-                    try {
-                        com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                        layout = mapper.readTree(hall.getStaticLayout());
-                    } catch (Exception e) {
-                        log.error("Mapping layout failed: {}", e.getMessage());
-                    }
-                }
-            }
+    public ResponseEntity<byte[]> getEventMap(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        EventMapService.Snapshot snapshot = eventMapService.getSnapshot(id);
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
         }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getBody());
+    }
 
-        // Aggregate Hall Metadata
-        java.util.Map<Long, Map<String, Object>> hallMetadata = new java.util.HashMap<>();
-        if (!stalls.isEmpty()) {
-            event.getStalls().stream()
-                .map(es -> es.getStallTemplate().getHall())
-                .filter(java.util.Objects::nonNull)
-                .distinct()
-                .forEach(hall -> {
-                    Map<String, Object> meta = new java.util.HashMap<>();
-                    meta.put("id", hall.getId());
-                    meta.put("name", hall.getName()); // Keep this as the key for frontend lookup if using name
-                    meta.put("hallName", hall.getName());
-                    meta.put("capacity", hall.getCapacity());
-                    meta.put("isAc", hall.getIsAirConditioned());
-                    meta.put("tier", hall.getTier());
-                    meta.put("floor", hall.getFloorLevel());
-                    meta.put("sqFt", hall.getTotalSqFt());
-                    meta.put("category", hall.getMainCategory());
-                    meta.put("mainCategory", hall.getMainCategory()); // sending both just in case
-                    hallMetadata.put(hall.getId(), meta);
-                });
-        }
+    /**
+     * Stall availability deltas after `since` (the map's changeSeq or the previous response's latestSeq).
+     * Answers resync=true when the cursor has fallen out of the retained window.
+     */
+    @GetMapping("/events/{id}/stalls/changes")
+    public ResponseEntity<StallChangeFeedResponse> getStallChanges(@PathVariable Long id, @RequestParam long since) {
+        return ResponseEntity.ok(stallChangeFeed.changesSince(id, since));
+    }
 
-        java.util.Map<String, Object> response = new java.util.HashMap<>();
-        response.put("eventId", id);
-        response.put("eventName", event.getName());
-        response.put("stalls", stalls);
-        response.put("layout", layout);
-        response.put("halls", hallMetadata.values()); // Return list of hall objects
-        response.put("zones", event.getLayoutConfig());
-        
-        return ResponseEntity.ok(response);
+    /**
+     * Live stall reserved/released events (`stall`, id = change sequence). Reconnecting clients send
+     * Last-Event-ID and get the gap replayed; a `resync` event means reload the map.
+     */
+    @GetMapping(value = "/events/{id}/stalls/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStallChanges(@PathVariable Long id,
+                                                         @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return stallEventBroadcaster.subscribe(id, lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
     }
 
     private VenueResponse mapToVenueResponse(Venue venue) {
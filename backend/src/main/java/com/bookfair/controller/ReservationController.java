@@ -13,6 +13,8 @@ import java.util.stream.Collectors;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import com.bookfair.service.QrService;
+import com.bookfair.service.BookingAdmissionService;
+import com.bookfair.dto.response.AdmissionTicketResponse;
 
 /**
 
@@ -28,11 +30,14 @@ public class ReservationController {
     
     private final ReservationService reservationService;
     private final QrService qrService;
+    private final com.bookfair.service.TicketTokenService ticketTokenService;
+    private final BookingAdmissionService admissionService;
+    private final com.bookfair.service.ReservationListService reservationListService;
 
     @GetMapping("/{id}/qr/download")
     public ResponseEntity<byte[]> downloadQrCode(@PathVariable Long id, Principal principal) {
         Reservation reservation = reservationService.getById(id, principal.getName());
-        byte[] qrImage = qrService.generateQrCode(reservation.getQrCode());
+        byte[] qrImage = qrService.generateQrCode(ticketTokenService.issue(reservation));
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"qr-pass-" + id + ".png\"")
@@ -40,13 +45,27 @@ public class ReservationController {
                 .body(qrImage);
     }
     
+    /**
+     * POST /api/v1/vendor/reservations
+     * Goes through the booking waiting room: when busy this answers 429 with a queue ticket,
+     * and the client retries with the admitted ticket in the X-Queue-Ticket header.
+     */
     @PostMapping
-    public ResponseEntity<List<ReservationResponse>> create(@jakarta.validation.Valid @RequestBody ReservationRequest request) {
-        return ResponseEntity.ok(reservationService.createReservations(request).stream()
+    public ResponseEntity<List<ReservationResponse>> create(@jakarta.validation.Valid @RequestBody ReservationRequest request,
+                                                           @RequestHeader(value = "X-Queue-Ticket", required = false) String queueTicket,
+                                                           Principal principal) {
+        List<Reservation> reservations = admissionService.admit(principal.getName(), queueTicket,
+                () -> reservationService.createReservations(request));
+        return ResponseEntity.ok(reservations.stream()
                 .map(r -> mapToResponse(r))
                 .collect(Collectors.toList()));
     }
 
+    @GetMapping("/queue/{ticketId}")
+    public ResponseEntity<AdmissionTicketResponse> getQueueStatus(@PathVariable String ticketId, Principal principal) {
+        return ResponseEntity.ok(admissionService.status(principal.getName(), ticketId));
+    }
+
     /**
      * POST /api/reservations/confirm-payment/{id}
      * Transitions a reservation from PENDING to PAID.
@@ -58,11 +77,13 @@ public class ReservationController {
         return ResponseEntity.ok().build();
     }
 
+    /** The caller's reservations, newest first, keyset-paginated via `cursor`. */
     @GetMapping("/me")
-    public ResponseEntity<List<ReservationResponse>> getMyReservations(Principal principal) {
-        return ResponseEntity.ok(reservationService.getByUsername(principal.getName()).stream()
-                .map(ReservationController::mapToResponse)
-                .collect(Collectors.toList()));
+    public ResponseEntity<com.bookfair.dto.response.CursorPage<ReservationResponse>> getMyReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Principal principal) {
+        return ResponseEntity.ok(reservationListService.page("", null, null, principal.getName(), cursor, limit));
     }
 
     @GetMapping("/available-count")
@@ -108,6 +129,10 @@ public class ReservationController {
         res.setStatus(r.getStatus().name());
         res.setEmailSent(r.getEmailSent() != null ? r.getEmailSent() : false);
         res.setCreatedAt(r.getCreatedAt());
+        res.setExpiresAt(r.getExpiresAt());
+        if (r.getStatus() == Reservation.ReservationStatus.PENDING_PAYMENT && r.getExpiresAt() != null) {
+            res.setTtlSeconds(Math.max(0L, java.time.Duration.between(java.time.LocalDateTime.now(), r.getExpiresAt()).getSeconds()));
+        }
 
         if (r.getUser() != null) {
             res.setUser(new ReservationResponse.UserSummary(
@@ -1,5 +1,11 @@
 package com.bookfair.controller;
 
+import com.bookfair.service.BulkMailSender;
+import com.bookfair.service.CheckInIngestService;
+import com.bookfair.service.DashboardCounters;
+import com.bookfair.service.GateService;
+import com.bookfair.service.NotificationInbox;
+import com.bookfair.service.QrService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,22 +20,35 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SystemController {
 
+    private final BulkMailSender bulkMailSender;
+    private final QrService qrService;
+    private final GateService gateService;
+    private final CheckInIngestService checkInIngestService;
+    private final DashboardCounters dashboardCounters;
+    private final NotificationInbox notificationInbox;
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> getHealth() {
         long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
         Runtime runtime = Runtime.getRuntime();
         int activeThreads = ManagementFactory.getThreadMXBean().getThreadCount();
         
-        return ResponseEntity.ok(Map.of(
-            "database", "UP",
-            "paymentGateway", "UP",
-            "mailService", "UP",
-            "uptimeSeconds", uptimeMillis / 1000,
-            "usedMemoryBytes", runtime.totalMemory() - runtime.freeMemory(),
-            "totalMemoryBytes", runtime.totalMemory(),
-            "maxMemoryBytes", runtime.maxMemory(),
-            "activeThreads", activeThreads,
-            "latencyMs", 15 // Placeholder for real latency if needed
+        return ResponseEntity.ok(Map.ofEntries(
+            Map.entry("database", "UP"),
+            Map.entry("paymentGateway", "UP"),
+            Map.entry("mailService", "UP"),
+            Map.entry("uptimeSeconds", uptimeMillis / 1000),
+            Map.entry("usedMemoryBytes", runtime.totalMemory() - runtime.freeMemory()),
+            Map.entry("totalMemoryBytes", runtime.totalMemory()),
+            Map.entry("maxMemoryBytes", runtime.maxMemory()),
+            Map.entry("activeThreads", activeThreads),
+            Map.entry("latencyMs", 15), // Placeholder for real latency if needed
+            Map.entry("bulkMail", bulkMailSender.stats()),
+            Map.entry("qrCache", qrService.cacheStats()),
+            Map.entry("gate", gateService.stats()),
+            Map.entry("bulkCheckIns", checkInIngestService.stats()),
+            Map.entry("dashboardCounters", dashboardCounters.stats()),
+            Map.entry("notifications", notificationInbox.stats())
         ));
     }
 }
@@ -0,0 +1,29 @@
+package com.bookfair.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when anything rendered on an event's public map changes outside the
+ * reservation flow: stall geometry or prices, hall layouts and metadata, blocking.
+ * A null eventId means the change is not scoped to one event (e.g. a hall edit).
+ */
+@Getter
+@AllArgsConstructor
+public class EventLayoutChangedEvent {
+    private final Long eventId;
+    /** True when the event itself was deleted, so per-event caches can drop it entirely. */
+    private final boolean deleted;
+
+    public EventLayoutChangedEvent(Long eventId) {
+        this(eventId, false);
+    }
+
+    public static EventLayoutChangedEvent allEvents() {
+        return new EventLayoutChangedEvent(null);
+    }
+
+    public static EventLayoutChangedEvent deleted(Long eventId) {
+        return new EventLayoutChangedEvent(eventId, true);
+    }
+}
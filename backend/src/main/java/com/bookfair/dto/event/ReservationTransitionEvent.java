@@ -0,0 +1,68 @@
+package com.bookfair.dto.event;
+
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.EventStallStatus;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever a reservation changes status (including creation, where previousStatus is null).
+ *
+ * Carries the occupant fields the public map renders, captured while the entities are still
+ * attached, so listeners never go back to the database. Listeners run after the surrounding
+ * transaction commits, so they never observe state that is later rolled back.
+ */
+@Getter
+@Builder
+public class ReservationTransitionEvent {
+    private final Long reservationId;
+    private final Long eventId;
+    private final Long eventStallId;
+    private final Long userId;
+    private final Long priceCents;
+    private final String occupiedBy;        // publisher business name
+    private final String publisherCategory; // For map color-coding
+    private final boolean stallBlocked;     // template or event stall blocked by an admin
+    private final LocalDateTime expiresAt;  // hold deadline, set for PENDING_PAYMENT
+    private final Reservation.ReservationStatus previousStatus;
+    private final Reservation.ReservationStatus status;
+
+    public static ReservationTransitionEvent of(Reservation reservation, Reservation.ReservationStatus previousStatus) {
+        EventStall stall = reservation.getEventStall();
+        User user = reservation.getUser();
+        return ReservationTransitionEvent.builder()
+                .reservationId(reservation.getId())
+                .eventId(stall.getEvent().getId())
+                .eventStallId(stall.getId())
+                .userId(user.getId())
+                .priceCents(stall.getFinalPriceCents())
+                .occupiedBy(user.getBusinessName())
+                .publisherCategory(user.getCategories() != null && !user.getCategories().isEmpty()
+                        ? user.getCategories().iterator().next().name() : null)
+                .stallBlocked(stall.getStatus() == EventStallStatus.BLOCKED
+                        || (stall.getStallTemplate() != null && Boolean.FALSE.equals(stall.getStallTemplate().getIsAvailable())))
+                .expiresAt(reservation.getExpiresAt())
+                .previousStatus(previousStatus)
+                .status(reservation.getStatus())
+                .build();
+    }
+
+    /** PENDING_PAYMENT and PAID reservations hold their stall; every other status releases it. */
+    public static boolean holdsStall(Reservation.ReservationStatus status) {
+        return status == Reservation.ReservationStatus.PENDING_PAYMENT || status == Reservation.ReservationStatus.PAID;
+    }
+
+    /** True when the stall went from free to held or back, i.e. the map's availability changed. */
+    public boolean isAvailabilityChange() {
+        return holdsStall(previousStatus) != holdsStall(status);
+    }
+
+    /** True when this transition left the stall held by the reservation's user. */
+    public boolean isReserved() {
+        return holdsStall(status);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bookfair.dto.event;
+
+import com.bookfair.dto.response.StallChangeFeedResponse.StallChange;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by StallChangeFeed once a change has been sequenced, i.e. after the
+ * reservation transaction committed. Push channels listen to this instead of the raw
+ * transition so every subscriber sees the same sequence numbers as the delta endpoint.
+ */
+@Getter
+@AllArgsConstructor
+public class StallAvailabilityChangedEvent {
+    private final Long eventId;
+    private final StallChange change;
+}
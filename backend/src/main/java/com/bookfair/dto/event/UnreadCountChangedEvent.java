@@ -0,0 +1,15 @@
+package com.bookfair.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user's unread notification count changes: +1 for a new notification,
+ * -1 when one is marked read. Listeners run after commit.
+ */
+@Getter
+@AllArgsConstructor
+public class UnreadCountChangedEvent {
+    private final Long recipientId;
+    private final int delta;
+}
@@ -0,0 +1,19 @@
+package com.bookfair.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/** A batch of gate scans: QR codes, signed ticket tokens or reservation ids. */
+@Data
+public class BulkCheckInRequest {
+    @NotEmpty(message = "At least one scan is required")
+    @Size(max = 5000, message = "At most 5000 scans per batch")
+    private List<@NotBlank String> scans;
+
+    /** When set, tickets for other events are rejected. */
+    private Long eventId;
+}
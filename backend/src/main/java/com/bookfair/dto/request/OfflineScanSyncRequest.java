@@ -0,0 +1,27 @@
+package com.bookfair.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Scans a gate recorded while offline, uploaded once it reconnects. */
+@Data
+public class OfflineScanSyncRequest {
+    @NotEmpty(message = "At least one scan is required")
+    @Size(max = 5000, message = "At most 5000 scans per sync")
+    private List<@Valid Scan> scans;
+
+    @Data
+    public static class Scan {
+        @NotBlank(message = "Ticket token is required")
+        private String token;
+
+        /** When the gate admitted the ticket; defaults to the sync time. */
+        private LocalDateTime scannedAt;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bookfair.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class VendorMailRequest {
+    @NotBlank(message = "Subject is required")
+    private String subject;
+
+    @NotBlank(message = "Body is required")
+    private String body;
+}
@@ -0,0 +1,21 @@
+package com.bookfair.dto.response;
+
+import lombok.*;
+
+/**
+ * A vendor's place in the booking waiting room.
+ *
+ * Once `admitted` is true the client repeats its booking request with the ticket in the
+ * X-Queue-Ticket header; the ticket is single-use and lapses if not redeemed in time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionTicketResponse {
+    private String ticketId;
+    private boolean admitted;
+    private long position;      // 0 once admitted
+    private long etaSeconds;
+    private long retryAfterSeconds;
+}
@@ -0,0 +1,34 @@
+package com.bookfair.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of a batch of gate scans, with one result per scan in request order.
+ * Outcomes: ADMITTED, DUPLICATE, REJECTED, INVALID, NOT_FOUND.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCheckInResponse {
+    private int received;
+    private int admitted;
+    private int duplicates;
+    private int rejected;
+    private List<ScanResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScanResult {
+        private String scan;
+        private Long reservationId;
+        private String outcome;
+        private String message;
+        private LocalDateTime checkInTime;
+    }
+}
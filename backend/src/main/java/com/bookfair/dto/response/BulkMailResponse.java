@@ -0,0 +1,19 @@
+package com.bookfair.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Outcome of a bulk mail run. Messages rejected by the server are listed by recipient;
+ * the rest of the batch is still delivered.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkMailResponse {
+    private int requested;
+    private int sent;
+    private int failed;
+    private List<String> failedRecipients;
+}
@@ -0,0 +1,21 @@
+package com.bookfair.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * `nextCursor` is opaque; pass it back as `cursor` to fetch the following page. It is null
+ * once the listing is exhausted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,44 @@
+package com.bookfair.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Occupancy and revenue for one event, with breakdowns by hall, hall tier and stall size.
+ * Reserved means the event stall is marked RESERVED; paid revenue and pending exposure come
+ * from the stall's active reservation (PAID or PENDING_PAYMENT respectively).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventStatsResponse {
+    private Long eventId;
+    private long totalStalls;
+    private long reservedStalls;
+    private long availableStalls;
+    private long blockedStalls;
+    private double fillRate;
+    private long projectedRevenueCents;
+    private long paidRevenueCents;
+    private long pendingReservations;
+    private long pendingExposureCents;
+    private List<Breakdown> byHall;
+    private List<Breakdown> byTier;
+    private List<Breakdown> bySize;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Breakdown {
+        private Long hallId;
+        private String name;
+        private long totalStalls;
+        private long reservedStalls;
+        private double fillRate;
+        private long paidRevenueCents;
+        private long pendingExposureCents;
+    }
+}
@@ -0,0 +1,32 @@
+package com.bookfair.dto.response;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * State of a background vendor mailing. `processed` counts messages sent or failed so far;
+ * `result` is filled in once the run has completed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailingJobResponse {
+    private String jobId;
+    private Long eventId;
+    private Status status;
+    private int requested;
+    private int processed;
+    private LocalDateTime queuedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private BulkMailResponse result;
+    private String error;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
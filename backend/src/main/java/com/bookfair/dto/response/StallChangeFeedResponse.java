@@ -0,0 +1,34 @@
+package com.bookfair.dto.response;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Stall availability deltas for one event since a client's last known sequence.
+ *
+ * When `resync` is true the requested sequence is no longer retained (or belongs to an
+ * earlier server run); the client must reload /events/{id}/map and continue from its `changeSeq`.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StallChangeFeedResponse {
+    private Long eventId;
+    private long latestSeq;
+    private boolean resync;
+    private List<StallChange> changes;
+
+    /** Absolute post-change state of a stall, so replaying an already-applied change is harmless. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StallChange {
+        private long seq;
+        private Long stallId;
+        private Boolean reserved;
+        private String occupiedBy;
+        private String publisherCategory;
+    }
+}
@@ -0,0 +1,25 @@
+package com.bookfair.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Result of checking a signed ticket token. Only the signature and expiry are checked;
+ * revocations and check-ins are the gate's job.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketVerificationResponse {
+    private boolean valid;
+    private String message;
+    private Long reservationId;
+    private Long eventId;
+    private Long eventStallId;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,77 @@
+package com.bookfair.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting to be delivered.
+ *
+ * Written in the same transaction as the business change that requires it, so the email is
+ * sent if and only if that change commits. Drained asynchronously by EmailOutboxService.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reservation_id", nullable = false)
+    private Reservation reservation;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    /** When the row is next due; while SENDING this is the lease after which another worker may retry it. */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /** Set on every claim; only the worker holding the current token may send the row. */
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public enum EmailType {
+        RESERVATION_CONFIRMATION
+    }
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        DEAD    // gave up after max attempts; needs manual attention
+    }
+}
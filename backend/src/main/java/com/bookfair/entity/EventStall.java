@@ -60,5 +60,13 @@ public class EventStall {
     @Column(columnDefinition = "TEXT")
     private String geometry; // JSON: { "x": 10, "y": 20, "w": 5, "h": 5 }
 
+    // Visibility score precomputed at layout-write time (see StallScoreService)
+    private Integer visibilityScore;
+
+    @Column(columnDefinition = "TEXT")
+    private String scoreDrivers; // JSON: [{ "label": "...", "value": "+12" }]
+
+    private Long scoreLayoutVersion; // Hall.layoutVersion the score was computed against
+
     private LocalDateTime deletedAt;
 }
@@ -68,8 +68,20 @@ public class Hall {
     @Column(columnDefinition = "TEXT")
     private String staticLayout;
 
+    /** Bumped on every staticLayout change; stall visibility scores are stamped with it. */
+    @Builder.Default
+    private Long layoutVersion = 0L;
+
     @OneToMany(mappedBy = "hall", cascade = CascadeType.ALL)
     private List<StallTemplate> stallTemplates;
 
     private java.time.LocalDateTime deletedAt;
+
+    /** Bumps layoutVersion when the layout actually changes, so every writer invalidates stored scores. */
+    public void setStaticLayout(String staticLayout) {
+        if (!java.util.Objects.equals(this.staticLayout, staticLayout)) {
+            this.layoutVersion = (layoutVersion != null ? layoutVersion : 0L) + 1;
+        }
+        this.staticLayout = staticLayout;
+    }
 }
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
     @Index(name = "idx_reservations_user", columnList = "user_id"),
     @Index(name = "idx_reservations_stall", columnList = "event_stall_id"),
     @Index(name = "idx_reservations_status", columnList = "status"),
-    @Index(name = "idx_reservations_qr", columnList = "qrCode")
+    @Index(name = "idx_reservations_qr", columnList = "qrCode"),
+    @Index(name = "idx_reservations_created", columnList = "created_at, id")
 })
 @Data
 @Builder
@@ -65,6 +66,10 @@ public class Reservation {
     private LocalDateTime createdAt;
 
     private LocalDateTime deletedAt;
+
+    /** End of the payment window for a PENDING_PAYMENT hold; the expiry sweeper moves it to EXPIRED afterwards. */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
     
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,18 @@
+package com.bookfair.exception;
+
+import com.bookfair.dto.response.AdmissionTicketResponse;
+import lombok.Getter;
+
+/**
+ * Thrown when a booking request is parked in the waiting room instead of being served.
+ * Rendered as 429 with the ticket in the error details and a Retry-After header.
+ */
+@Getter
+public class AdmissionQueuedException extends RuntimeException {
+    private final AdmissionTicketResponse ticket;
+
+    public AdmissionQueuedException(AdmissionTicketResponse ticket) {
+        super("Booking is busy. You are number " + ticket.getPosition() + " in the queue.");
+        this.ticket = ticket;
+    }
+}
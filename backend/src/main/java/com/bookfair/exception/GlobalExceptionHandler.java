@@ -1,5 +1,6 @@
 package com.bookfair.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -16,6 +17,7 @@ import java.util.Map;
 import com.bookfair.exception.ResourceNotFoundException;
 import com.bookfair.exception.ConflictException;
 import com.bookfair.exception.BadRequestException;
+import com.bookfair.dto.response.AdmissionTicketResponse;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -67,6 +69,20 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", ex.getMessage(), request, null);
     }
 
+    @ExceptionHandler(AdmissionQueuedException.class)
+    public ResponseEntity<Map<String, Object>> handleAdmissionQueuedException(AdmissionQueuedException ex, HttpServletRequest request) {
+        AdmissionTicketResponse ticket = ex.getTicket();
+        Map<String, Object> details = new HashMap<>();
+        details.put("ticketId", ticket.getTicketId());
+        details.put("position", ticket.getPosition());
+        details.put("etaSeconds", ticket.getEtaSeconds());
+        details.put("retryAfterSeconds", ticket.getRetryAfterSeconds());
+        ResponseEntity<Map<String, Object>> response = buildErrorResponse(HttpStatus.TOO_MANY_REQUESTS, "QUEUED", ex.getMessage(), request, details);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ticket.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeExceptions(RuntimeException ex, HttpServletRequest request) {
         return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", ex.getMessage(), request, null);
@@ -0,0 +1,99 @@
+package com.bookfair.repository;
+
+import com.bookfair.entity.Notification;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC write path for gate admissions.
+ *
+ * CheckInLog and Notification ids are IDENTITY, which stops Hibernate from batching inserts, so a
+ * burst of scans would cost two round trips each. Here every admission's log row and its welcome
+ * notification go out as two JDBC batches. Runs in the caller's transaction.
+ *
+ * A reservation already in check_in_logs is skipped (ON CONFLICT against the unique index on
+ * reservation_id), and so is its notification, so concurrent gates and replayed offline syncs
+ * cannot double-admit.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CheckInBatchRepository {
+
+    /** Unique index allowing one check-in per reservation. */
+    public static final String ONE_CHECK_IN_INDEX = "uq_check_in_logs_reservation";
+
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO check_in_logs (reservation_id, employee_id, check_in_time, override_reason, admin_override_code) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_NOTIFICATION_SQL =
+            "INSERT INTO notifications (recipient_id, message, type, is_read, created_at) VALUES (?, ?, ?, false, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Writes the rows; the result flags, per row, whether its check-in was new. */
+    public boolean[] insertAll(List<CheckInRow> rows) {
+        if (rows.isEmpty()) {
+            return new boolean[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_LOG_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getReservationId());
+            ps.setLong(2, row.getEmployeeId());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getCheckInTime()));
+            setNullableString(ps, 4, row.getOverrideReason());
+            setNullableString(ps, 5, row.getAdminOverrideCode());
+        });
+        boolean[] inserted = new boolean[rows.size()];
+        List<CheckInRow> admitted = new ArrayList<>(rows.size());
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                // SUCCESS_NO_INFO (driver-rewritten batches) cannot tell us, so count it as written
+                inserted[i] = count != 0;
+                if (inserted[i]) {
+                    admitted.add(rows.get(i));
+                }
+                i++;
+            }
+        }
+        if (!admitted.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_NOTIFICATION_SQL, admitted, admitted.size(), (ps, row) -> {
+                ps.setLong(1, row.getVendorUserId());
+                ps.setString(2, row.getNotificationMessage());
+                ps.setString(3, Notification.NotificationType.SUCCESS.name());
+                ps.setTimestamp(4, Timestamp.valueOf(row.getCheckInTime()));
+            });
+        }
+        return inserted;
+    }
+
+    private static void setNullableString(java.sql.PreparedStatement ps, int index, String value) throws java.sql.SQLException {
+        if (value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    /** One admission: the check_in_logs row plus the vendor's welcome notification. */
+    @Getter
+    @Builder
+    public static class CheckInRow {
+        private final Long reservationId;
+        private final Long eventId;
+        private final Long employeeId;
+        private final Long vendorUserId;
+        private final LocalDateTime checkInTime;
+        private final String overrideReason;
+        private final String adminOverrideCode;
+        private final String notificationMessage;
+    }
+}
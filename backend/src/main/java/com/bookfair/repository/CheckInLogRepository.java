@@ -1,13 +1,40 @@
 package com.bookfair.repository;
 
 import com.bookfair.entity.CheckInLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CheckInLogRepository extends JpaRepository<CheckInLog, Long> {
     List<CheckInLog> findByReservationId(Long reservationId);
     List<CheckInLog> findByEmployeeId(Long employeeId);
     boolean existsByReservationId(Long reservationId);
+
+    /** Reservations of an event that already have a check-in, to seed the gate's checked-in set. */
+    @Query("SELECT DISTINCT l.reservation.id FROM CheckInLog l WHERE l.reservation.eventStall.event.id = :eventId")
+    List<Long> findCheckedInReservationIdsByEventId(@org.springframework.data.repository.query.Param("eventId") Long eventId);
+
+    /** Which of the given reservations already have a check-in. */
+    @Query("SELECT DISTINCT l.reservation.id FROM CheckInLog l WHERE l.reservation.id IN :reservationIds")
+    List<Long> findCheckedInAmong(@org.springframework.data.repository.query.Param("reservationIds") java.util.Collection<Long> reservationIds);
+
+    /** Dashboard reconcile: (event id, checked-in reservations). */
+    @Query("SELECT es.event.id, COUNT(DISTINCT r.id) FROM CheckInLog l JOIN l.reservation r JOIN r.eventStall es GROUP BY es.event.id")
+    List<Object[]> countCheckedInByEvent();
+
+    /** Flat rows for the attendance CSV in one query, read through a forward-only cursor. */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l.id, l.checkInTime, r.id, st.name, u.businessName, e.username, COALESCE(l.overrideReason, 'N/A') " +
+           "FROM CheckInLog l JOIN l.reservation r LEFT JOIN r.eventStall es LEFT JOIN es.stallTemplate st " +
+           "LEFT JOIN r.user u LEFT JOIN l.employee e ORDER BY l.id")
+    Stream<Object[]> streamExportRows();
 }
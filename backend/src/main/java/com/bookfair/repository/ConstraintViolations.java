@@ -0,0 +1,28 @@
+package com.bookfair.repository;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Tells which constraint a write broke. The PostgreSQL driver only reports the name in the
+ * message, and for JDBC batches in the chained exception, so the whole cause chain is searched.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(constraint)) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getNextException() != null
+                    && String.valueOf(sql.getNextException().getMessage()).contains(constraint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookfair.repository;
+
+import com.bookfair.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Locks a batch of due rows (new ones, retries whose backoff elapsed, and SENDING rows whose
+     * lease ran out). SKIP LOCKED lets several workers or instances claim disjoint batches.
+     */
+    @Query(value = "SELECT * FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Compare-and-set before sending: succeeds only while the row is still SENDING under the given
+     * claim, and restarts the lease so it runs from the send rather than from the claim.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.nextAttemptAt = :leaseUntil " +
+           "WHERE o.id = :id AND o.status = 'SENDING' AND o.claimToken = :claimToken")
+    int startSending(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    long countByStatus(EmailOutbox.Status status);
+}
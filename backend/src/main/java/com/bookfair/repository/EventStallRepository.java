@@ -4,6 +4,7 @@ package com.bookfair.repository;
 import com.bookfair.entity.Event;
 import com.bookfair.entity.EventStall;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,38 @@ import java.util.List;
 public interface EventStallRepository extends JpaRepository<EventStall, Long> {
     List<EventStall> findByEvent_Id(Long eventId);
     void deleteByEvent_Id(Long eventId);
+    List<EventStall> findByStallTemplate_Id(Long templateId);
+    List<EventStall> findByStallTemplate_Hall_Id(Long hallId);
+
+    /** Stalls with no stored score, or one stamped with an older version of their hall's layout. */
+    @Query("SELECT es FROM EventStall es JOIN es.stallTemplate st LEFT JOIN st.hall h " +
+           "WHERE es.visibilityScore IS NULL OR es.scoreDrivers IS NULL OR es.scoreLayoutVersion IS NULL " +
+           "OR es.scoreLayoutVersion <> COALESCE(h.layoutVersion, 0)")
+    List<EventStall> findStaleScores();
+
+    @Query("SELECT es FROM EventStall es JOIN FETCH es.event LEFT JOIN FETCH es.stallTemplate WHERE es.id IN :ids")
+    List<EventStall> findAllByIdWithEvent(java.util.Collection<Long> ids);
+
+    // Availability index loading: ids only, no entity hydration
+    @Query("SELECT es.id FROM EventStall es WHERE es.event.id = :eventId ORDER BY es.id")
+    List<Long> findIdsByEventId(Long eventId);
+
+    @Query("SELECT DISTINCT es.event.id FROM EventStall es")
+    List<Long> findDistinctEventIds();
+
+    /**
+     * An event's stalls grouped by (hall id, hall name, tier, size, stall status, active reservation
+     * status), with the count and summed final price of each group. The active reservation status is
+     * null for stalls no PENDING_PAYMENT or PAID reservation holds.
+     */
+    @Query("SELECT h.id, h.name, h.tier, st.size, es.status, r.status, COUNT(es), COALESCE(SUM(es.finalPriceCents), 0) " +
+           "FROM EventStall es LEFT JOIN es.stallTemplate st LEFT JOIN st.hall h " +
+           "LEFT JOIN Reservation r ON r.eventStall = es AND r.status IN (com.bookfair.entity.Reservation.ReservationStatus.PENDING_PAYMENT, " +
+           "com.bookfair.entity.Reservation.ReservationStatus.PAID) " +
+           "WHERE es.event.id = :eventId GROUP BY h.id, h.name, h.tier, st.size, es.status, r.status")
+    List<Object[]> aggregateStatsByEventId(@org.springframework.data.repository.query.Param("eventId") Long eventId);
+
+    /** (event id, stall count) per event. */
+    @Query("SELECT es.event.id, COUNT(es) FROM EventStall es GROUP BY es.event.id")
+    List<Object[]> countByEvent();
 }
@@ -1,14 +1,31 @@
 package com.bookfair.repository;
 
 import com.bookfair.entity.Notification;
-import com.bookfair.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByRecipientOrderByCreatedAtDesc(User recipient);
-    long countByRecipientAndIsReadFalse(User recipient);
+
+    /** First inbox page, newest first; served by idx_notifications_recipient_created. */
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInbox(
+            @org.springframework.data.repository.query.Param("recipientId") Long recipientId,
+            org.springframework.data.domain.Pageable limit);
+
+    /** Next inbox page: seeks past the last (createdAt, id) seen; the leading createdAt bound keeps it an index range scan. */
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId " +
+           "AND n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxAfter(
+            @org.springframework.data.repository.query.Param("recipientId") Long recipientId,
+            @org.springframework.data.repository.query.Param("createdAt") java.time.LocalDateTime createdAt,
+            @org.springframework.data.repository.query.Param("id") Long id,
+            org.springframework.data.domain.Pageable limit);
+
+    /** Served by the partial index idx_notifications_unread. */
+    long countByRecipientIdAndIsReadFalse(Long recipientId);
 }
@@ -0,0 +1,62 @@
+package com.bookfair.repository;
+
+import com.bookfair.entity.Reservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC write path for multi-stall bookings.
+ *
+ * Reservation ids are IDENTITY, which stops Hibernate from batching inserts. Reserving ids from
+ * the table's sequence in one statement lets the QR code be final at insert time and all rows
+ * go out as a single JDBC batch. Runs in the caller's JPA transaction (same connection).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReservationBatchRepository {
+
+    /** Partial unique index allowing one PENDING_PAYMENT or PAID reservation per stall. */
+    public static final String ACTIVE_STALL_INDEX = "uq_reservations_active_stall";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO reservations (id, user_id, event_stall_id, qr_code, status, email_sent, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Reserves `count` ids from the reservations id sequence in one round trip. */
+    public List<Long> nextIds(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('reservations', 'id')) FROM generate_series(1, ?)",
+                Long.class, count);
+    }
+
+    /** Inserts reservations whose ids were taken from {@link #nextIds(int)}. */
+    public void insertAll(List<Reservation> reservations) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, reservations, reservations.size(), (ps, r) -> {
+            ps.setLong(1, r.getId());
+            ps.setLong(2, r.getUser().getId());
+            ps.setLong(3, r.getEventStall().getId());
+            ps.setString(4, r.getQrCode());
+            ps.setString(5, r.getStatus().name());
+            ps.setBoolean(6, Boolean.TRUE.equals(r.getEmailSent()));
+            ps.setTimestamp(7, Timestamp.valueOf(r.getCreatedAt()));
+            if (r.getExpiresAt() != null) {
+                ps.setTimestamp(8, Timestamp.valueOf(r.getExpiresAt()));
+            } else {
+                ps.setNull(8, Types.TIMESTAMP);
+            }
+        });
+    }
+
+    /** Whether the failure is the active-stall index rejecting a second booking, as opposed to any other constraint. */
+    public static boolean isActiveStallConflict(DataIntegrityViolationException e) {
+        return ConstraintViolations.violates(e, ACTIVE_STALL_INDEX);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bookfair.repository;
+
+import com.bookfair.entity.HallTier;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.StallSize;
+import com.bookfair.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of everything a reservation listing renders, filled by one joined query
+ * (see {@link ReservationRepository#findAllListViews()}) instead of walking lazy associations.
+ */
+public interface ReservationListView {
+
+    Long getId();
+
+    String getQrCode();
+
+    Reservation.ReservationStatus getStatus();
+
+    Boolean getEmailSent();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getExpiresAt();
+
+    Long getUserId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getBusinessName();
+
+    String getContactNumber();
+
+    User.Role getRole();
+
+    Long getEventStallId();
+
+    Long getFinalPriceCents();
+
+    Long getBaseRateCents();
+
+    Double getMultiplier();
+
+    String getStallName();
+
+    StallSize getStallSize();
+
+    String getGeometry();
+
+    String getHallName();
+
+    HallTier getHallTier();
+
+    Integer getFloorLevel();
+
+    String getBuildingName();
+
+    Long getEventId();
+
+    String getEventName();
+
+    String getVenueName();
+}
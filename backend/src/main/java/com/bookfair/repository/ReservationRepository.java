@@ -24,7 +24,63 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT r FROM Reservation r JOIN FETCH r.eventStall JOIN FETCH r.user")
     List<Reservation> findAll();
 
-    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.eventStall es LEFT JOIN FETCH es.stallTemplate st LEFT JOIN FETCH st.hall h LEFT JOIN FETCH h.building b LEFT JOIN FETCH r.user WHERE r.id = :id")
+    /** Flat listing row for {@link ReservationListView}: one SELECT, no lazy loads per row. */
+    String LIST_VIEW_SELECT = "SELECT r.id AS id, r.qrCode AS qrCode, r.status AS status, r.emailSent AS emailSent, " +
+           "r.createdAt AS createdAt, r.expiresAt AS expiresAt, " +
+           "u.id AS userId, u.username AS username, u.email AS email, u.businessName AS businessName, " +
+           "u.contactNumber AS contactNumber, u.role AS role, " +
+           "es.id AS eventStallId, es.finalPriceCents AS finalPriceCents, es.baseRateCents AS baseRateCents, " +
+           "es.multiplier AS multiplier, st.name AS stallName, st.size AS stallSize, st.geometry AS geometry, " +
+           "h.name AS hallName, h.tier AS hallTier, h.floorLevel AS floorLevel, b.name AS buildingName, " +
+           "e.id AS eventId, e.name AS eventName, v.name AS venueName " +
+           "FROM Reservation r JOIN r.user u JOIN r.eventStall es " +
+           "LEFT JOIN es.stallTemplate st LEFT JOIN st.hall h LEFT JOIN h.building b " +
+           "LEFT JOIN es.event e LEFT JOIN e.venue v ";
+
+    /**
+     * Optional listing filters: free text (a lower-cased, LIKE-escaped %pattern%) over vendor business
+     * name, username and QR code, each backed by a pg_trgm index, plus status, event and owner.
+     */
+    String LIST_VIEW_FILTER = "WHERE (:q = '' OR LOWER(u.businessName) LIKE :q ESCAPE '\\' " +
+           "OR LOWER(u.username) LIKE :q ESCAPE '\\' OR LOWER(r.qrCode) LIKE :q ESCAPE '\\') " +
+           "AND (:status IS NULL OR r.status = :status) " +
+           "AND (:eventId IS NULL OR e.id = :eventId) " +
+           "AND (:username IS NULL OR u.username = :username) ";
+
+    /** Newest first; (createdAt, id) is unique so it doubles as the keyset. */
+    String LIST_VIEW_ORDER = "ORDER BY r.createdAt DESC, r.id DESC";
+
+    /** First page of a keyset-paginated listing. */
+    @Query(LIST_VIEW_SELECT + LIST_VIEW_FILTER + LIST_VIEW_ORDER)
+    List<ReservationListView> findListViews(
+            @org.springframework.data.repository.query.Param("q") String q,
+            @org.springframework.data.repository.query.Param("status") Reservation.ReservationStatus status,
+            @org.springframework.data.repository.query.Param("eventId") Long eventId,
+            @org.springframework.data.repository.query.Param("username") String username,
+            org.springframework.data.domain.Pageable limit);
+
+    /**
+     * Next page: seeks past the last (createdAt, id) seen, so deep pages cost the same as the first.
+     * The redundant leading createdAt bound is what the planner can turn into an index range start;
+     * the OR on its own is not sargable and degrades to a filter over every newer row.
+     */
+    @Query(LIST_VIEW_SELECT + LIST_VIEW_FILTER +
+           "AND r.createdAt <= :createdAt AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           LIST_VIEW_ORDER)
+    List<ReservationListView> findListViewsAfter(
+            @org.springframework.data.repository.query.Param("q") String q,
+            @org.springframework.data.repository.query.Param("status") Reservation.ReservationStatus status,
+            @org.springframework.data.repository.query.Param("eventId") Long eventId,
+            @org.springframework.data.repository.query.Param("username") String username,
+            @org.springframework.data.repository.query.Param("createdAt") java.time.LocalDateTime createdAt,
+            @org.springframework.data.repository.query.Param("id") Long id,
+            org.springframework.data.domain.Pageable limit);
+
+    /** (userId, category) for the given users; categories are a collection so they cannot ride on the listing row. */
+    @Query("SELECT u.id, c FROM User u JOIN u.categories c WHERE u.id IN :userIds")
+    List<Object[]> findCategoriesByUserIds(@org.springframework.data.repository.query.Param("userIds") java.util.Collection<Long> userIds);
+
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.eventStall es LEFT JOIN FETCH es.event LEFT JOIN FETCH es.stallTemplate st LEFT JOIN FETCH st.hall h LEFT JOIN FETCH h.building b LEFT JOIN FETCH r.user WHERE r.id = :id")
     Optional<Reservation> findByIdWithDetails(@org.springframework.data.repository.query.Param("id") Long id);
 
     /** Find a reservation by its QR code (for entry pass verification). */
@@ -42,11 +98,16 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT COUNT(r) > 0 FROM Reservation r WHERE r.eventStall.id = :stallId AND (r.status = 'PAID' OR r.status = 'PENDING_PAYMENT')")
     boolean isStallReserved(Long stallId);
 
-    @Query("SELECT COALESCE(SUM(r.eventStall.finalPriceCents), 0) FROM Reservation r WHERE r.status = 'PAID'")
-    long sumTotalRevenueCents();
+    /** Dashboard reconcile: (event id, status, reservations, sum of stall prices). */
+    @Query("SELECT es.event.id, r.status, COUNT(r), COALESCE(SUM(es.finalPriceCents), 0) FROM Reservation r " +
+           "JOIN r.eventStall es GROUP BY es.event.id, r.status")
+    List<Object[]> countByEventAndStatus();
 
-    @Query("SELECT COUNT(DISTINCT r.user.id) FROM Reservation r WHERE r.status = 'PAID' OR r.status = 'PENDING_PAYMENT'")
-    long countActiveVendors();
+    /** Dashboard reconcile: (event id, vendor id, active reservations) for vendors holding stalls. */
+    @Query("SELECT es.event.id, r.user.id, COUNT(r) FROM Reservation r JOIN r.eventStall es " +
+           "WHERE r.status IN (com.bookfair.entity.Reservation.ReservationStatus.PENDING_PAYMENT, " +
+           "com.bookfair.entity.Reservation.ReservationStatus.PAID) GROUP BY es.event.id, r.user.id")
+    List<Object[]> countActiveHoldsByEventAndVendor();
 
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.status IN :statuses")
     long countByStatusIn(@org.springframework.data.repository.query.Param("statuses") List<Reservation.ReservationStatus> statuses);
@@ -56,17 +117,102 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.eventStall es LEFT JOIN FETCH es.stallTemplate st LEFT JOIN FETCH st.hall h LEFT JOIN FETCH h.building b LEFT JOIN FETCH r.user WHERE r.eventStall.event.id = :eventId AND (r.status = 'PAID' OR r.status = 'PENDING_PAYMENT')")
     List<Reservation> findActiveByEventId(Long eventId);
 
-    /** Search by vendor business name or username (case-insensitive) with filters */
-    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.eventStall es LEFT JOIN FETCH es.stallTemplate st LEFT JOIN FETCH st.hall h LEFT JOIN FETCH h.building b LEFT JOIN FETCH r.user " +
-           "WHERE (LOWER(r.user.businessName) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(r.user.username) LIKE LOWER(CONCAT('%', :q, '%'))) " +
-           "AND (:status IS NULL OR r.status = :status) " +
-           "AND (:eventId IS NULL OR r.eventStall.event.id = :eventId)")
-    List<Reservation> searchReservations(
-            @org.springframework.data.repository.query.Param("q") String q,
-            @org.springframework.data.repository.query.Param("status") Reservation.ReservationStatus status,
-            @org.springframework.data.repository.query.Param("eventId") Long eventId);
+    /** [id, expiresAt, createdAt] of every open hold, used to seed the expiry queue at startup. */
+    @Query("SELECT r.id, r.expiresAt, r.createdAt FROM Reservation r WHERE r.status = 'PENDING_PAYMENT'")
+    List<Object[]> findPendingHolds();
+
+    /** Holds still awaiting payment among the given ids, with everything a transition event needs. */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.eventStall es JOIN FETCH es.event JOIN FETCH es.stallTemplate JOIN FETCH r.user " +
+           "WHERE r.id IN :ids AND r.status = 'PENDING_PAYMENT'")
+    List<Reservation> findPendingByIdIn(List<Long> ids);
+
+    /** The given reservations with everything a transition event needs, whatever their status. */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.eventStall es JOIN FETCH es.event JOIN FETCH es.stallTemplate JOIN FETCH r.user " +
+           "WHERE r.id IN :ids")
+    List<Reservation> findWithDetailsByIdIn(@org.springframework.data.repository.query.Param("ids") List<Long> ids);
+
+    /**
+     * Expires the given holds that are still unpaid and past their deadline, in one statement, and
+     * returns the ids it changed. The status and deadline are re-checked under the row lock, so a
+     * payment or checkout extension committed concurrently wins over the sweep.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    @Query(value = "UPDATE reservations SET status = 'EXPIRED' WHERE id IN (:ids) AND status = 'PENDING_PAYMENT' " +
+           "AND (expires_at IS NULL OR expires_at <= :now) RETURNING id", nativeQuery = true)
+    List<Long> expireDueHolds(@org.springframework.data.repository.query.Param("ids") List<Long> ids,
+                              @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
+
+    /** PENDING_PAYMENT to PAID, only if the hold has not been expired or cancelled in the meantime. */
+    @org.springframework.data.jpa.repository.Modifying
+    @Query("UPDATE Reservation r SET r.status = com.bookfair.entity.Reservation.ReservationStatus.PAID " +
+           "WHERE r.id = :id AND r.status = com.bookfair.entity.Reservation.ReservationStatus.PENDING_PAYMENT")
+    int markPaid(@org.springframework.data.repository.query.Param("id") Long id);
+
+    /** Records a checkout on a hold that is still PENDING_PAYMENT; 0 when it ended in the meantime. */
+    @org.springframework.data.jpa.repository.Modifying
+    @Query("UPDATE Reservation r SET r.paymentId = :paymentId, r.expiresAt = :expiresAt " +
+           "WHERE r.id = :id AND r.status = com.bookfair.entity.Reservation.ReservationStatus.PENDING_PAYMENT")
+    int startCheckout(@org.springframework.data.repository.query.Param("id") Long id,
+                      @org.springframework.data.repository.query.Param("paymentId") String paymentId,
+                      @org.springframework.data.repository.query.Param("expiresAt") java.time.LocalDateTime expiresAt);
+
+    /** Stores the intent id without rewriting the rest of a row whose status may have moved on. */
+    @org.springframework.data.jpa.repository.Modifying
+    @Query("UPDATE Reservation r SET r.paymentId = :paymentId WHERE r.id = :id")
+    int recordPaymentId(@org.springframework.data.repository.query.Param("id") Long id,
+                        @org.springframework.data.repository.query.Param("paymentId") String paymentId);
+
+    /** [id, qrCode, userId, businessName, stallName, eventName] of every PAID reservation of an event, for the gate cache. */
+    @Query("SELECT r.id, r.qrCode, u.id, u.businessName, st.name, e.name FROM Reservation r JOIN r.user u " +
+           "JOIN r.eventStall es JOIN es.event e LEFT JOIN es.stallTemplate st " +
+           "WHERE e.id = :eventId AND r.status = com.bookfair.entity.Reservation.ReservationStatus.PAID")
+    List<Object[]> findGateAdmissions(@org.springframework.data.repository.query.Param("eventId") Long eventId);
+
+    /** Same row as {@link #findGateAdmissions(Long)} for one reservation, whatever its status. */
+    @Query("SELECT r.id, r.qrCode, u.id, u.businessName, st.name, e.name FROM Reservation r JOIN r.user u " +
+           "JOIN r.eventStall es JOIN es.event e LEFT JOIN es.stallTemplate st WHERE r.id = :id")
+    List<Object[]> findGateAdmission(@org.springframework.data.repository.query.Param("id") Long id);
 
     /** Count reservations that have a check-in log entry */
     @Query("SELECT COUNT(DISTINCT cl.reservation.id) FROM CheckInLog cl")
     long countCheckedIn();
+
+    @Query("SELECT DISTINCT r.user.email FROM Reservation r WHERE r.eventStall.event.id = :eventId " +
+           "AND r.status = com.bookfair.entity.Reservation.ReservationStatus.PAID AND r.user.email IS NOT NULL")
+    List<String> findPaidVendorEmailsByEventId(@org.springframework.data.repository.query.Param("eventId") Long eventId);
+
+    /** Keyset page of an event's paid tickets: (id, qrCode, stall name, vendor business name, event stall id, event end, event start). */
+    @Query("SELECT r.id, r.qrCode, st.name, u.businessName, es.id, e.endDate, e.startDate FROM Reservation r JOIN r.eventStall es " +
+           "JOIN es.event e LEFT JOIN es.stallTemplate st JOIN r.user u WHERE es.event.id = :eventId " +
+           "AND r.status = com.bookfair.entity.Reservation.ReservationStatus.PAID AND r.id > :afterId ORDER BY r.id")
+    List<Object[]> findPaidTicketsAfter(@org.springframework.data.repository.query.Param("eventId") Long eventId,
+                                        @org.springframework.data.repository.query.Param("afterId") Long afterId,
+                                        org.springframework.data.domain.Pageable page);
+
+    /** An event's reservations whose tickets must no longer admit: everything not PAID. */
+    @Query("SELECT r.id FROM Reservation r WHERE r.eventStall.event.id = :eventId " +
+           "AND r.status <> com.bookfair.entity.Reservation.ReservationStatus.PAID ORDER BY r.id")
+    List<Long> findRevokedIdsByEventId(@org.springframework.data.repository.query.Param("eventId") Long eventId);
+
+    /** (qrCode, id) for whichever of the given QR codes exist. */
+    @Query("SELECT r.qrCode, r.id FROM Reservation r WHERE r.qrCode IN :qrCodes")
+    List<Object[]> findIdsByQrCodes(@org.springframework.data.repository.query.Param("qrCodes") java.util.Collection<String> qrCodes);
+
+    /** What a batch check-in needs per reservation: (id, status, event id, vendor id, business name, stall name, event name). */
+    @Query("SELECT r.id, r.status, e.id, u.id, u.businessName, st.name, e.name FROM Reservation r JOIN r.user u " +
+           "JOIN r.eventStall es JOIN es.event e LEFT JOIN es.stallTemplate st WHERE r.id IN :ids")
+    List<Object[]> findCheckInCandidates(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
+
+    /** Flat rows for the reservations CSV, read through a forward-only cursor. */
+    @org.springframework.data.jpa.repository.QueryHints({
+        @jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.id, u.username, u.email, r.qrCode, r.status, COALESCE(es.finalPriceCents, 0), r.createdAt " +
+           "FROM Reservation r LEFT JOIN r.user u LEFT JOIN r.eventStall es ORDER BY r.id")
+    java.util.stream.Stream<Object[]> streamExportRows();
+
+    @org.springframework.data.jpa.repository.Modifying
+    @Query("UPDATE Reservation r SET r.emailSent = true WHERE r.id = :id")
+    int markEmailSent(@org.springframework.data.repository.query.Param("id") Long id);
 }
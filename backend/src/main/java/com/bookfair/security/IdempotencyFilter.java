@@ -0,0 +1,248 @@
+package com.bookfair.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes retried booking and payment confirmation calls safe.
+ *
+ * A POST carrying an Idempotency-Key header is executed once per (user, path, key); the first
+ * response is kept and replayed byte-for-byte to every retry, with Idempotent-Replayed set.
+ * Duplicates that arrive while the first request is still running wait for its result instead
+ * of repeating the work. Server errors and 429s are not kept, so those can be retried for real.
+ * Each entry also keeps a hash of the request body: reusing a key for a different request is a
+ * client bug, answered with 422 rather than the first request's response.
+ *
+ * Entries live in an LRU map bounded by size and expire after a TTL. Like the rate limiter,
+ * this is per instance; a multi-node deployment would move the store to Redis.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long waitMillis;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyFilter(@Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                             @Value("${app.idempotency.ttl-minutes:60}") long ttlMinutes,
+                             @Value("${app.idempotency.wait-ms:30000}") long waitMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.waitMillis = waitMillis;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyFilter.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !(path.equals("/api/v1/vendor/reservations") || path.startsWith("/api/v1/payments/confirm/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String key = scopeKey(request);
+        CachedBodyRequest cached = new CachedBodyRequest(request);
+        Entry entry = new Entry(fingerprint(request, cached.body));
+        Entry existing = putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint, entry.fingerprint)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                        "This Idempotency-Key was already used for a different request.");
+                return;
+            }
+            replay(existing, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(cached, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+
+        StoredResponse stored = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+        if (stored.status >= 500 || stored.status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            remove(key, entry);
+        }
+        entry.result.complete(stored);
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(Entry entry, HttpServletResponse response) throws IOException {
+        StoredResponse stored;
+        try {
+            stored = entry.result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.CONFLICT, "IDEMPOTENCY_CONFLICT", "Interrupted while waiting for the original request.");
+            return;
+        } catch (ExecutionException | TimeoutException e) {
+            writeError(response, HttpStatus.CONFLICT, "IDEMPOTENCY_CONFLICT",
+                    "A request with this Idempotency-Key is still in progress or failed. Please retry.");
+            return;
+        }
+        response.setStatus(stored.status);
+        if (stored.contentType != null) {
+            response.setContentType(stored.contentType);
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body.length);
+        response.getOutputStream().write(stored.body);
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String code, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":" + status.value() + ",\"code\":\"" + code + "\",\"message\":\"" + message + "\"}");
+    }
+
+    /** SHA-256 of the query string and body; the path is already part of the key. */
+    private static byte[] fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private String scopeKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String user = auth != null ? auth.getName() : "anonymous";
+        return user + ' ' + request.getRequestURI() + ' ' + request.getHeader(HEADER);
+    }
+
+    private synchronized Entry putIfAbsent(String key, Entry entry) {
+        Entry existing = entries.get(key);
+        if (existing != null && System.currentTimeMillis() - existing.createdAt <= ttlMillis) {
+            return existing;
+        }
+        entries.put(key, entry);
+        return null;
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    private static final class Entry {
+        final long createdAt = System.currentTimeMillis();
+        final byte[] fingerprint;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /** Reads the body up front so it can be hashed and still be read by the controller. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+
+    private static final class StoredResponse {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        StoredResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
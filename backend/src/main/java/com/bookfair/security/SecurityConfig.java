@@ -38,6 +38,7 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final RateLimitingFilter rateLimitingFilter;
+    private final IdempotencyFilter idempotencyFilter;
 
     /**
      * Configures the authentication provider that verifies login credentials.
@@ -113,7 +114,10 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> 
-                auth.requestMatchers("/api/email/**").permitAll()
+                // Async dispatches (long-polls, streamed exports) were authorized on the original request;
+                // the JWT filter does not run again, so they would otherwise be rejected as anonymous
+                auth.dispatcherTypeMatchers(jakarta.servlet.DispatcherType.ASYNC).permitAll()
+                    .requestMatchers("/api/email/**").permitAll()
                     .requestMatchers("/api/v1/auth/**").permitAll()
                     .requestMatchers("/api/v1/public/**").permitAll()
                     .requestMatchers("/uploads/**").permitAll()
@@ -143,6 +147,8 @@ public class SecurityConfig {
         // it propegates up and down like a stack almost
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         http.addFilterBefore(rateLimitingFilter, JwtAuthenticationFilter.class);
+        // after the JWT filter so idempotency keys are scoped to the authenticated user
+        http.addFilterAfter(idempotencyFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
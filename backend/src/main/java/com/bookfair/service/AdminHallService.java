@@ -3,7 +3,9 @@ package com.bookfair.service;
 import com.bookfair.entity.Hall;
 import com.bookfair.entity.HallStatus;
 import com.bookfair.repository.HallRepository;
+import com.bookfair.dto.event.EventLayoutChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.bookfair.exception.ResourceNotFoundException;
@@ -16,6 +18,7 @@ import java.util.List;
 public class AdminHallService {
 
     private final HallRepository hallRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Hall> getAllHalls() {
@@ -58,7 +61,10 @@ public class AdminHallService {
         if (hallDetails.getDistanceFromParking() != null) hall.setDistanceFromParking(hallDetails.getDistanceFromParking());
         if (hallDetails.getIsGroundFloor() != null) hall.setIsGroundFloor(hallDetails.getIsGroundFloor());
 
-        return hallRepository.save(hall);
+        Hall saved = hallRepository.save(hall);
+        // Hall metadata is embedded in every event map that places stalls in it
+        eventPublisher.publishEvent(EventLayoutChangedEvent.allEvents());
+        return saved;
     }
 
     /** Change hall status to any value (DRAFT / PUBLISHED / ARCHIVED) */
@@ -2,11 +2,16 @@ package com.bookfair.service;
 
 import com.bookfair.entity.*;
 import com.bookfair.repository.*;
+import com.bookfair.dto.event.EventLayoutChangedEvent;
+import com.bookfair.dto.event.ReservationTransitionEvent;
 import com.bookfair.dto.response.AdminDashboardStats;
+import com.bookfair.dto.response.MailingJobResponse;
+import com.bookfair.dto.response.EventStatsResponse;
 import com.bookfair.exception.ResourceNotFoundException;
 import com.bookfair.exception.BadRequestException;
 import com.bookfair.exception.ConflictException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -20,7 +25,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -37,6 +41,11 @@ public class AdminService {
     private final UserRepository userRepository;
     private final AuditLogRepository auditLogRepository;
     private final ObjectMapper objectMapper;
+    private final StallScoringEngine scoringEngine;
+    private final StallScoreService scoreService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VendorMailingService vendorMailingService;
+    private final DashboardCounters dashboardCounters;
 
     // ─── MAP UPLOAD ───────────────────────────────────────────────
 
@@ -66,6 +75,7 @@ public class AdminService {
             Map<String, String> config = Map.of("mapUrl", mapUrl);
             event.setLayoutConfig(objectMapper.writeValueAsString(config));
             eventRepository.save(event);
+            eventPublisher.publishEvent(new EventLayoutChangedEvent(eventId));
             
             return mapUrl;
         } catch (IOException e) {
@@ -89,6 +99,7 @@ public class AdminService {
                 .collect(Collectors.toList());
 
         List<EventStall> existingStalls = eventStallRepository.findByEvent_Id(eventId);
+        scoringEngine.evictStalls(existingStalls.stream().map(EventStall::getId).collect(Collectors.toList()));
         for (EventStall existing : existingStalls) {
             if (!payloadStallIds.contains(existing.getId())) {
                 eventStallRepository.delete(existing);
@@ -145,6 +156,8 @@ public class AdminService {
             return null;
         }).filter(java.util.Objects::nonNull).collect(Collectors.toList());
 
+        scoreService.rescore(updatedItems);
+        eventPublisher.publishEvent(new EventLayoutChangedEvent(eventId));
         return eventStallRepository.saveAll(updatedItems);
     }
 
@@ -154,27 +167,16 @@ public class AdminService {
                 .orElseThrow(() -> new ResourceNotFoundException("Hall not found: " + hallId));
         hall.setStaticLayout(staticLayoutJson);
         hallRepository.save(hall);
+        scoringEngine.evictHall(hallId);
+        scoreService.rescoreHall(hallId);
+        eventPublisher.publishEvent(EventLayoutChangedEvent.allEvents());
     }
 
     // ─── DASHBOARD ────────────────────────────────────────────────
 
-    @Transactional(readOnly = true)
+    /** Served from in-memory counters; see {@link DashboardCounters}. */
     public AdminDashboardStats getDashboardStats() {
-        long totalReservations = reservationRepository.countByStatusIn(List.of(
-            Reservation.ReservationStatus.PAID,
-            Reservation.ReservationStatus.PENDING_PAYMENT
-        ));
-        long totalRevenueCents = reservationRepository.sumTotalRevenueCents();
-        long activeVendors    = reservationRepository.countActiveVendors();
-        long totalStalls      = eventStallRepository.count();
-        double fillRate       = totalStalls > 0 ? (double) totalReservations / totalStalls * 100.0 : 0.0;
-
-        return AdminDashboardStats.builder()
-                .totalReservations(totalReservations)
-                .totalRevenueLkr(totalRevenueCents)
-                .activeVendors(activeVendors)
-                .fillRate(fillRate)
-                .build();
+        return dashboardCounters.adminStats();
     }
 
     @Transactional
@@ -196,17 +198,16 @@ public class AdminService {
         if (req.getImageUrl() != null) template.setImageUrl(req.getImageUrl());
 
         stallTemplateRepository.save(template);
+        if (req.getGeometry() != null || req.getDefaultProximityScore() != null) {
+            scoreService.rescoreTemplate(stallId);
+        }
+        eventPublisher.publishEvent(EventLayoutChangedEvent.allEvents());
         logAudit("UPDATE_STALL_TEMPLATE", "STALL_TEMPLATE", stallId, req);
         return template;
     }
 
     // ─── RESERVATIONS ─────────────────────────────────────────────
 
-    @Transactional(readOnly = true)
-    public List<Reservation> getAllReservations() {
-        return reservationRepository.findAll();
-    }
-
     @Transactional(readOnly = true)
     public Reservation getReservationById(Long id) {
         return reservationRepository.findById(id)
@@ -222,6 +223,7 @@ public class AdminService {
         }
         res.setStatus(Reservation.ReservationStatus.PAID);
         reservationRepository.save(res);
+        eventPublisher.publishEvent(ReservationTransitionEvent.of(res, Reservation.ReservationStatus.PENDING_PAYMENT));
         logAudit("ADMIN_CONFIRM_PAYMENT", "RESERVATION", reservationId, null);
     }
 
@@ -232,6 +234,7 @@ public class AdminService {
         if (res.getStatus() == Reservation.ReservationStatus.CANCELLED) {
             throw new BadRequestException("Reservation is already cancelled");
         }
+        Reservation.ReservationStatus previousStatus = res.getStatus();
         // Free the stall
         EventStall stall = res.getEventStall();
         stall.setStatus(EventStallStatus.AVAILABLE);
@@ -239,27 +242,10 @@ public class AdminService {
 
         res.setStatus(Reservation.ReservationStatus.CANCELLED);
         reservationRepository.save(res);
+        eventPublisher.publishEvent(ReservationTransitionEvent.of(res, previousStatus));
         logAudit("ADMIN_CANCEL_RESERVATION", "RESERVATION", reservationId, Map.of("reason", reason));
     }
 
-    /** Export all reservations as CSV bytes */
-    @Transactional(readOnly = true)
-    public byte[] exportReservationsCsv() {
-        List<Reservation> reservations = reservationRepository.findAll();
-        StringBuilder sb = new StringBuilder();
-        sb.append("ID,Vendor,Email,QRCode,Status,TotalLKR,CreatedAt\n");
-        for (Reservation r : reservations) {
-            sb.append(r.getId()).append(',')
-              .append(r.getUser() != null ? r.getUser().getUsername() : "").append(',')
-              .append(r.getUser() != null ? r.getUser().getEmail() : "").append(',')
-              .append(r.getQrCode()).append(',')
-              .append(r.getStatus()).append(',')
-              .append(r.getEventStall() != null && r.getEventStall().getFinalPriceCents() != null ? r.getEventStall().getFinalPriceCents() : 0).append(',')
-              .append(r.getCreatedAt()).append('\n');
-        }
-        return sb.toString().getBytes(StandardCharsets.UTF_8);
-    }
-
     // ─── EVENT STALLS ─────────────────────────────────────────────
 
     @Transactional(readOnly = true)
@@ -267,26 +253,130 @@ public class AdminService {
         return eventStallRepository.findByEvent_Id(eventId);
     }
 
+    /**
+     * Computed from one grouped query (a few rows per hall and size), so the cost does not grow
+     * with the number of stalls loaded into memory.
+     */
     @Transactional(readOnly = true)
-    public Map<String, Object> getEventStats(Long eventId) {
-        List<EventStall> stalls = eventStallRepository.findByEvent_Id(eventId);
-        long total    = stalls.size();
-        long reserved = stalls.stream().filter(s -> s.getStatus() == EventStallStatus.RESERVED).count();
-        long available = stalls.stream().filter(s -> s.getStatus() == EventStallStatus.AVAILABLE).count();
-        long blocked  = stalls.stream().filter(s -> s.getStatus() == EventStallStatus.BLOCKED).count();
-        long revenueReserved = stalls.stream()
-                .filter(s -> s.getStatus() == EventStallStatus.RESERVED)
-                .mapToLong(s -> s.getFinalPriceCents() != null ? s.getFinalPriceCents() : 0).sum();
+    public EventStatsResponse getEventStats(Long eventId) {
+        StatsTally total = new StatsTally(null, null);
+        Map<Long, StatsTally> byHall = new java.util.LinkedHashMap<>();
+        Map<HallTier, StatsTally> byTier = new java.util.TreeMap<>();
+        Map<StallSize, StatsTally> bySize = new java.util.TreeMap<>();
+        long pendingReservations = 0;
+
+        for (Object[] row : eventStallRepository.aggregateStatsByEventId(eventId)) {
+            Long hallId = (Long) row[0];
+            HallTier tier = (HallTier) row[2];
+            StallSize size = (StallSize) row[3];
+            EventStallStatus status = (EventStallStatus) row[4];
+            Reservation.ReservationStatus holder = (Reservation.ReservationStatus) row[5];
+            long count = (Long) row[6];
+            long priceCents = ((Number) row[7]).longValue();
+
+            total.add(status, holder, count, priceCents);
+            if (hallId != null) {
+                byHall.computeIfAbsent(hallId, id -> new StatsTally(id, (String) row[1])).add(status, holder, count, priceCents);
+            }
+            if (tier != null) {
+                byTier.computeIfAbsent(tier, t -> new StatsTally(null, t.name())).add(status, holder, count, priceCents);
+            }
+            if (size != null) {
+                bySize.computeIfAbsent(size, z -> new StatsTally(null, z.name())).add(status, holder, count, priceCents);
+            }
+            if (holder == Reservation.ReservationStatus.PENDING_PAYMENT) {
+                pendingReservations += count;
+            }
+        }
 
-        return Map.of(
-            "eventId", eventId,
-            "totalStalls", total,
-            "reservedStalls", reserved,
-            "availableStalls", available,
-            "blockedStalls", blocked,
-            "fillRate", total > 0 ? (double) reserved / total * 100.0 : 0.0,
-            "projectedRevenueCents", revenueReserved
-        );
+        return EventStatsResponse.builder()
+                .eventId(eventId)
+                .totalStalls(total.stalls)
+                .reservedStalls(total.reserved)
+                .availableStalls(total.available)
+                .blockedStalls(total.blocked)
+                .fillRate(total.fillRate())
+                .projectedRevenueCents(total.reservedCents)
+                .paidRevenueCents(total.paidCents)
+                .pendingReservations(pendingReservations)
+                .pendingExposureCents(total.pendingCents)
+                .byHall(byHall.values().stream().map(StatsTally::toBreakdown).toList())
+                .byTier(byTier.values().stream().map(StatsTally::toBreakdown).toList())
+                .bySize(bySize.values().stream().map(StatsTally::toBreakdown).toList())
+                .build();
+    }
+
+    /** Running totals for one slice of an event's stats. */
+    private static final class StatsTally {
+        private final Long hallId;
+        private final String name;
+        private long stalls;
+        private long reserved;
+        private long available;
+        private long blocked;
+        private long reservedCents;
+        private long paidCents;
+        private long pendingCents;
+
+        StatsTally(Long hallId, String name) {
+            this.hallId = hallId;
+            this.name = name;
+        }
+
+        /**
+         * A stall counts as reserved while it has an active reservation, whatever its stored status
+         * says (that column can lag behind a hold or an expiry); only blocking is read from it.
+         */
+        void add(EventStallStatus status, Reservation.ReservationStatus holder, long count, long priceCents) {
+            stalls += count;
+            if (holder != null) {
+                reserved += count;
+                reservedCents += priceCents;
+            } else if (status == EventStallStatus.BLOCKED) {
+                blocked += count;
+            } else {
+                available += count;
+            }
+            if (holder == Reservation.ReservationStatus.PAID) {
+                paidCents += priceCents;
+            } else if (holder == Reservation.ReservationStatus.PENDING_PAYMENT) {
+                pendingCents += priceCents;
+            }
+        }
+
+        double fillRate() {
+            return stalls > 0 ? (double) reserved / stalls * 100.0 : 0.0;
+        }
+
+        EventStatsResponse.Breakdown toBreakdown() {
+            return EventStatsResponse.Breakdown.builder()
+                    .hallId(hallId)
+                    .name(name)
+                    .totalStalls(stalls)
+                    .reservedStalls(reserved)
+                    .fillRate(fillRate())
+                    .paidRevenueCents(paidCents)
+                    .pendingExposureCents(pendingCents)
+                    .build();
+        }
+    }
+
+    // ─── VENDOR MAILINGS ─────────────────────────────────────────
+
+    /** Queues the mailing and returns its job at once; the SMTP run happens in the background. */
+    public MailingJobResponse emailEventVendors(Long eventId, String subject, String body) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found: " + eventId);
+        }
+        List<String> recipients = reservationRepository.findPaidVendorEmailsByEventId(eventId);
+        MailingJobResponse job = vendorMailingService.submit(eventId, recipients, subject, body);
+        logAudit("VENDOR_MAILING", "EVENT", eventId,
+                Map.of("subject", subject, "recipients", recipients.size(), "jobId", job.getJobId()));
+        return job;
+    }
+
+    public MailingJobResponse getMailingJob(String jobId) {
+        return vendorMailingService.get(jobId);
     }
 
     // ─── PRICING ─────────────────────────────────────────────────
@@ -306,6 +396,7 @@ public class AdminService {
             stall.setPricingVersion("MANUAL_PRICE_UPDATE");
         }
         eventStallRepository.save(stall);
+        eventPublisher.publishEvent(new EventLayoutChangedEvent(stall.getEvent().getId()));
         logAudit("PRICE_OVERRIDE", "EVENT_STALL", stallId, request);
 
         return Map.of("stallId", stallId, "finalPriceCents", stall.getFinalPriceCents());
@@ -328,6 +419,7 @@ public class AdminService {
             throw new BadRequestException("Only PAID or PENDING_REFUND reservations can be refunded.");
         }
 
+        Reservation.ReservationStatus previousStatus = reservation.getStatus();
         // Free the stall
         EventStall stall = reservation.getEventStall();
         if (stall != null) {
@@ -337,6 +429,7 @@ public class AdminService {
 
         reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
         reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationTransitionEvent.of(reservation, previousStatus));
         logAudit("REFUND_ISSUED", "RESERVATION", reservationId, Map.of("reason", reason != null ? reason : ""));
 
         return Map.of(
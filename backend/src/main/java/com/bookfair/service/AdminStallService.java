@@ -4,7 +4,9 @@ import com.bookfair.entity.*;
 import com.bookfair.repository.EventStallRepository;
 import com.bookfair.repository.HallRepository;
 import com.bookfair.repository.StallTemplateRepository;
+import com.bookfair.dto.event.EventLayoutChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.bookfair.exception.ResourceNotFoundException;
@@ -20,6 +22,7 @@ public class AdminStallService {
     private final StallTemplateRepository stallTemplateRepository;
     private final EventStallRepository eventStallRepository;
     private final HallRepository hallRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public List<StallTemplate> bulkGenerateStalls(Long hallId, int count, StallSize size, StallCategory category, Long basePriceCents) {
@@ -77,7 +80,9 @@ public class AdminStallService {
         StallTemplate stall = stallTemplateRepository.findById(stallId)
                 .orElseThrow(() -> new ResourceNotFoundException("Stall not found: " + stallId));
         stall.setIsAvailable(available);
-        return stallTemplateRepository.save(stall);
+        StallTemplate saved = stallTemplateRepository.save(stall);
+        eventPublisher.publishEvent(EventLayoutChangedEvent.allEvents());
+        return saved;
     }
 
     /** Export stall inventory as CSV bytes */
@@ -0,0 +1,214 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.AdmissionTicketResponse;
+import com.bookfair.exception.AdmissionQueuedException;
+import com.bookfair.exception.ResourceNotFoundException;
+import com.bookfair.exception.ServiceUnavailableException;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Waiting room in front of the booking endpoint.
+ *
+ * When booking opens for a popular event every vendor submits at once. Instead of letting all
+ * of them fight for the connection pool, requests are admitted at a fixed rate: while nobody is
+ * waiting and the rate allows it a request goes straight through, otherwise it gets a FIFO
+ * ticket and is told its position and ETA. A scheduled tick admits tickets from the head of the
+ * queue as the rate refills, and admitted requests still pass a semaphore that caps how many
+ * bookings touch the database at the same time.
+ *
+ * Waiting tickets that stop polling are dropped, and admitted tickets that are not redeemed
+ * within the admit window lapse, so abandoned browsers do not hold slots.
+ */
+@Service
+@Slf4j
+public class BookingAdmissionService {
+
+    private final Bucket admissionRate;
+    private final Semaphore bookingPermits;
+    private final int ratePerSecond;
+    private final int maxWaiting;
+    private final long abandonAfterMs;
+    private final long admitWindowMs;
+    private final long permitWaitMs;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Queue<Ticket> waiting = new ConcurrentLinkedQueue<>();
+    private final Queue<Ticket> admitted = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final AtomicLong issued = new AtomicLong();
+    private volatile long admittedThrough;
+
+    public BookingAdmissionService(@Value("${app.admission.rate-per-second:20}") int ratePerSecond,
+                                   @Value("${app.admission.max-concurrent:10}") int maxConcurrent,
+                                   @Value("${app.admission.max-waiting:10000}") int maxWaiting,
+                                   @Value("${app.admission.abandon-after-seconds:30}") int abandonAfterSeconds,
+                                   @Value("${app.admission.admit-window-seconds:60}") int admitWindowSeconds,
+                                   @Value("${app.admission.permit-wait-ms:2000}") long permitWaitMs) {
+        this.admissionRate = Bucket.builder()
+                .addLimit(Bandwidth.classic(ratePerSecond, Refill.greedy(ratePerSecond, Duration.ofSeconds(1))))
+                .build();
+        this.bookingPermits = new Semaphore(maxConcurrent, true);
+        this.ratePerSecond = ratePerSecond;
+        this.maxWaiting = maxWaiting;
+        this.abandonAfterMs = TimeUnit.SECONDS.toMillis(abandonAfterSeconds);
+        this.admitWindowMs = TimeUnit.SECONDS.toMillis(admitWindowSeconds);
+        this.permitWaitMs = permitWaitMs;
+    }
+
+    /**
+     * Runs the booking if the caller is admitted, either directly or by redeeming an admitted
+     * ticket. Otherwise throws AdmissionQueuedException carrying the caller's ticket.
+     */
+    public <T> T admit(String username, String ticketId, Supplier<T> booking) {
+        if (ticketId != null && !ticketId.isBlank()) {
+            redeem(username, ticketId);
+        } else if (waitingCount.get() > 0 || !admissionRate.tryConsume(1)) {
+            throw new AdmissionQueuedException(enqueue(username));
+        }
+        return withBookingPermit(booking);
+    }
+
+    /** Current position of a ticket; polling also keeps it from being dropped as abandoned. */
+    public AdmissionTicketResponse status(String username, String ticketId) {
+        Ticket ticket = findOwned(username, ticketId);
+        ticket.lastSeen = System.currentTimeMillis();
+        return toResponse(ticket);
+    }
+
+    @Scheduled(fixedDelayString = "${app.admission.tick-ms:200}")
+    public void admitWaiting() {
+        admitWaiting(System.currentTimeMillis());
+    }
+
+    void admitWaiting(long now) {
+        Ticket head;
+        while ((head = waiting.peek()) != null) {
+            if (now - head.lastSeen > abandonAfterMs) {
+                dequeue(head);
+                tickets.remove(head.id, head);
+                continue;
+            }
+            if (!admissionRate.tryConsume(1)) {
+                break;
+            }
+            dequeue(head);
+            head.admittedAt = now;
+            admittedThrough = head.seq;
+            admitted.add(head);
+        }
+        // Admitted tickets are queued in admission order, so lapsed ones are always at the head
+        while ((head = admitted.peek()) != null && now - head.admittedAt > admitWindowMs) {
+            admitted.poll();
+            tickets.remove(head.id, head);
+        }
+    }
+
+    int waitingCount() {
+        return waitingCount.get();
+    }
+
+    private AdmissionTicketResponse enqueue(String username) {
+        if (waitingCount.get() >= maxWaiting) {
+            throw new ServiceUnavailableException("The booking queue is full. Please try again shortly.");
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), issued.incrementAndGet(), username);
+        tickets.put(ticket.id, ticket);
+        waiting.add(ticket);
+        waitingCount.incrementAndGet();
+        return toResponse(ticket);
+    }
+
+    private void redeem(String username, String ticketId) {
+        Ticket ticket = findOwned(username, ticketId);
+        ticket.lastSeen = System.currentTimeMillis();
+        if (ticket.admittedAt == 0) {
+            throw new AdmissionQueuedException(toResponse(ticket));
+        }
+        if (!tickets.remove(ticketId, ticket)) {
+            // Redeemed concurrently by another request carrying the same ticket
+            throw new ResourceNotFoundException("Queue ticket not found or expired: " + ticketId);
+        }
+    }
+
+    private Ticket findOwned(String username, String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.username.equals(username)) {
+            throw new ResourceNotFoundException("Queue ticket not found or expired: " + ticketId);
+        }
+        return ticket;
+    }
+
+    private void dequeue(Ticket ticket) {
+        if (waiting.remove(ticket)) {
+            waitingCount.decrementAndGet();
+        }
+    }
+
+    private <T> T withBookingPermit(Supplier<T> booking) {
+        boolean acquired;
+        try {
+            acquired = bookingPermits.tryAcquire(permitWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking was interrupted. Please try again.");
+        }
+        if (!acquired) {
+            throw new ServiceUnavailableException("Booking is busy. Please try again shortly.");
+        }
+        try {
+            return booking.get();
+        } finally {
+            bookingPermits.release();
+        }
+    }
+
+    private AdmissionTicketResponse toResponse(Ticket ticket) {
+        if (ticket.admittedAt != 0) {
+            return AdmissionTicketResponse.builder()
+                    .ticketId(ticket.id)
+                    .admitted(true)
+                    .build();
+        }
+        long position = Math.max(1, ticket.seq - admittedThrough);
+        long eta = (position + ratePerSecond - 1) / ratePerSecond;
+        return AdmissionTicketResponse.builder()
+                .ticketId(ticket.id)
+                .position(position)
+                .etaSeconds(eta)
+                // Poll well inside the abandon window so a waiting ticket is never dropped
+                .retryAfterSeconds(Math.max(1, Math.min(eta, abandonAfterMs / 3000)))
+                .build();
+    }
+
+    private static final class Ticket {
+        final String id;
+        final long seq;
+        final String username;
+        volatile long lastSeen = System.currentTimeMillis();
+        volatile long admittedAt;
+
+        Ticket(String id, long seq, String username) {
+            this.id = id;
+            this.seq = seq;
+            this.username = username;
+        }
+    }
+}
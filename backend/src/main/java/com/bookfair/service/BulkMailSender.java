@@ -0,0 +1,274 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.BulkMailResponse;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk delivery over a small pool of reused SMTP connections.
+ *
+ * JavaMailSender.send opens, authenticates and closes a transport per call, which for a
+ * mailing to every vendor means thousands of TLS handshakes. Here each pooled connection is
+ * authenticated once and sends many messages in turn, throttled by its own rate limit so a
+ * single session stays under the provider's per-connection limits. Connections are recycled
+ * after a fixed number of messages and closed when idle, and one that drops mid-batch is
+ * reopened and the message retried once.
+ */
+@Service
+@Slf4j
+public class BulkMailSender {
+
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final long idleTimeoutMs;
+    private final int ratePerSecond;
+    private final ExecutorService senderPool;
+    private final Semaphore connectionSlots;
+    private final BlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<>();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    public BulkMailSender(JavaMailSender mailSender,
+                          @Value("${app.mail.bulk.pool-size:3}") int poolSize,
+                          @Value("${app.mail.bulk.batch-size:50}") int batchSize,
+                          @Value("${app.mail.bulk.messages-per-connection:100}") int messagesPerConnection,
+                          @Value("${app.mail.bulk.rate-per-second:5}") int ratePerSecond,
+                          @Value("${app.mail.bulk.idle-timeout-ms:60000}") long idleTimeoutMs) {
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.messagesPerConnection = messagesPerConnection;
+        this.ratePerSecond = ratePerSecond;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.connectionSlots = new Semaphore(poolSize);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.senderPool = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "smtp-bulk-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Sends every message, splitting them into batches that each run over one pooled connection. */
+    public BulkMailResponse sendAll(List<MimeMessage> messages) {
+        return sendAll(messages, () -> { });
+    }
+
+    /** As {@link #sendAll(List)}, calling {@code onMessageDone} after each message is sent or has failed. */
+    public BulkMailResponse sendAll(List<MimeMessage> messages, Runnable onMessageDone) {
+        if (!(mailSender instanceof JavaMailSenderImpl)) {
+            // No session to pool (e.g. a stubbed sender); fall back to the plain path
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+            sent.add(messages.size());
+            messages.forEach(m -> onMessageDone.run());
+            return BulkMailResponse.builder().requested(messages.size()).sent(messages.size()).failedRecipients(List.of()).build();
+        }
+
+        List<Future<List<String>>> batches = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += batchSize) {
+            List<MimeMessage> batch = messages.subList(from, Math.min(from + batchSize, messages.size()));
+            batches.add(senderPool.submit(() -> sendBatch(batch, onMessageDone)));
+        }
+
+        List<String> failedRecipients = new ArrayList<>();
+        for (Future<List<String>> batch : batches) {
+            try {
+                failedRecipients.addAll(batch.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Bulk mail run interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk mail batch failed", e.getCause());
+            }
+        }
+        return BulkMailResponse.builder()
+                .requested(messages.size())
+                .sent(messages.size() - failedRecipients.size())
+                .failed(failedRecipients.size())
+                .failedRecipients(failedRecipients)
+                .build();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        stats.put("connectionsOpened", connectionsOpened.sum());
+        stats.put("reconnects", reconnects.sum());
+        stats.put("idleConnections", idle.size());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.bulk.idle-timeout-ms:60000}")
+    public void closeIdleConnections() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> stale = new ArrayList<>();
+        idle.removeIf(c -> now - c.lastUsed > idleTimeoutMs && stale.add(c));
+        stale.forEach(this::discard);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senderPool.shutdownNow();
+        List<PooledConnection> open = new ArrayList<>();
+        idle.drainTo(open);
+        open.forEach(this::discard);
+    }
+
+    private List<String> sendBatch(List<MimeMessage> batch, Runnable onMessageDone) throws MessagingException, InterruptedException {
+        List<String> failedRecipients = new ArrayList<>();
+        PooledConnection connection = borrow();
+        try {
+            for (MimeMessage message : batch) {
+                if (connection.messagesSent >= messagesPerConnection) {
+                    // Providers cap messages per session; send() opens a fresh one
+                    discard(connection);
+                }
+                connection.rateLimit.asBlocking().consume(1);
+                try {
+                    connection = send(connection, message);
+                    sent.increment();
+                } catch (MessagingException e) {
+                    failed.increment();
+                    failedRecipients.add(recipientsOf(message));
+                    log.warn("Bulk mail to {} failed: {}", recipientsOf(message), e.getMessage());
+                }
+                onMessageDone.run();
+            }
+        } finally {
+            release(connection);
+        }
+        return failedRecipients;
+    }
+
+    private PooledConnection send(PooledConnection connection, MimeMessage message) throws MessagingException, InterruptedException {
+        message.saveChanges();
+        Address[] recipients = message.getAllRecipients();
+        if (connection.closed || !connection.transport.isConnected()) {
+            connection = reopen(connection);
+        }
+        try {
+            connection.transport.sendMessage(message, recipients);
+        } catch (MessagingException e) {
+            if (connection.transport.isConnected()) {
+                throw e; // rejected message, the session itself is fine
+            }
+            connection = reopen(connection);
+            connection.transport.sendMessage(message, recipients);
+        }
+        connection.messagesSent++;
+        return connection;
+    }
+
+    private PooledConnection reopen(PooledConnection connection) throws MessagingException, InterruptedException {
+        if (!connection.closed) {
+            reconnects.increment();
+            discard(connection);
+        }
+        return open();
+    }
+
+    private PooledConnection borrow() throws MessagingException, InterruptedException {
+        PooledConnection connection = idle.poll();
+        if (connection != null && connection.transport.isConnected()) {
+            return connection;
+        }
+        if (connection != null) {
+            discard(connection);
+        }
+        return open();
+    }
+
+    private PooledConnection open() throws MessagingException, InterruptedException {
+        connectionSlots.acquire();
+        try {
+            JavaMailSenderImpl impl = (JavaMailSenderImpl) mailSender;
+            Transport transport = impl.getSession().getTransport(impl.getProtocol() != null ? impl.getProtocol() : "smtp");
+            transport.connect(impl.getHost(), impl.getPort(), impl.getUsername(), impl.getPassword());
+            connectionsOpened.increment();
+            return new PooledConnection(transport, Bucket.builder()
+                    .addLimit(Bandwidth.classic(ratePerSecond, Refill.greedy(ratePerSecond, Duration.ofSeconds(1))))
+                    .build());
+        } catch (MessagingException | RuntimeException e) {
+            connectionSlots.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        connection.lastUsed = System.currentTimeMillis();
+        if (!connection.closed && connection.transport.isConnected()) {
+            idle.add(connection);
+        } else {
+            discard(connection);
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        if (connection.closed) {
+            return; // already discarded on a failed reconnect
+        }
+        connection.closed = true;
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed: {}", e.getMessage());
+        } finally {
+            connectionSlots.release();
+        }
+    }
+
+    private static String recipientsOf(MimeMessage message) {
+        try {
+            Address[] recipients = message.getAllRecipients();
+            return recipients == null ? "" : Arrays.stream(recipients).map(Address::toString).collect(Collectors.joining(","));
+        } catch (MessagingException e) {
+            return "";
+        }
+    }
+
+    private static final class PooledConnection {
+        final Transport transport;
+        final Bucket rateLimit;
+        int messagesSent;
+        boolean closed;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Transport transport, Bucket rateLimit) {
+            this.transport = transport;
+            this.rateLimit = rateLimit;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.request.OfflineScanSyncRequest;
+import com.bookfair.dto.response.BulkCheckInResponse;
+import com.bookfair.dto.response.BulkCheckInResponse.ScanResult;
+import com.bookfair.dto.response.TicketVerificationResponse;
+import com.bookfair.entity.Event;
+import com.bookfair.entity.Reservation;
+import com.bookfair.exception.ResourceNotFoundException;
+import com.bookfair.repository.CheckInBatchRepository;
+import com.bookfair.repository.CheckInBatchRepository.CheckInRow;
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.EventRepository;
+import com.bookfair.repository.ReservationRepository;
+import com.bookfair.repository.UserRepository;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Batch check-in: decides a whole batch of gate scans with a fixed number of queries, for
+ * connected gates uploading queued scans and offline gates syncing after reconnecting.
+ *
+ * Repeats within the batch are dropped first; the remaining reservations are then loaded in one
+ * query and matched against existing check-ins in another (plus any open gate's in-memory claims).
+ * Admissions are written as JDBC batches in one transaction, and the unique index on
+ * check_in_logs(reservation_id) settles races with other gates, so a replayed batch is harmless.
+ * Every scan gets its own result, in request order.
+ *
+ * Offline scan times come from the gate's clock, so they are only trusted inside a window: no
+ * earlier than the event start or the gate's previous sync, and no later than now (each give or
+ * take the allowed clock skew). A scan outside it is rejected rather than admitted under a
+ * stale or future time.
+ */
+@Service
+public class CheckInIngestService {
+
+    public static final String ADMITTED = "ADMITTED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String REJECTED = "REJECTED";
+    public static final String INVALID = "INVALID";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private final ReservationRepository reservationRepository;
+    private final CheckInLogRepository checkInLogRepository;
+    private final CheckInBatchRepository checkInBatchRepository;
+    private final UserRepository userRepository;
+    private final GateService gateService;
+    private final TicketTokenService ticketTokenService;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardCounters dashboardCounters;
+    private final NotificationInbox notificationInbox;
+    private final EventRepository eventRepository;
+    private final Duration clockSkew;
+    /** Accepted offline window per event and gate user, keyed "eventId:username". */
+    private final Map<String, SyncWindow> syncWindows = new ConcurrentHashMap<>();
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder scansReceived = new LongAdder();
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+
+    public CheckInIngestService(ReservationRepository reservationRepository,
+                                CheckInLogRepository checkInLogRepository,
+                                CheckInBatchRepository checkInBatchRepository,
+                                UserRepository userRepository,
+                                GateService gateService,
+                                TicketTokenService ticketTokenService,
+                                TransactionTemplate transactionTemplate,
+                                DashboardCounters dashboardCounters,
+                                NotificationInbox notificationInbox,
+                                EventRepository eventRepository,
+                                @Value("${app.gate.offline-clock-skew-minutes:5}") long clockSkewMinutes) {
+        this.reservationRepository = reservationRepository;
+        this.checkInLogRepository = checkInLogRepository;
+        this.checkInBatchRepository = checkInBatchRepository;
+        this.userRepository = userRepository;
+        this.gateService = gateService;
+        this.ticketTokenService = ticketTokenService;
+        this.transactionTemplate = transactionTemplate;
+        this.dashboardCounters = dashboardCounters;
+        this.notificationInbox = notificationInbox;
+        this.eventRepository = eventRepository;
+        this.clockSkew = Duration.ofMinutes(clockSkewMinutes);
+    }
+
+    /**
+     * Admits a batch of raw scans from a connected gate. QR codes are resolved with one query for
+     * the whole batch; signed tickets carry their id; anything else is tried as a reservation id.
+     */
+    public BulkCheckInResponse ingestScans(Long eventId, List<String> scanned, String employeeUsername) {
+        Set<String> qrCodes = new HashSet<>();
+        for (String value : scanned) {
+            if (!TicketTokenService.looksLikeToken(value)) {
+                qrCodes.add(value);
+            }
+        }
+        Map<String, Long> idsByQr = new HashMap<>();
+        if (!qrCodes.isEmpty()) {
+            for (Object[] row : reservationRepository.findIdsByQrCodes(qrCodes)) {
+                idsByQr.put((String) row[0], (Long) row[1]);
+            }
+        }
+        List<Scan> scans = new ArrayList<>(scanned.size());
+        for (String value : scanned) {
+            if (TicketTokenService.looksLikeToken(value)) {
+                scans.add(fromTicket(value, ticketTokenService.verify(value), null));
+            } else {
+                Long reservationId = idsByQr.get(value);
+                scans.add(Scan.builder().scan(value).reservationId(reservationId != null ? reservationId : parseId(value)).build());
+            }
+        }
+        return ingest(eventId, scans, employeeUsername);
+    }
+
+    /**
+     * Uploads from a gate that verified signed tickets offline; expiry is judged at scan time,
+     * which must fall inside the gate's accepted window.
+     */
+    public BulkCheckInResponse syncOffline(Long eventId, List<OfflineScanSyncRequest.Scan> offlineScans, String employeeUsername) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+        LocalDateTime now = LocalDateTime.now();
+        String windowKey = eventId + ":" + employeeUsername;
+        LocalDateTime earliest = earliestScanTime(event, syncWindows.get(windowKey), now);
+        LocalDateTime latest = now.plus(clockSkew);
+
+        List<Scan> scans = new ArrayList<>(offlineScans.size());
+        for (OfflineScanSyncRequest.Scan offline : offlineScans) {
+            LocalDateTime at = offline.getScannedAt() != null ? offline.getScannedAt() : now;
+            if (at.isBefore(earliest) || at.isAfter(latest)) {
+                scans.add(Scan.invalid(offline.getToken(), "Scan time outside the accepted window"));
+                continue;
+            }
+            at = at.isAfter(now) ? now : at;
+            TicketVerificationResponse ticket = ticketTokenService.verify(offline.getToken(), at);
+            if (ticket.isValid() && !eventId.equals(ticket.getEventId())) {
+                scans.add(Scan.invalid(offline.getToken(), "Ticket is for another event"));
+            } else {
+                scans.add(fromTicket(offline.getToken(), ticket, at));
+            }
+        }
+        BulkCheckInResponse response = ingest(eventId, scans, employeeUsername);
+        syncWindows.put(windowKey, new SyncWindow(earliest, now));
+        return response;
+    }
+
+    /**
+     * Lower bound for a sync's scan times. A sync shortly after the previous one is taken as the
+     * next chunk of the same upload and keeps its bound; otherwise the previous sync is the bound.
+     */
+    private LocalDateTime earliestScanTime(Event event, SyncWindow previous, LocalDateTime now) {
+        LocalDateTime floor = event.getStartDate() != null ? event.getStartDate().minus(clockSkew) : LocalDateTime.MIN;
+        if (previous == null) {
+            return floor;
+        }
+        LocalDateTime earliest = previous.lastSync.isAfter(now.minus(clockSkew))
+                ? previous.earliest
+                : previous.lastSync.minus(clockSkew);
+        return earliest.isAfter(floor) ? earliest : floor;
+    }
+
+    /**
+     * Admits a batch of resolved scans. With an event id, tickets for other events are rejected.
+     * Scans without a reservation id are reported as not found; future scan times are clamped to now.
+     */
+    public BulkCheckInResponse ingest(Long eventId, List<Scan> scans, String employeeUsername) {
+        Long employeeId = userRepository.findByUsername(employeeUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("Logged in employee not found"))
+                .getId();
+        ScanResult[] results = new ScanResult[scans.size()];
+        Map<Long, Integer> firstScans = new LinkedHashMap<>();
+        for (int i = 0; i < scans.size(); i++) {
+            Scan scan = scans.get(i);
+            if (scan.getError() != null) {
+                results[i] = result(scan, INVALID, scan.getError(), null);
+            } else if (scan.getReservationId() == null) {
+                results[i] = result(scan, NOT_FOUND, "Reservation not found", null);
+            } else if (firstScans.putIfAbsent(scan.getReservationId(), i) != null) {
+                results[i] = result(scan, DUPLICATE, "Scanned more than once in this batch", null);
+            }
+        }
+        if (!firstScans.isEmpty()) {
+            admit(eventId, scans, firstScans, employeeId, results);
+        }
+        BulkCheckInResponse response = summarize(Arrays.asList(results));
+        batches.increment();
+        scansReceived.add(response.getReceived());
+        admittedCount.add(response.getAdmitted());
+        duplicateCount.add(response.getDuplicates());
+        return response;
+    }
+
+    public Map<String, Object> stats() {
+        long received = scansReceived.sum();
+        long admitted = admittedCount.sum();
+        long duplicates = duplicateCount.sum();
+        return Map.of(
+            "batches", batches.sum(),
+            "scans", received,
+            "admitted", admitted,
+            "duplicates", duplicates,
+            "rejected", received - admitted - duplicates
+        );
+    }
+
+    private void admit(Long eventId, List<Scan> scans, Map<Long, Integer> firstScans, Long employeeId, ScanResult[] results) {
+        Map<Long, Object[]> candidates = new HashMap<>();
+        for (Object[] row : reservationRepository.findCheckInCandidates(firstScans.keySet())) {
+            candidates.put((Long) row[0], row);
+        }
+        Set<Long> checkedIn = new HashSet<>(checkInLogRepository.findCheckedInAmong(firstScans.keySet()));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<CheckInRow> rows = new ArrayList<>();
+        List<Integer> rowScans = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : firstScans.entrySet()) {
+            Long reservationId = entry.getKey();
+            int index = entry.getValue();
+            Scan scan = scans.get(index);
+            Object[] row = candidates.get(reservationId);
+            if (row == null) {
+                results[index] = result(scan, NOT_FOUND, "Reservation not found", null);
+            } else if (eventId != null && !eventId.equals(row[2])) {
+                results[index] = result(scan, REJECTED, "Ticket is for another event", null);
+            } else if (row[1] != Reservation.ReservationStatus.PAID) {
+                results[index] = result(scan, REJECTED, "Cannot admit: Status is " + row[1], null);
+            } else if (checkedIn.contains(reservationId) || !gateService.tryClaim(reservationId)) {
+                results[index] = result(scan, DUPLICATE, "Already checked in", null);
+            } else {
+                LocalDateTime at = scan.getScannedAt() == null || scan.getScannedAt().isAfter(now) ? now : scan.getScannedAt();
+                String stallName = row[5] != null ? (String) row[5] : "Unknown";
+                rows.add(CheckInRow.builder()
+                        .reservationId(reservationId)
+                        .eventId((Long) row[2])
+                        .employeeId(employeeId)
+                        .vendorUserId((Long) row[3])
+                        .checkInTime(at)
+                        .notificationMessage(String.format(GateService.WELCOME_MESSAGE, row[6], stallName))
+                        .build());
+                rowScans.add(index);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        boolean[] inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> checkInBatchRepository.insertAll(rows));
+        } catch (RuntimeException e) {
+            rows.forEach(row -> gateService.release(row.getReservationId()));
+            throw e;
+        }
+        for (int k = 0; k < rows.size(); k++) {
+            int index = rowScans.get(k);
+            if (inserted[k]) {
+                dashboardCounters.recordCheckIns(rows.get(k).getEventId(), 1);
+                notificationInbox.adjust(rows.get(k).getVendorUserId(), 1);
+            }
+            results[index] = inserted[k]
+                    ? result(scans.get(index), ADMITTED, "Checked in", rows.get(k).getCheckInTime())
+                    : result(scans.get(index), DUPLICATE, "Already checked in", null);
+        }
+    }
+
+    private static Scan fromTicket(String token, TicketVerificationResponse ticket, LocalDateTime scannedAt) {
+        if (!ticket.isValid()) {
+            return Scan.invalid(token, ticket.getMessage());
+        }
+        return Scan.builder().scan(token).reservationId(ticket.getReservationId()).scannedAt(scannedAt).build();
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ScanResult result(Scan scan, String outcome, String message, LocalDateTime checkInTime) {
+        return ScanResult.builder()
+                .scan(scan.getScan())
+                .reservationId(scan.getReservationId())
+                .outcome(outcome)
+                .message(message)
+                .checkInTime(checkInTime)
+                .build();
+    }
+
+    private static BulkCheckInResponse summarize(List<ScanResult> results) {
+        int admitted = 0;
+        int duplicates = 0;
+        for (ScanResult result : results) {
+            if (ADMITTED.equals(result.getOutcome())) {
+                admitted++;
+            } else if (DUPLICATE.equals(result.getOutcome())) {
+                duplicates++;
+            }
+        }
+        return BulkCheckInResponse.builder()
+                .received(results.size())
+                .admitted(admitted)
+                .duplicates(duplicates)
+                .rejected(results.size() - admitted - duplicates)
+                .results(results)
+                .build();
+    }
+
+    private static final class SyncWindow {
+        final LocalDateTime earliest;
+        final LocalDateTime lastSync;
+
+        SyncWindow(LocalDateTime earliest, LocalDateTime lastSync) {
+            this.earliest = earliest;
+            this.lastSync = lastSync;
+        }
+    }
+
+    /** One scan to ingest: a resolved reservation id, or the reason it could not be resolved. */
+    @Getter
+    @Builder
+    public static class Scan {
+        private final String scan;
+        private final Long reservationId;
+        private final LocalDateTime scannedAt;
+        private final String error;
+
+        public static Scan invalid(String scan, String error) {
+            return Scan.builder().scan(scan).error(error).build();
+        }
+    }
+}
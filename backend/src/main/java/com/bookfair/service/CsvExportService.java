@@ -0,0 +1,102 @@
+package com.bookfair.service;
+
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming CSV exports.
+ *
+ * Each export is a single scalar projection query read as a JPA Stream with a JDBC fetch size,
+ * so rows flow from the database cursor straight to the response writer. Nothing is collected
+ * into lists or builders and no entities enter the persistence context, so memory stays
+ * constant whatever the row count. Output can be gzipped on the way out.
+ */
+@Service
+@RequiredArgsConstructor
+public class CsvExportService {
+
+    private static final String RESERVATIONS_HEADER = "ID,Vendor,Email,QRCode,Status,TotalLKR,CreatedAt";
+    private static final String ATTENDANCE_HEADER = "LogID,Timestamp,ReservationID,Stall,Vendor,Employee,OverrideReason";
+
+    private final ReservationRepository reservationRepository;
+    private final CheckInLogRepository checkInLogRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public void writeReservations(OutputStream out, boolean gzip) throws IOException {
+        export(out, gzip, RESERVATIONS_HEADER, reservationRepository::streamExportRows);
+    }
+
+    public void writeAttendance(OutputStream out, boolean gzip) throws IOException {
+        export(out, gzip, ATTENDANCE_HEADER, checkInLogRepository::streamExportRows);
+    }
+
+    private void export(OutputStream out, boolean gzip, String header, Supplier<Stream<Object[]>> query)
+            throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(header);
+        writer.write('\n');
+        try {
+            // A JPA Stream needs an open transaction for its cursor; read-only keeps flushes out of it
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = query.get()) {
+                    Iterator<Object[]> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        writeRow(writer, iterator.next());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+    }
+
+    private static void writeRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(row[i]));
+        }
+        writer.write('\n');
+    }
+
+    /** True when the client accepts a gzip Content-Encoding. */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
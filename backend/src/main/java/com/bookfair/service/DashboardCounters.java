@@ -0,0 +1,235 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.EventLayoutChangedEvent;
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.response.AdminDashboardStats;
+import com.bookfair.dto.response.DashboardStats;
+import com.bookfair.entity.Reservation;
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.EventStallRepository;
+import com.bookfair.repository.ReservationRepository;
+import com.bookfair.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard counters kept in memory, so a dashboard refresh never scans the reservations table.
+ *
+ * Reservations, pending holds, paid revenue, active vendors and check-ins are counted per event
+ * and in total. Reservation transitions and check-in writes adjust them as they commit; a periodic
+ * reconcile rebuilds everything from a handful of grouped queries, which also picks up stall and
+ * user counts and corrects any drift (price changes after payment, rows written outside the app).
+ * A reconcile that raced a transition is discarded and retried on the next tick.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCounters {
+
+    private static final int MAX_SKIPPED_RECONCILES = 3;
+
+    private final ReservationRepository reservationRepository;
+    private final CheckInLogRepository checkInLogRepository;
+    private final EventStallRepository eventStallRepository;
+    private final UserRepository userRepository;
+
+    private volatile Snapshot current;
+    /** Bumped by every incremental update; a reconcile only installs if it saw none. */
+    private final AtomicLong generation = new AtomicLong();
+    private int skippedReconciles;
+
+    private final LongAdder reconciles = new LongAdder();
+    private volatile LocalDateTime lastReconciledAt;
+
+    public DashboardStats employeeStats() {
+        Snapshot snapshot = snapshot();
+        return toEmployeeStats(snapshot.total, snapshot.users);
+    }
+
+    /** One event's figures; user count stays global. */
+    public DashboardStats employeeStats(Long eventId) {
+        Snapshot snapshot = snapshot();
+        Counters counters = snapshot.byEvent.getOrDefault(eventId, new Counters());
+        return toEmployeeStats(counters, snapshot.users);
+    }
+
+    public AdminDashboardStats adminStats() {
+        Counters total = snapshot().total;
+        long active = total.pending.sum() + total.paid.sum();
+        return AdminDashboardStats.builder()
+                .totalReservations(active)
+                .totalRevenueLkr(total.paidRevenueCents.sum())
+                .activeVendors(total.vendorHolds.size())
+                .fillRate(total.stalls > 0 ? (double) active / total.stalls * 100.0 : 0.0)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationTransition(ReservationTransitionEvent event) {
+        Snapshot snapshot = current;
+        if (snapshot == null || event.getStatus() == event.getPreviousStatus()) {
+            return;
+        }
+        generation.incrementAndGet();
+        snapshot.total.apply(event);
+        snapshot.byEvent.computeIfAbsent(event.getEventId(), id -> new Counters()).apply(event);
+    }
+
+    /** Called once check-in rows are committed. */
+    public void recordCheckIns(Long eventId, int count) {
+        Snapshot snapshot = current;
+        if (snapshot == null || count == 0) {
+            return;
+        }
+        generation.incrementAndGet();
+        snapshot.total.checkedIn.add(count);
+        snapshot.byEvent.computeIfAbsent(eventId, id -> new Counters()).checkedIn.add(count);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLayoutChanged(EventLayoutChangedEvent event) {
+        // Stalls were added or removed; counts them now rather than waiting for the next tick
+        if (event.getEventId() != null && current != null) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        long seen = generation.get();
+        Snapshot loaded = load();
+        if (current != null && generation.get() != seen && ++skippedReconciles < MAX_SKIPPED_RECONCILES) {
+            log.debug("Dashboard reconcile raced a transition, retrying next tick");
+            return;
+        }
+        // After repeated races, install anyway: the next quiet tick corrects the few updates lost here
+        current = loaded;
+        skippedReconciles = 0;
+        reconciles.increment();
+        lastReconciledAt = LocalDateTime.now();
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot snapshot = current;
+        return Map.of(
+            "events", snapshot != null ? snapshot.byEvent.size() : 0,
+            "reconciles", reconciles.sum(),
+            "lastReconciledAt", lastReconciledAt != null ? lastReconciledAt.toString() : "never"
+        );
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            reconcile();
+            snapshot = current;
+        }
+        return snapshot;
+    }
+
+    private Snapshot load() {
+        Snapshot snapshot = new Snapshot(userRepository.count());
+        for (Object[] row : reservationRepository.countByEventAndStatus()) {
+            Counters counters = snapshot.forEvent((Long) row[0]);
+            Reservation.ReservationStatus status = (Reservation.ReservationStatus) row[1];
+            long count = (Long) row[2];
+            long revenue = ((Number) row[3]).longValue();
+            for (Counters target : new Counters[]{counters, snapshot.total}) {
+                target.reservations.add(count);
+                if (status == Reservation.ReservationStatus.PENDING_PAYMENT) {
+                    target.pending.add(count);
+                } else if (status == Reservation.ReservationStatus.PAID) {
+                    target.paid.add(count);
+                    target.paidRevenueCents.add(revenue);
+                }
+            }
+        }
+        for (Object[] row : reservationRepository.countActiveHoldsByEventAndVendor()) {
+            int holds = ((Long) row[2]).intValue();
+            snapshot.forEvent((Long) row[0]).vendorHolds.put((Long) row[1], holds);
+            snapshot.total.vendorHolds.merge((Long) row[1], holds, Integer::sum);
+        }
+        for (Object[] row : checkInLogRepository.countCheckedInByEvent()) {
+            snapshot.forEvent((Long) row[0]).checkedIn.add((Long) row[1]);
+            snapshot.total.checkedIn.add((Long) row[1]);
+        }
+        for (Object[] row : eventStallRepository.countByEvent()) {
+            snapshot.forEvent((Long) row[0]).stalls = (Long) row[1];
+            snapshot.total.stalls += (Long) row[1];
+        }
+        return snapshot;
+    }
+
+    private static DashboardStats toEmployeeStats(Counters counters, long users) {
+        long reserved = counters.pending.sum() + counters.paid.sum();
+        return DashboardStats.builder()
+                .totalStalls(counters.stalls)
+                .reservedStalls(reserved)
+                .availableStalls(counters.stalls - reserved)
+                .totalUsers(users)
+                .totalReservations(counters.reservations.sum())
+                .checkedInCount(counters.checkedIn.sum())
+                .build();
+    }
+
+    private static final class Snapshot {
+        final Counters total = new Counters();
+        final Map<Long, Counters> byEvent = new ConcurrentHashMap<>();
+        final long users;
+
+        Snapshot(long users) {
+            this.users = users;
+        }
+
+        Counters forEvent(Long eventId) {
+            return byEvent.computeIfAbsent(eventId, id -> new Counters());
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder reservations = new LongAdder();
+        final LongAdder pending = new LongAdder();
+        final LongAdder paid = new LongAdder();
+        final LongAdder paidRevenueCents = new LongAdder();
+        final LongAdder checkedIn = new LongAdder();
+        /** Active (PENDING_PAYMENT or PAID) reservations per vendor; its size is the active vendor count. */
+        final Map<Long, Integer> vendorHolds = new ConcurrentHashMap<>();
+        /** Only changed by a reconcile, which replaces the whole snapshot. */
+        long stalls;
+
+        void apply(ReservationTransitionEvent event) {
+            long price = event.getPriceCents() != null ? event.getPriceCents() : 0L;
+            if (event.getPreviousStatus() == null) {
+                reservations.increment();
+            }
+            adjust(event.getPreviousStatus(), -1, price);
+            adjust(event.getStatus(), 1, price);
+            boolean held = ReservationTransitionEvent.holdsStall(event.getPreviousStatus());
+            boolean holds = ReservationTransitionEvent.holdsStall(event.getStatus());
+            if (holds && !held) {
+                vendorHolds.merge(event.getUserId(), 1, Integer::sum);
+            } else if (held && !holds) {
+                // Drop the vendor once its last hold goes, so the map size stays the distinct count
+                vendorHolds.computeIfPresent(event.getUserId(), (id, n) -> n > 1 ? n - 1 : null);
+            }
+        }
+
+        private void adjust(Reservation.ReservationStatus status, int delta, long price) {
+            if (status == Reservation.ReservationStatus.PENDING_PAYMENT) {
+                pending.add(delta);
+            } else if (status == Reservation.ReservationStatus.PAID) {
+                paid.add(delta);
+                paidRevenueCents.add(delta * price);
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ import com.bookfair.constant.LayoutConstants;
 import static com.bookfair.constant.PricingConstants.*;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -46,7 +48,9 @@ public class DataSeeder {
     @org.springframework.beans.factory.annotation.Value("${app.seed.vendor.password}")
     private String vendorPassword;
 
+    // Seed before the other startup listeners (score backfill, availability index) read the data
     @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     @Transactional
     public void seedData() {
         if (stallTemplateRepository.count() > 0) {
@@ -346,19 +350,23 @@ public class DataSeeder {
         });
     }
 
+    // A changed layout bumps Hall.layoutVersion; the score backfill that runs after seeding rescores its stalls
     private void updateExistingLayouts() {
         hallRepository.findAll().forEach(hall -> {
             if ("Sirimavo Bandaranaike Memorial Exhibition Centre".equals(hall.getName())) {
-                log.info(">>> REFRESHING BUILDING LAYOUT FOR: " + hall.getName());
-                hall.setStaticLayout(LayoutConstants.SIRIMAVO_LAYOUT);
-                hallRepository.save(hall);
+                refreshLayout(hall, LayoutConstants.SIRIMAVO_LAYOUT);
             }
             if ("Main Exhibition Hall".equals(hall.getName())) {
-                log.info(">>> REFRESHING BUILDING LAYOUT FOR: " + hall.getName());
-                hall.setStaticLayout(LayoutConstants.MAIN_HALL_LAYOUT);
-                hallRepository.save(hall);
+                refreshLayout(hall, LayoutConstants.MAIN_HALL_LAYOUT);
             }
         });
     }
 
+    private void refreshLayout(Hall hall, String layout) {
+        if (layout.equals(hall.getStaticLayout())) return;
+        log.info(">>> REFRESHING BUILDING LAYOUT FOR: " + hall.getName());
+        hall.setStaticLayout(layout);
+        hallRepository.save(hall);
+    }
+
 }
@@ -0,0 +1,205 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.entity.EmailOutbox;
+import com.bookfair.entity.Reservation;
+import com.bookfair.repository.EmailOutboxRepository;
+import com.bookfair.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transactional outbox for reservation emails.
+ *
+ * Business transactions only insert an outbox row; SMTP happens later on a dedicated worker
+ * pool, so request latency and DB connections never wait on the mail server. Rows are claimed
+ * with a lease (SELECT ... FOR UPDATE SKIP LOCKED), sent without holding a connection, then
+ * marked SENT together with the reservation's emailSent flag. Failures are retried with
+ * exponential backoff until max attempts, after which the row is parked as DEAD.
+ *
+ * Every claim gets a fresh token, and a worker compare-and-sets it (restarting the lease) right
+ * before sending, so a row re-claimed after its lease ran out is sent by one worker only. A lease
+ * running out counts as a failed attempt, and nothing new is claimed while claimed rows are still
+ * queued for the workers.
+ */
+@Service
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final ReservationRepository reservationRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffBaseSeconds;
+    private final long leaseMinutes;
+    private final ThreadPoolExecutor workerPool;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              ReservationRepository reservationRepository,
+                              EmailService emailService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                              @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                              @Value("${app.mail.outbox.backoff-base-seconds:30}") long backoffBaseSeconds,
+                              @Value("${app.mail.outbox.lease-minutes:5}") long leaseMinutes,
+                              @Value("${app.mail.outbox.worker-threads:2}") int workerThreads) {
+        this.outboxRepository = outboxRepository;
+        this.reservationRepository = reservationRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseSeconds = backoffBaseSeconds;
+        this.leaseMinutes = leaseMinutes;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workerPool = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "email-outbox-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Queues the ticket email for a reservation. Must run inside the transaction that confirms it. */
+    public void enqueueConfirmation(Reservation reservation) {
+        outboxRepository.save(EmailOutbox.builder()
+                .reservation(reservation)
+                .recipient(reservation.getUser().getEmail())
+                .type(EmailOutbox.EmailType.RESERVATION_CONFIRMATION)
+                .status(EmailOutbox.Status.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    /** Kicks the dispatcher as soon as a payment commits instead of waiting for the next poll. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationTransition(ReservationTransitionEvent event) {
+        if (event.getStatus() == Reservation.ReservationStatus.PAID
+                && event.getPreviousStatus() != Reservation.ReservationStatus.PAID) {
+            try {
+                workerPool.execute(this::dispatchDue);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the next start picks the row up
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-ms:5000}")
+    public void dispatchDue() {
+        if (!workerPool.getQueue().isEmpty()) {
+            // Workers are behind (slow SMTP); claiming more would only let leases run out in the queue
+            return;
+        }
+        Map<Long, String> claimed;
+        try {
+            claimed = transactionTemplate.execute(status -> claimBatch());
+        } catch (RuntimeException e) {
+            log.error("Email outbox claim failed: {}", e.getMessage());
+            return;
+        }
+        claimed.forEach((id, token) -> workerPool.execute(() -> deliver(id, token)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    /** Claims due rows; returns id to claim token. */
+    Map<Long, String> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = outboxRepository.lockDue(now, batchSize);
+        Map<Long, String> claimed = new LinkedHashMap<>();
+        for (EmailOutbox row : due) {
+            if (row.getStatus() == EmailOutbox.Status.SENDING) {
+                // The previous claim's lease ran out: its worker died or hung mid-send
+                int attempts = row.getAttempts() + 1;
+                row.setAttempts(attempts);
+                row.setLastError("Lease expired before delivery completed");
+                if (attempts >= maxAttempts) {
+                    row.setStatus(EmailOutbox.Status.DEAD);
+                    row.setClaimToken(null);
+                    log.error("Giving up on email {} to {} after {} attempts: lease expired", row.getId(), row.getRecipient(), attempts);
+                    continue;
+                }
+            }
+            row.setStatus(EmailOutbox.Status.SENDING);
+            row.setClaimToken(UUID.randomUUID().toString());
+            row.setNextAttemptAt(now.plusMinutes(leaseMinutes));
+            claimed.put(row.getId(), row.getClaimToken());
+        }
+        outboxRepository.saveAll(due);
+        return claimed;
+    }
+
+    void deliver(Long outboxId, String claimToken) {
+        EmailOutbox row = transactionTemplate.execute(status ->
+                outboxRepository.startSending(outboxId, claimToken, LocalDateTime.now().plusMinutes(leaseMinutes)) == 1
+                        ? outboxRepository.findById(outboxId).orElse(null)
+                        : null);
+        if (row == null) {
+            // Delivered, dead-lettered, or re-claimed by another worker since this claim
+            return;
+        }
+        Long reservationId = row.getReservation().getId(); // proxy id, no initialization needed
+        try {
+            // Loaded with everything the template touches, so the send needs no open session
+            Reservation reservation = reservationRepository.findByIdWithDetails(reservationId)
+                    .orElseThrow(() -> new IllegalStateException("Reservation " + reservationId + " no longer exists"));
+            emailService.sendConfirmation(row.getRecipient(), List.of(reservation));
+        } catch (RuntimeException e) {
+            transactionTemplate.execute(status -> recordFailure(outboxId, claimToken, e));
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            outboxRepository.findById(outboxId).ifPresent(sent -> {
+                sent.setStatus(EmailOutbox.Status.SENT);
+                sent.setSentAt(LocalDateTime.now());
+                sent.setClaimToken(null);
+                sent.setAttempts(sent.getAttempts() + 1);
+                sent.setLastError(null);
+                outboxRepository.save(sent);
+            });
+            reservationRepository.markEmailSent(reservationId);
+            return null;
+        });
+    }
+
+    private Void recordFailure(Long outboxId, String claimToken, RuntimeException error) {
+        outboxRepository.findById(outboxId).filter(row -> claimToken.equals(row.getClaimToken())).ifPresent(row -> {
+            int attempts = row.getAttempts() + 1;
+            row.setAttempts(attempts);
+            String message = error.getCause() != null ? error.getCause().getMessage() : error.getMessage();
+            row.setLastError(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+            row.setClaimToken(null);
+            if (attempts >= maxAttempts) {
+                row.setStatus(EmailOutbox.Status.DEAD);
+                log.error("Giving up on email {} to {} after {} attempts: {}", outboxId, row.getRecipient(), attempts, message);
+            } else {
+                row.setStatus(EmailOutbox.Status.PENDING);
+                row.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffBaseSeconds << (attempts - 1)));
+                log.warn("Email {} failed (attempt {}), retrying later: {}", outboxId, attempts, message);
+            }
+            outboxRepository.save(row);
+        });
+        return null;
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 import com.bookfair.security.JwtUtils;
+import com.bookfair.dto.response.BulkMailResponse;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +28,8 @@ public class EmailService {
     private final JavaMailSender mailSender;
     private final QrService qrService;
     private final JwtUtils jwtUtils;
+    private final BulkMailSender bulkMailSender;
+    private final TicketTokenService ticketTokenService;
 
     @org.springframework.beans.factory.annotation.Value("${app.backend.url:http://localhost:8080}")
     private String backendUrl;
@@ -53,7 +57,7 @@ public class EmailService {
            }
 
            String qrData = reservations.stream()
-                   .map(res -> res.getQrCode())
+                   .map(ticketTokenService::issue)
                    .collect(Collectors.joining(","));
 
 
@@ -116,4 +120,26 @@ public class EmailService {
             throw new RuntimeException("Failed to send simple email", e);
         }
     }
+
+    /**
+     * Plain text mailing to many recipients (e.g. post-event notices to every vendor),
+     * delivered over pooled SMTP connections instead of one connection per message.
+     * {@code onMessageDone} runs after each message is sent or has failed, for progress reporting.
+     */
+    public BulkMailResponse sendBulk(List<String> recipients, String subject, String body, Runnable onMessageDone) {
+        List<MimeMessage> messages = new ArrayList<>(recipients.size());
+        try {
+            for (String to : recipients) {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+                helper.setTo(to);
+                helper.setSubject(subject == null ? "" : subject);
+                helper.setText(body == null ? "" : body, false);
+                messages.add(message);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to build bulk email", e);
+        }
+        return bulkMailSender.sendAll(messages, onMessageDone);
+    }
 }
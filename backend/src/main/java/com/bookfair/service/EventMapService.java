@@ -0,0 +1,218 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.EventLayoutChangedEvent;
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.response.StallResponse;
+import com.bookfair.entity.Event;
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Hall;
+import com.bookfair.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Builds the public event map (API.md 4.3) and keeps one pre-serialized snapshot per event.
+ *
+ * Every snapshot is stamped with the event's change version; reservation transitions and
+ * layout edits bump the version after their transaction commits, which both evicts the
+ * snapshot and changes the ETag. Polling clients that send If-None-Match get a 304 until
+ * something on their map actually changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventMapService {
+
+    private final EventService eventService;
+    private final StallService stallService;
+    private final StallChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int LOCK_STRIPES = 64; // power of two
+
+    /** Distinguishes ETags across restarts, where the in-memory versions start again from zero. */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    /** Bumped for changes that are not scoped to one event (hall metadata, bulk blocking). */
+    private final AtomicLong globalVersion = new AtomicLong();
+    /** Only events that have been served get a version; see {@link #invalidate}. */
+    private final Map<Long, AtomicLong> eventVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+    /** Fixed lock stripes, so arbitrary event ids cannot grow a lock table. */
+    private final Object[] buildLocks = Stream.generate(Object::new).limit(LOCK_STRIPES).toArray();
+
+    /**
+     * Returns the current snapshot, building it at most once per version.
+     * Concurrent misses for the same event wait for the first builder instead of all hitting the database.
+     */
+    public Snapshot getSnapshot(Long eventId) {
+        Snapshot cached = snapshots.get(eventId);
+        if (cached != null && cached.isAt(globalVersion.get(), versionOf(eventId))) {
+            return cached;
+        }
+        // Unknown ids fail here, before they take a lock or leave any per-event state behind
+        if (!eventService.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found with id: " + eventId);
+        }
+        synchronized (buildLocks[(int) (eventId & (LOCK_STRIPES - 1))]) {
+            long global = globalVersion.get();
+            long version = eventVersions.computeIfAbsent(eventId, k -> new AtomicLong()).get();
+            cached = snapshots.get(eventId);
+            if (cached != null && cached.isAt(global, version)) {
+                return cached;
+            }
+            // Read the cursor first: changes landing mid-build are replayed by the client, which is harmless
+            long changeSeq = changeFeed.latestSeq(eventId);
+            // The transaction only spans the build, so callers queued on the lock hold no connection.
+            Map<String, Object> map = transactionTemplate.execute(status -> buildEventMap(eventId));
+            map.put("changeSeq", changeSeq);
+            Snapshot built = new Snapshot(serialize(map),
+                    "\"" + epoch + "-" + eventId + "-" + global + "-" + version + "\"", global, version);
+            // A change committed while building leaves this snapshot already outdated; the
+            // version check on the next read discards it.
+            snapshots.put(eventId, built);
+            return built;
+        }
+    }
+
+    private Map<String, Object> buildEventMap(Long eventId) {
+        Event event = eventService.getEventById(eventId);
+        List<StallResponse> stalls = stallService.getByEventId(eventId);
+
+        Object layout = new HashMap<>();
+        Map<Long, Map<String, Object>> hallMetadata = new HashMap<>();
+        if (!stalls.isEmpty()) {
+            EventStall firstStall = event.getStalls().stream().findFirst().orElse(null);
+            if (firstStall != null && firstStall.getStallTemplate() != null) {
+                Hall hall = firstStall.getStallTemplate().getHall();
+                if (hall != null && hall.getStaticLayout() != null) {
+                    try {
+                        layout = objectMapper.readTree(hall.getStaticLayout());
+                    } catch (Exception e) {
+                        log.error("Mapping layout failed: {}", e.getMessage());
+                    }
+                }
+            }
+
+            // Aggregate Hall Metadata
+            event.getStalls().stream()
+                    .map(es -> es.getStallTemplate().getHall())
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(hall -> {
+                        Map<String, Object> meta = new HashMap<>();
+                        meta.put("id", hall.getId());
+                        meta.put("name", hall.getName()); // Keep this as the key for frontend lookup if using name
+                        meta.put("hallName", hall.getName());
+                        meta.put("capacity", hall.getCapacity());
+                        meta.put("isAc", hall.getIsAirConditioned());
+                        meta.put("tier", hall.getTier());
+                        meta.put("floor", hall.getFloorLevel());
+                        meta.put("sqFt", hall.getTotalSqFt());
+                        meta.put("category", hall.getMainCategory());
+                        meta.put("mainCategory", hall.getMainCategory()); // sending both just in case
+                        hallMetadata.put(hall.getId(), meta);
+                    });
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("eventId", eventId);
+        response.put("eventName", event.getName());
+        response.put("stalls", stalls);
+        response.put("layout", layout);
+        response.put("halls", hallMetadata.values()); // Return list of hall objects
+        response.put("zones", event.getLayoutConfig());
+        return response;
+    }
+
+    // ─── INVALIDATION ────────────────────────────────────────────
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationTransition(ReservationTransitionEvent event) {
+        invalidate(event.getEventId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLayoutChanged(EventLayoutChangedEvent event) {
+        if (event.getEventId() == null) {
+            globalVersion.incrementAndGet();
+            snapshots.clear();
+        } else if (event.isDeleted()) {
+            eventVersions.remove(event.getEventId());
+            snapshots.remove(event.getEventId());
+        } else {
+            invalidate(event.getEventId());
+        }
+    }
+
+    /**
+     * Events never served in this epoch have no snapshot or ETag in circulation, so there is
+     * nothing to bump; their version is created at 0 by the first build.
+     */
+    private void invalidate(Long eventId) {
+        if (eventId == null) return;
+        eventVersions.computeIfPresent(eventId, (k, version) -> {
+            version.incrementAndGet();
+            return version;
+        });
+        snapshots.remove(eventId);
+    }
+
+    private long versionOf(Long eventId) {
+        AtomicLong version = eventVersions.get(eventId);
+        return version != null ? version.get() : 0L;
+    }
+
+    private byte[] serialize(Map<String, Object> map) {
+        try {
+            return objectMapper.writeValueAsBytes(map);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event map: " + e.getMessage(), e);
+        }
+    }
+
+    /** Immutable serialized map plus the strong ETag that identifies it. */
+    @Getter
+    public static class Snapshot {
+        private final byte[] body;
+        private final String etag;
+        private final long globalVersion;
+        private final long version;
+
+        Snapshot(byte[] body, String etag, long globalVersion, long version) {
+            this.body = body;
+            this.etag = etag;
+            this.globalVersion = globalVersion;
+            this.version = version;
+        }
+
+        boolean isAt(long global, long eventVersion) {
+            return globalVersion == global && version == eventVersion;
+        }
+
+        /** Evaluates an If-None-Match header (comma-separated list, weak validators, or "*"). */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals("*") || tag.equals(etag)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.bookfair.service;
 import com.bookfair.entity.Event;
 import com.bookfair.exception.ResourceNotFoundException;
 import com.bookfair.repository.EventRepository;
+import com.bookfair.dto.event.EventLayoutChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 public class EventService {
 
     private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Event> getAllEvents() {
         return eventRepository.findAll();
@@ -34,6 +37,10 @@ public class EventService {
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
     }
 
+    public boolean existsById(Long id) {
+        return eventRepository.existsById(id);
+    }
+
     @Transactional
     public Event createEvent(Event event) {
         return eventRepository.save(event);
@@ -54,7 +61,9 @@ public class EventService {
         if (request.getLayoutConfig() != null) {
             event.setLayoutConfig(request.getLayoutConfig());
         }
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventLayoutChangedEvent(id));
+        return saved;
     }
 
     @Transactional
@@ -90,5 +99,6 @@ public class EventService {
             throw new ResourceNotFoundException("Event not found with id: " + id);
         }
         eventRepository.deleteById(id);
+        eventPublisher.publishEvent(EventLayoutChangedEvent.deleted(id));
     }
 }
@@ -0,0 +1,375 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.response.CheckInResponse;
+import com.bookfair.dto.response.QrVerificationResponse;
+import com.bookfair.entity.Reservation;
+import com.bookfair.exception.ConflictException;
+import com.bookfair.exception.ResourceNotFoundException;
+import com.bookfair.repository.CheckInBatchRepository;
+import com.bookfair.repository.CheckInBatchRepository.CheckInRow;
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.EventRepository;
+import com.bookfair.repository.ReservationRepository;
+import com.bookfair.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gate mode: in-memory admission for events whose gates are open.
+ *
+ * Opening a gate preloads the event's PAID reservations as compact admission records keyed by
+ * QR code and id, plus the set of reservations already checked in. Scans are then decided from
+ * memory: the checked-in set's atomic add is the duplicate check, so concurrent gates can never
+ * admit the same ticket twice. CheckInLog and notification rows are queued and written in JDBC
+ * batches by a background flush; a batch that fails for a non-transient reason is retried row by
+ * row and rows that still cannot be written are logged and dropped (counted as deadLettered). Payments and cancellations for an open event keep the cache in
+ * step through reservation transition events. Anything not cached falls back to the DB path.
+ */
+@Service
+@Slf4j
+public class GateService {
+
+    static final String WELCOME_MESSAGE = "Welcome! You have successfully checked in for %s at stall %s.";
+
+    private final ReservationRepository reservationRepository;
+    private final CheckInLogRepository checkInLogRepository;
+    private final CheckInBatchRepository checkInBatchRepository;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardCounters dashboardCounters;
+    private final NotificationInbox notificationInbox;
+    private final int flushBatchSize;
+
+    private final Map<Long, Set<Long>> openGates = new ConcurrentHashMap<>();
+    private final Map<String, Admission> byQr = new ConcurrentHashMap<>();
+    private final Map<Long, Admission> byId = new ConcurrentHashMap<>();
+    private final Set<Long> checkedIn = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> employeeIds = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<CheckInRow> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public GateService(ReservationRepository reservationRepository,
+                       CheckInLogRepository checkInLogRepository,
+                       CheckInBatchRepository checkInBatchRepository,
+                       EventRepository eventRepository,
+                       UserRepository userRepository,
+                       TransactionTemplate transactionTemplate,
+                       DashboardCounters dashboardCounters,
+                       NotificationInbox notificationInbox,
+                       @Value("${app.gate.flush-batch-size:500}") int flushBatchSize) {
+        this.reservationRepository = reservationRepository;
+        this.checkInLogRepository = checkInLogRepository;
+        this.checkInBatchRepository = checkInBatchRepository;
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dashboardCounters = dashboardCounters;
+        this.notificationInbox = notificationInbox;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    /** Loads (or reloads) an event into gate mode. */
+    public Map<String, Object> openGate(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found: " + eventId);
+        }
+        closeGate(eventId);
+        // Registered before loading so transitions that race the preload are not lost
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        openGates.put(eventId, ids);
+        List<Admission> admissions = new ArrayList<>();
+        for (Object[] row : reservationRepository.findGateAdmissions(eventId)) {
+            admissions.add(toAdmission(eventId, row));
+        }
+        // Checked-in ids go in before any admission becomes visible, so a ticket already used
+        // cannot be admitted from memory in between (closeGate cleared them)
+        checkedIn.addAll(checkInLogRepository.findCheckedInReservationIdsByEventId(eventId));
+        for (Admission admission : admissions) {
+            put(ids, admission);
+        }
+        log.info("Gate opened for event {} with {} admissions", eventId, ids.size());
+        return gateStatus(eventId);
+    }
+
+    /** Leaves gate mode for an event once its queued check-ins are written. */
+    public void closeGate(Long eventId) {
+        Set<Long> ids = openGates.remove(eventId);
+        if (ids == null) {
+            return;
+        }
+        flush();
+        for (Long id : ids) {
+            Admission admission = byId.remove(id);
+            if (admission != null) {
+                byQr.remove(admission.qrCode);
+            }
+            checkedIn.remove(id);
+        }
+    }
+
+    public Map<String, Object> gateStatus(Long eventId) {
+        Set<Long> ids = openGates.get(eventId);
+        if (ids == null) {
+            return Map.of("eventId", eventId, "open", false);
+        }
+        long admitted = ids.stream().filter(checkedIn::contains).count();
+        return Map.of("eventId", eventId, "open", true, "admissions", ids.size(), "checkedIn", admitted);
+    }
+
+    /** Verifies a scan from memory; empty when the ticket is not cached and the DB must decide. */
+    public Optional<QrVerificationResponse> lookup(String qrOrId) {
+        Admission admission = find(qrOrId);
+        if (admission == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        boolean alreadyCheckedIn = checkedIn.contains(admission.reservationId);
+        return Optional.of(QrVerificationResponse.builder()
+                .valid(!alreadyCheckedIn)
+                .reservationId(admission.reservationId)
+                .stallName(admission.stallName)
+                .businessName(admission.businessName)
+                .status(Reservation.ReservationStatus.PAID.name())
+                .message(alreadyCheckedIn ? "Already checked in" : "Ready to admit")
+                .build());
+    }
+
+    /** Admits a cached ticket; empty when the reservation is not cached and the DB must decide. */
+    public Optional<CheckInResponse> admit(Long reservationId, String employeeUsername) {
+        Admission admission = byId.get(reservationId);
+        if (admission == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        Long employeeId = employeeId(employeeUsername);
+        if (!checkedIn.add(reservationId)) {
+            throw new ConflictException("Reservation already checked in.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        pendingWrites.add(CheckInRow.builder()
+                .reservationId(reservationId)
+                .eventId(admission.eventId)
+                .employeeId(employeeId)
+                .vendorUserId(admission.vendorUserId)
+                .checkInTime(now)
+                .notificationMessage(String.format(WELCOME_MESSAGE, admission.eventName, admission.stallName))
+                .build());
+        pendingCount.incrementAndGet();
+        return Optional.of(CheckInResponse.builder()
+                .reservationId(reservationId)
+                .status("CHECKED_IN")
+                .vendor(admission.businessName)
+                .timestamp(now)
+                .build());
+    }
+
+    /**
+     * Claims a reservation for the DB check-in path (overrides, uncached tickets), so it cannot
+     * also be admitted from memory. False when an open gate has already admitted it.
+     */
+    public boolean tryClaim(Long reservationId) {
+        return !byId.containsKey(reservationId) || checkedIn.add(reservationId);
+    }
+
+    /** Gives back a claim whose DB write failed, so the ticket can be admitted again. */
+    public void release(Long reservationId) {
+        if (byId.containsKey(reservationId)) {
+            checkedIn.remove(reservationId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.gate.flush-interval-ms:500}")
+    public void flush() {
+        while (flushBatch() == flushBatchSize) {
+            // keep draining full batches
+        }
+    }
+
+    private int flushBatch() {
+        List<CheckInRow> batch = new ArrayList<>();
+        CheckInRow row;
+        while (batch.size() < flushBatchSize && (row = pendingWrites.poll()) != null) {
+            batch.add(row);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            boolean[] inserted = transactionTemplate.execute(status -> checkInBatchRepository.insertAll(batch));
+            recordWritten(batch, inserted);
+            return batch.size();
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                // Admissions already happened at the gate; keep the rows and retry on the next tick
+                log.error("Failed to write {} gate check-ins, will retry: {}", batch.size(), e.getMessage());
+                pendingWrites.addAll(batch);
+                return 0;
+            }
+            // One bad row fails the whole batch every time; isolate it instead of retrying forever
+            log.warn("Gate check-in batch of {} failed, writing rows one by one: {}", batch.size(), e.getMessage());
+            return writeOneByOne(batch) ? batch.size() : 0;
+        }
+    }
+
+    /** False when a row hit a transient failure and was re-queued, so the flush loop stops for this tick. */
+    private boolean writeOneByOne(List<CheckInRow> batch) {
+        boolean requeued = false;
+        for (CheckInRow row : batch) {
+            List<CheckInRow> single = List.of(row);
+            try {
+                recordWritten(single, transactionTemplate.execute(status -> checkInBatchRepository.insertAll(single)));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    pendingWrites.add(row);
+                    requeued = true;
+                } else {
+                    pendingCount.decrementAndGet();
+                    deadLettered.increment();
+                    log.error("Dropping gate check-in that cannot be written (reservation {}, event {}, employee {}, at {}): {}",
+                            row.getReservationId(), row.getEventId(), row.getEmployeeId(), row.getCheckInTime(), e.getMessage());
+                }
+            }
+        }
+        return !requeued;
+    }
+
+    private void recordWritten(List<CheckInRow> rows, boolean[] inserted) {
+        pendingCount.addAndGet(-rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (inserted[i]) {
+                dashboardCounters.recordCheckIns(rows.get(i).getEventId(), 1);
+                notificationInbox.adjust(rows.get(i).getVendorUserId(), 1);
+            }
+        }
+        written.add(rows.size());
+    }
+
+    /** Failures worth retrying as-is: lock timeouts, lost connections, the database being down. */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationTransition(ReservationTransitionEvent event) {
+        Set<Long> ids = openGates.get(event.getEventId());
+        if (ids == null || event.getStatus() == event.getPreviousStatus()) {
+            return;
+        }
+        if (event.getStatus() == Reservation.ReservationStatus.PAID) {
+            for (Object[] row : reservationRepository.findGateAdmission(event.getReservationId())) {
+                put(ids, toAdmission(event.getEventId(), row));
+            }
+        } else if (event.getPreviousStatus() == Reservation.ReservationStatus.PAID) {
+            ids.remove(event.getReservationId());
+            Admission admission = byId.remove(event.getReservationId());
+            if (admission != null) {
+                byQr.remove(admission.qrCode);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return Map.of(
+            "openGates", openGates.size(),
+            "admissions", byId.size(),
+            "checkedIn", checkedIn.size(),
+            "pendingWrites", pendingCount.get(),
+            "written", written.sum(),
+            "deadLettered", deadLettered.sum(),
+            "hitRate", total > 0 ? (double) hitCount / total : 0.0
+        );
+    }
+
+    private Admission find(String qrOrId) {
+        Admission admission = byQr.get(qrOrId);
+        if (admission == null) {
+            try {
+                admission = byId.get(Long.parseLong(qrOrId));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return admission;
+    }
+
+    private void put(Set<Long> ids, Admission admission) {
+        ids.add(admission.reservationId);
+        byId.put(admission.reservationId, admission);
+        if (admission.qrCode != null) {
+            byQr.put(admission.qrCode, admission);
+        }
+    }
+
+    private Long employeeId(String username) {
+        return employeeIds.computeIfAbsent(username, name -> userRepository.findByUsername(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Logged in employee not found"))
+                .getId());
+    }
+
+    private static Admission toAdmission(Long eventId, Object[] row) {
+        return new Admission((Long) row[0], eventId, (String) row[1], (Long) row[2], (String) row[3],
+                row[4] != null ? (String) row[4] : "Unknown", (String) row[5]);
+    }
+
+    /** What a gate needs to decide a scan, without touching entities. */
+    static final class Admission {
+        final Long reservationId;
+        final Long eventId;
+        final String qrCode;
+        final Long vendorUserId;
+        final String businessName;
+        final String stallName;
+        final String eventName;
+
+        Admission(Long reservationId, Long eventId, String qrCode, Long vendorUserId,
+                  String businessName, String stallName, String eventName) {
+            this.reservationId = reservationId;
+            this.eventId = eventId;
+            this.qrCode = qrCode;
+            this.vendorUserId = vendorUserId;
+            this.businessName = businessName;
+            this.stallName = stallName;
+            this.eventName = eventName;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.entity.Reservation;
+import com.bookfair.repository.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires unpaid PENDING_PAYMENT holds so abandoned carts stop locking stalls.
+ *
+ * Every open hold sits in an in-memory DelayQueue ordered by deadline: seeded once at startup
+ * and fed by reservation transitions afterwards. Each tick drains only the holds that are due,
+ * so the cost is proportional to what expires rather than to the size of the reservations table.
+ * Expiry is a single conditional UPDATE on status and deadline, so holds paid, cancelled or
+ * extended in the meantime are left alone even if that happened after they were drained;
+ * only the rows it changed publish ordinary transitions, which release the stall everywhere
+ * (availability index, change feed, live map).
+ */
+@Service
+@Slf4j
+public class HoldExpiryService {
+
+    private final ReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int holdTtlMinutes;
+    private final int paymentGraceMinutes;
+    private final int batchSize;
+
+    private final DelayQueue<PendingHold> queue = new DelayQueue<>();
+
+    public HoldExpiryService(ReservationRepository reservationRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.reservation.hold-ttl-minutes:15}") int holdTtlMinutes,
+                             @Value("${app.reservation.payment-grace-minutes:15}") int paymentGraceMinutes,
+                             @Value("${app.reservation.expiry-batch-size:500}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.holdTtlMinutes = holdTtlMinutes;
+        this.paymentGraceMinutes = paymentGraceMinutes;
+        this.batchSize = batchSize;
+    }
+
+    /** Deadline for a hold placed now. */
+    public LocalDateTime newHoldDeadline() {
+        return LocalDateTime.now().plusMinutes(holdTtlMinutes);
+    }
+
+    /**
+     * Deadline for a hold whose checkout has just started: never earlier than its current one,
+     * so a vendor who opens the payment form near the end of the window can still finish.
+     * The sweep re-reads the deadline before expiring, so extending it is enough to keep the hold.
+     */
+    public LocalDateTime paymentDeadline(LocalDateTime current) {
+        LocalDateTime grace = LocalDateTime.now().plusMinutes(paymentGraceMinutes);
+        return current != null && current.isAfter(grace) ? current : grace;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingHolds() {
+        List<Object[]> holds = reservationRepository.findPendingHolds();
+        for (Object[] hold : holds) {
+            LocalDateTime expiresAt = (LocalDateTime) hold[1];
+            if (expiresAt == null) {
+                // Holds placed before expiry existed get a window counted from their creation
+                expiresAt = ((LocalDateTime) hold[2]).plusMinutes(holdTtlMinutes);
+            }
+            queue.add(new PendingHold((Long) hold[0], expiresAt));
+        }
+        log.info(">>> Tracking {} pending payment holds for expiry.", holds.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationTransition(ReservationTransitionEvent event) {
+        if (event.getStatus() == Reservation.ReservationStatus.PENDING_PAYMENT && event.getExpiresAt() != null) {
+            queue.add(new PendingHold(event.getReservationId(), event.getExpiresAt()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservation.expiry-sweep-ms:10000}")
+    public void sweep() {
+        List<PendingHold> due = new ArrayList<>();
+        while (queue.drainTo(due, batchSize) > 0) {
+            List<Long> ids = due.stream().map(h -> h.reservationId).toList();
+            try {
+                int expired = transactionTemplate.execute(status -> expireBatch(ids));
+                if (expired > 0) {
+                    log.info("Expired {} unpaid holds.", expired);
+                }
+            } catch (RuntimeException e) {
+                // Put the batch back so the next tick retries it
+                queue.addAll(due);
+                log.error("Hold expiry batch failed: {}", e.getMessage());
+                return;
+            }
+            due.clear();
+        }
+    }
+
+    private int expireBatch(List<Long> ids) {
+        List<Long> expired = reservationRepository.expireDueHolds(ids, LocalDateTime.now());
+        if (expired.size() < ids.size()) {
+            // Holds still pending were extended at checkout (or placed before a TTL change): follow their new deadline
+            for (Reservation hold : reservationRepository.findPendingByIdIn(ids)) {
+                queue.add(new PendingHold(hold.getId(), hold.getExpiresAt()));
+            }
+        }
+        if (expired.isEmpty()) return 0;
+        for (Reservation hold : reservationRepository.findWithDetailsByIdIn(expired)) {
+            eventPublisher.publishEvent(ReservationTransitionEvent.of(hold, Reservation.ReservationStatus.PENDING_PAYMENT));
+        }
+        return expired.size();
+    }
+
+    int pendingCount() {
+        return queue.size();
+    }
+
+    private static final class PendingHold implements Delayed {
+        final Long reservationId;
+        final long deadlineMillis;
+
+        PendingHold(Long reservationId, LocalDateTime expiresAt) {
+            this.reservationId = reservationId;
+            this.deadlineMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((PendingHold) other).deadlineMillis);
+        }
+    }
+}
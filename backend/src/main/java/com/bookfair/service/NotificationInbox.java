@@ -0,0 +1,146 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.UnreadCountChangedEvent;
+import com.bookfair.exception.ResourceNotFoundException;
+import com.bookfair.repository.NotificationRepository;
+import com.bookfair.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user unread notification counts, cached so the bell's polling never reaches the database.
+ *
+ * A count is loaded on first use and then moved by unread-count events (new notifications,
+ * mark-as-read) and by the JDBC check-in path. Entries are reloaded after a TTL, which bounds
+ * any drift from a load racing a commit. Long-poll requests park a DeferredResult per user and
+ * are completed as soon as that user's count changes, or with the current count on timeout.
+ */
+@Component
+public class NotificationInbox {
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final long unreadTtlMs;
+    private final long pollTimeoutMs;
+    private final int maxWaiters;
+
+    private final Map<Long, Unread> unread = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+    private final Map<Long, Set<DeferredResult<Map<String, Long>>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder wakeups = new LongAdder();
+
+    public NotificationInbox(NotificationRepository notificationRepository,
+                             UserRepository userRepository,
+                             @Value("${app.notifications.unread-ttl-ms:300000}") long unreadTtlMs,
+                             @Value("${app.notifications.poll-timeout-ms:25000}") long pollTimeoutMs,
+                             @Value("${app.notifications.max-waiters:10000}") int maxWaiters) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.unreadTtlMs = unreadTtlMs;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.maxWaiters = maxWaiters;
+    }
+
+    /** Usernames never change, so the id is looked up once per user. */
+    public Long userIdOf(String username) {
+        return userIds.computeIfAbsent(username, name -> userRepository.findByUsername(name)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"))
+                .getId());
+    }
+
+    public long unreadCount(Long userId) {
+        long now = System.currentTimeMillis();
+        Unread entry = unread.get(userId);
+        if (entry != null && now - entry.loadedAt < unreadTtlMs) {
+            hits.increment();
+            return entry.count.get();
+        }
+        misses.increment();
+        return unread.compute(userId, (id, old) -> old != null && now - old.loadedAt < unreadTtlMs
+                ? old
+                : new Unread(notificationRepository.countByRecipientIdAndIsReadFalse(id), now)).count.get();
+    }
+
+    /**
+     * Long-poll: answers at once when the count differs from the one the client already shows,
+     * otherwise when it next changes or the poll times out.
+     */
+    public DeferredResult<Map<String, Long>> awaitChange(Long userId, long knownCount) {
+        DeferredResult<Map<String, Long>> result = new DeferredResult<>(pollTimeoutMs);
+        if (waiting.get() >= maxWaiters) {
+            // Over capacity: answer now and let the client poll again
+            result.setResult(Map.of("count", unreadCount(userId)));
+            return result;
+        }
+        Set<DeferredResult<Map<String, Long>>> userWaiters = waiters.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        userWaiters.add(result);
+        waiting.incrementAndGet();
+        result.onCompletion(() -> {
+            if (userWaiters.remove(result)) {
+                waiting.decrementAndGet();
+            }
+        });
+        result.onTimeout(() -> result.setResult(Map.of("count", unreadCount(userId))));
+        // Checked after registering, so a change landing in between is never missed
+        long count = unreadCount(userId);
+        if (count != knownCount) {
+            result.setResult(Map.of("count", count));
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUnreadCountChanged(UnreadCountChangedEvent event) {
+        adjust(event.getRecipientId(), event.getDelta());
+    }
+
+    /** For writers that insert notifications without the entity layer; call after commit. */
+    public void adjust(Long userId, int delta) {
+        unread.computeIfPresent(userId, (id, entry) -> {
+            entry.count.updateAndGet(n -> Math.max(0, n + delta));
+            return entry;
+        });
+        Set<DeferredResult<Map<String, Long>>> userWaiters = waiters.remove(userId);
+        if (userWaiters != null && !userWaiters.isEmpty()) {
+            Map<String, Long> body = Map.of("count", unreadCount(userId));
+            for (DeferredResult<Map<String, Long>> waiter : userWaiters) {
+                waiter.setResult(body);
+                wakeups.increment();
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return Map.of(
+            "cachedUsers", unread.size(),
+            "waiting", waiting.get(),
+            "wakeups", wakeups.sum(),
+            "hitRate", total > 0 ? (double) hitCount / total : 0.0
+        );
+    }
+
+    private static final class Unread {
+        final AtomicLong count;
+        final long loadedAt;
+
+        Unread(long count, long loadedAt) {
+            this.count = new AtomicLong(count);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
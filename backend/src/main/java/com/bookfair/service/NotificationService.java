@@ -1,10 +1,14 @@
 package com.bookfair.service;
 
+import com.bookfair.dto.event.UnreadCountChangedEvent;
+import com.bookfair.dto.response.CursorPage;
 import com.bookfair.dto.response.NotificationResponse;
 import com.bookfair.entity.Notification;
 import com.bookfair.entity.User;
 import com.bookfair.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.bookfair.exception.ResourceNotFoundException;
@@ -17,7 +21,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class NotificationService {
 
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
     private final NotificationRepository notificationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     
     //ensure acid
@@ -29,30 +37,54 @@ public class NotificationService {
                 .type(type)
                 .build();
         notificationRepository.save(notification);
+        eventPublisher.publishEvent(new UnreadCountChangedEvent(recipient.getId(), 1));
     }
 
-    public List<NotificationResponse> getNotifications(User user) {
-        return notificationRepository.findByRecipientOrderByCreatedAtDesc(user).stream()
+    /**
+     * One inbox page, newest first, keyset-paginated on (createdAt, id).
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    public CursorPage<NotificationResponse> getInbox(Long userId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        // One extra row tells us whether another page exists without a COUNT
+        PageRequest fetch = PageRequest.of(0, size + 1);
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findInbox(userId, fetch);
+        } else {
+            ReservationListService.Cursor after = ReservationListService.decodeCursor(cursor);
+            rows = notificationRepository.findInboxAfter(userId, after.createdAt, after.id, fetch);
+        }
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        String nextCursor = hasMore
+                ? ReservationListService.encodeCursor(rows.get(size - 1).getCreatedAt(), rows.get(size - 1).getId())
+                : null;
+        List<NotificationResponse> content = rows.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
-    }
-
-    public long getUnreadCount(User user) {
-        return notificationRepository.countByRecipientAndIsReadFalse(user);
+        return new CursorPage<>(content, content.size(), nextCursor, hasMore);
     }
 
     @Transactional
-    public NotificationResponse markAsRead(Long id, User user) {
+    public NotificationResponse markAsRead(Long id, Long userId) {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
         
-        if (!notification.getRecipient().getId().equals(user.getId())) {
+        if (!notification.getRecipient().getId().equals(userId)) {
             throw new AccessDeniedException("Unauthorized");
         }
         
-        notification.setRead(true);
-        Notification saved = notificationRepository.save(notification);
-        return mapToResponse(saved);
+        if (!notification.isRead()) {
+            notification.setRead(true);
+            notification = notificationRepository.save(notification);
+            eventPublisher.publishEvent(new UnreadCountChangedEvent(userId, -1));
+        }
+        return mapToResponse(notification);
     }
 
     private NotificationResponse mapToResponse(Notification notification) {
@@ -1,12 +1,17 @@
 package com.bookfair.service;
 
 import com.bookfair.entity.Reservation;
+import com.bookfair.exception.BadRequestException;
+import com.bookfair.exception.ConflictException;
 import com.bookfair.exception.ResourceNotFoundException;
 import com.bookfair.repository.ReservationRepository;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.RefundCreateParams;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +19,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -21,6 +28,7 @@ public class PaymentService {
 
     private final ReservationRepository reservationRepository;
     private final ReservationService reservationService;
+    private final HoldExpiryService holdExpiryService;
 
     @Value("${stripe.api.key}")
     private String stripeApiKey;
@@ -33,14 +41,35 @@ public class PaymentService {
     /**
      * Create a Stripe PaymentIntent for a specific reservation.
      * This is the first step in the payment flow.
+     *
+     * Only a live PENDING_PAYMENT hold can be paid for. The intent id is recorded on the hold and
+     * its deadline pushed out by the payment grace period, so the expiry sweep does not release the
+     * stall while checkout is open. Asking again reuses the intent already in flight and extends
+     * the deadline again. Both writes are conditional on the hold still being PENDING_PAYMENT.
      */
     @Transactional
     public String createPaymentIntent(Long reservationId) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
 
-        if (reservation.getStatus() == Reservation.ReservationStatus.PAID) {
-            throw new IllegalStateException("Reservation is already paid");
+        if (reservation.getStatus() != Reservation.ReservationStatus.PENDING_PAYMENT) {
+            throw new BadRequestException("Can only pay for PENDING_PAYMENT reservations");
+        }
+        if (reservation.getExpiresAt() != null && reservation.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Reservation hold has expired");
+        }
+
+        if (reservation.getPaymentId() != null) {
+            try {
+                PaymentIntent existing = PaymentIntent.retrieve(reservation.getPaymentId());
+                if (!"canceled".equals(existing.getStatus())) {
+                    startCheckout(reservation, existing.getId());
+                    return existing.getClientSecret();
+                }
+            } catch (StripeException e) {
+                log.error("Stripe API error", e);
+                throw new com.bookfair.exception.ServiceUnavailableException("Failed to create payment intent", e);
+            }
         }
 
         // Calculate amount in cents (Stored in LKR in DB)
@@ -68,6 +97,7 @@ public class PaymentService {
 
         try {
             PaymentIntent intent = PaymentIntent.create(params);
+            startCheckout(reservation, intent.getId());
             return intent.getClientSecret();
         } catch (StripeException e) {
             log.error("Stripe API error", e);
@@ -75,11 +105,24 @@ public class PaymentService {
         }
     }
 
+    private void startCheckout(Reservation reservation, String paymentIntentId) {
+        LocalDateTime deadline = holdExpiryService.paymentDeadline(reservation.getExpiresAt());
+        // A plain save would write back the PENDING_PAYMENT read above over a concurrent expiry
+        if (reservationRepository.startCheckout(reservation.getId(), paymentIntentId, deadline) == 0) {
+            throw new BadRequestException("Reservation hold has expired");
+        }
+        reservation.setPaymentId(paymentIntentId);
+        reservation.setExpiresAt(deadline);
+    }
+
     /**
      * Verifies a PaymentIntent with Stripe and updates the reservation status if successful.
      * This is the secure server-side verification step.
+     *
+     * If the hold expired or was cancelled before the payment landed, the stall may already belong
+     * to someone else, so the payment is refunded and the call fails with a conflict.
      */
-    @Transactional
+    @Transactional(noRollbackFor = ConflictException.class)
     public Reservation confirmPayment(Long reservationId, String paymentIntentId) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
@@ -101,8 +144,19 @@ public class PaymentService {
                      throw new IllegalStateException("Payment amount insufficient");
                 }
                 
+                if (reservation.getStatus() != Reservation.ReservationStatus.PENDING_PAYMENT) {
+                    refund(reservation, intent);
+                    throw new ConflictException("Reservation hold ended before payment completed; the payment has been refunded");
+                }
+
                 // Trigger business logic confirmation (Email, Notifications, Status update)
-                reservationService.confirmPayment(reservationId);
+                try {
+                    reservationService.confirmPayment(reservationId);
+                } catch (ConflictException e) {
+                    // The sweep expired the hold between the check above and the conditional PAID update
+                    refund(reservation, intent);
+                    throw new ConflictException("Reservation hold ended before payment completed; the payment has been refunded");
+                }
 
                 // Refresh object and update stripe payment identifier
                 reservation = reservationRepository.findById(reservationId)
@@ -119,4 +173,16 @@ public class PaymentService {
             throw new com.bookfair.exception.ServiceUnavailableException("Failed to verify payment with Stripe", e);
         }
     }
+
+    private void refund(Reservation reservation, PaymentIntent intent) throws StripeException {
+        log.warn("Payment {} arrived for reservation {} in status {}; refunding",
+                intent.getId(), reservation.getId(), reservation.getStatus());
+        Refund.create(RefundCreateParams.builder()
+                .setPaymentIntent(intent.getId())
+                .putMetadata("reservation_id", reservation.getId().toString())
+                .build(),
+                // A repeated confirm for the same intent must not attempt a second refund
+                RequestOptions.builder().setIdempotencyKey("refund-" + intent.getId()).build());
+        reservationRepository.recordPaymentId(reservation.getId(), intent.getId());
+    }
 }
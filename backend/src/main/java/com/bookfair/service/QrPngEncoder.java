@@ -0,0 +1,101 @@
+package com.bookfair.service;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a BitMatrix straight to a 1-bit grayscale PNG.
+ *
+ * MatrixToImageWriter paints an RGB BufferedImage and runs it through ImageIO; a QR code only
+ * needs one bit per pixel, so the rows are packed directly from the matrix and deflated. The
+ * result is a valid PNG several times smaller than the ImageIO output.
+ */
+final class QrPngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private QrPngEncoder() {
+    }
+
+    static byte[] encode(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowBytes = (width + 7) / 8;
+
+        // Each scanline: filter byte (0 = none) followed by packed pixels, 1 = white
+        byte[] raw = new byte[height * (rowBytes + 1)];
+        int offset = 0;
+        for (int y = 0; y < height; y++) {
+            raw[offset++] = 0;
+            for (int x = 0; x < width; x += 8) {
+                int packed = 0;
+                for (int bit = 0; bit < 8; bit++) {
+                    boolean white = x + bit >= width || !matrix.get(x + bit, y);
+                    packed = (packed << 1) | (white ? 1 : 0);
+                }
+                raw[offset++] = (byte) packed;
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 128);
+        out.writeBytes(SIGNATURE);
+
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 1;  // bit depth
+        header[9] = 0;  // grayscale
+        header[10] = 0; // deflate
+        header[11] = 0; // adaptive filtering
+        header[12] = 0; // no interlace
+        writeChunk(out, "IHDR", header, header.length);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] compressed = new byte[raw.length + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            writeChunk(out, "IDAT", compressed, length);
+        } finally {
+            deflater.end();
+        }
+
+        writeChunk(out, "IEND", new byte[0], 0);
+        return out.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data, int length) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] lengthBytes = new byte[4];
+        putInt(lengthBytes, 0, length);
+        out.writeBytes(lengthBytes);
+        out.writeBytes(typeBytes);
+        out.write(data, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        putInt(crcBytes, 0, (int) crc.getValue());
+        out.writeBytes(crcBytes);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
@@ -1,27 +1,94 @@
 package com.bookfair.service;
 
 import com.google.zxing.BarcodeFormat;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * QR Code generation service using ZXing.
+ *
+ * A reservation's QR content never changes, so rendered PNGs are kept in an LRU cache bounded
+ * by total bytes; repeat downloads and re-sent emails cost a map lookup. Returned arrays are
+ * shared with the cache and must not be modified.
  * @author Nihadiyan
  */
 @Service
 public class QrService {
 
+    private static final int DEFAULT_SIZE = 200;
+
+    private final long maxCacheBytes;
+    private final Map<String, byte[]> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public QrService(@Value("${app.qr.cache-max-bytes:8388608}") long maxCacheBytes) {
+        this.maxCacheBytes = maxCacheBytes;
+    }
+
     public byte[] generateQrCode(String content) {
+        return generateQrCode(content, DEFAULT_SIZE);
+    }
+
+    public byte[] generateQrCode(String content, int size) {
+        String key = size + ":" + content;
+        synchronized (this) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        byte[] png = render(content, size);
+        synchronized (this) {
+            byte[] previous = cache.put(key, png);
+            cachedBytes += png.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<String, byte[]>> eldest = cache.entrySet().iterator();
+            while (cachedBytes > maxCacheBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+        return png;
+    }
+
+    /**
+     * Renders without reading or filling the cache, for bulk exports: a whole event's tickets
+     * would otherwise evict the entries that repeat downloads and emails actually reuse.
+     */
+    public byte[] renderUncached(String content) {
+        return render(content, DEFAULT_SIZE);
+    }
+
+    public Map<String, Object> cacheStats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        synchronized (this) {
+            return Map.of(
+                "entries", cache.size(),
+                "bytes", cachedBytes,
+                "hits", hitCount,
+                "misses", total - hitCount,
+                "hitRate", total > 0 ? (double) hitCount / total : 0.0
+            );
+        }
+    }
+
+    private static byte[] render(String content, int size) {
         try {
-            QRCodeWriter writer = new QRCodeWriter();
-            BitMatrix matrix = writer.encode(content, BarcodeFormat.QR_CODE, 200, 200);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(matrix, "PNG", outputStream);
-            return outputStream.toByteArray();
+            BitMatrix matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size);
+            return QrPngEncoder.encode(matrix);
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate QR code", e);
         }
@@ -0,0 +1,173 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.CursorPage;
+import com.bookfair.dto.response.ReservationResponse;
+import com.bookfair.entity.Reservation;
+import com.bookfair.exception.BadRequestException;
+import com.bookfair.repository.ReservationListView;
+import com.bookfair.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reservation listings for the admin, employee and vendor dashboards.
+ *
+ * Pages are built from a flat projection query plus one query for the page's vendor categories,
+ * so a page costs two statements instead of a lazy load per association per row. Paging is
+ * keyset on (createdAt, id): the cursor carries the last row seen and the next query seeks past
+ * it through an index, so page 500 costs the same as page 1. Free text is matched inside the
+ * listing query against vendor name, username and QR code (trigram-indexed), so every matching
+ * reservation is reachable however vague the text.
+ * The rows match ReservationController.mapToResponse field for field.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationListService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private final ReservationRepository reservationRepository;
+
+    /**
+     * @param q        free text over vendor name, username and QR code; blank matches everything
+     * @param username restricts the listing to one vendor's reservations, or null for all
+     * @param cursor   nextCursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReservationResponse> page(String q, Reservation.ReservationStatus status, Long eventId,
+                                                String username, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String text = q != null ? q.trim().toLowerCase(Locale.ROOT) : "";
+        String contains = text.isEmpty() ? "" : "%" + escapeLike(text) + "%";
+        // One extra row tells us whether another page exists without a COUNT
+        Pageable fetch = PageRequest.of(0, size + 1);
+        List<ReservationListView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = reservationRepository.findListViews(contains, status, eventId, username, fetch);
+        } else {
+            Cursor after = decodeCursor(cursor);
+            rows = reservationRepository.findListViewsAfter(contains, status, eventId, username, after.createdAt, after.id, fetch);
+        }
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        String nextCursor = hasMore ? encodeCursor(rows.get(size - 1).getCreatedAt(), rows.get(size - 1).getId()) : null;
+        return new CursorPage<>(toResponses(rows), rows.size(), nextCursor, hasMore);
+    }
+
+    private List<ReservationResponse> toResponses(List<ReservationListView> rows) {
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Long> userIds = new HashSet<>();
+        for (ReservationListView row : rows) {
+            userIds.add(row.getUserId());
+        }
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (Object[] row : reservationRepository.findCategoriesByUserIds(userIds)) {
+            categories.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(((Enum<?>) row[1]).name());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ReservationResponse> responses = new ArrayList<>(rows.size());
+        for (ReservationListView row : rows) {
+            responses.add(toResponse(row, categories.getOrDefault(row.getUserId(), Collections.emptyList()), now));
+        }
+        return responses;
+    }
+
+    /** Makes user input literal inside a LIKE pattern (backslash is the escape character). */
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    static final class Cursor {
+        final LocalDateTime createdAt;
+        final Long id;
+
+        Cursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+
+    static ReservationResponse toResponse(ReservationListView row, List<String> categories, LocalDateTime now) {
+        ReservationResponse res = new ReservationResponse();
+        res.setId(row.getId());
+        res.setQrCode(row.getQrCode());
+        res.setStatus(row.getStatus().name());
+        res.setEmailSent(row.getEmailSent() != null ? row.getEmailSent() : false);
+        res.setCreatedAt(row.getCreatedAt());
+        res.setExpiresAt(row.getExpiresAt());
+        if (row.getStatus() == Reservation.ReservationStatus.PENDING_PAYMENT && row.getExpiresAt() != null) {
+            res.setTtlSeconds(Math.max(0L, Duration.between(now, row.getExpiresAt()).getSeconds()));
+        }
+
+        res.setUser(new ReservationResponse.UserSummary(
+                row.getUserId(),
+                row.getUsername(),
+                row.getEmail(),
+                row.getBusinessName(),
+                row.getContactNumber(),
+                row.getRole() != null ? row.getRole().name() : null,
+                categories
+        ));
+
+        if (row.getStallName() != null) {
+            res.setStalls(Collections.singletonList(row.getStallName()));
+            res.setStallDetails(new ReservationResponse.StallSummary(
+                    row.getEventStallId(),
+                    row.getStallName(),
+                    row.getStallSize() != null ? row.getStallSize().name() : null,
+                    row.getFinalPriceCents(),
+                    row.getBaseRateCents(),
+                    row.getMultiplier(),
+                    row.getHallName(),
+                    row.getHallTier() != null ? row.getHallTier().name() : null,
+                    row.getFloorLevel(),
+                    row.getBuildingName(),
+                    true,
+                    row.getGeometry()
+            ));
+        }
+        res.setTotalPriceCents(row.getFinalPriceCents());
+
+        if (row.getEventId() != null) {
+            res.setEvent(new ReservationResponse.EventSummary(row.getEventId(), row.getEventName(), row.getVenueName()));
+        }
+        return res;
+    }
+}
@@ -1,21 +1,30 @@
 package com.bookfair.service;
 
+import com.bookfair.dto.event.ReservationTransitionEvent;
 import com.bookfair.dto.request.ReservationRequest;
+import com.bookfair.entity.Event;
+import com.bookfair.entity.EventStall;
 import com.bookfair.entity.User;
 import com.bookfair.entity.Reservation;
-import com.bookfair.entity.Reservation;
+import com.bookfair.repository.ReservationBatchRepository;
 import com.bookfair.repository.ReservationRepository;
 import com.bookfair.exception.ResourceNotFoundException;
 import com.bookfair.exception.ConflictException;
 import com.bookfair.exception.BadRequestException;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service layer for reservation operations.
@@ -33,8 +42,13 @@ public class ReservationService {
     private final com.bookfair.repository.EventStallRepository eventStallRepository;
     private final UserService userService;
     private final QrService qrService;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StallClaimRegistry claimRegistry;
+    private final ReservationBatchRepository reservationBatchRepository;
+    private final StallAvailabilityIndex availabilityIndex;
+    private final HoldExpiryService holdExpiryService;
     
     @org.springframework.beans.factory.annotation.Value("${app.reservation.max-stalls:3}")
     private int maxStallsPerPublisher;
@@ -42,52 +56,73 @@ public class ReservationService {
     /**
      * Creates one or more reservations for a user.
      * Starts in PENDING state, awaiting payment.
+     *
+     * Uses a constant number of round trips regardless of stall count: one query for the stalls,
+     * one for the per-event limit, one to reserve ids, one JDBC batch insert. Availability is
+     * checked against the in-memory index.
      */
     @Transactional
     public List<Reservation> createReservations(ReservationRequest request) {
         User user = userService.getByIdForServices(request.getUserId());
-        
-        // Limit check now happens inside the loop per event
-        
-        List<Reservation> reservations = new ArrayList<>();
-        Long eventId = null;
-        String eventName = "";
-        
-        for (Long eventStallId : request.getStallIds()) {
-            com.bookfair.entity.EventStall eventStall = eventStallRepository.findById(eventStallId)
-                    .orElseThrow(() -> new ResourceNotFoundException("EventStall not found: " + eventStallId));
-            
-            if (eventId == null) {
-                eventId = eventStall.getEvent().getId();
-                eventName = eventStall.getEvent().getName();
-                // Check max stalls limit per event (count PENDING and PAID)
-                long currentCount = reservationRepository.countByUserIdAndEventIdAndStatusActive(user.getId(), eventId);
-                if (currentCount + request.getStallIds().size() > maxStallsPerPublisher) {
-                    throw new BadRequestException("Cannot reserve more than " + maxStallsPerPublisher + " stalls for this event");
-                }
+        List<Long> stallIds = new ArrayList<>(new LinkedHashSet<>(request.getStallIds()));
+
+        // Fails fast if another booking is in flight for any of these stalls; released when this transaction ends
+        claimRegistry.claimForTransaction(stallIds);
+
+        Map<Long, EventStall> stallsById = eventStallRepository.findAllByIdWithEvent(stallIds).stream()
+                .collect(Collectors.toMap(EventStall::getId, Function.identity()));
+        for (Long eventStallId : stallIds) {
+            if (!stallsById.containsKey(eventStallId)) {
+                throw new ResourceNotFoundException("EventStall not found: " + eventStallId);
             }
-            
-            if (reservationRepository.isStallReserved(eventStallId)) {
+        }
+
+        // Check max stalls limit per event (count PENDING and PAID)
+        Event event = stallsById.get(stallIds.get(0)).getEvent();
+        long currentCount = reservationRepository.countByUserIdAndEventIdAndStatusActive(user.getId(), event.getId());
+        if (currentCount + stallIds.size() > maxStallsPerPublisher) {
+            throw new BadRequestException("Cannot reserve more than " + maxStallsPerPublisher + " stalls for this event");
+        }
+
+        for (Long eventStallId : stallIds) {
+            if (availabilityIndex.occupantOf(stallsById.get(eventStallId).getEvent().getId(), eventStallId) != null) {
                 throw new ConflictException("Stall already reserved or pending: " + eventStallId);
             }
-            
-            Reservation reservation = Reservation.builder()
+        }
+
+        // Ids come from the table's sequence up front, so the QR code is final at insert time
+        List<Long> ids = reservationBatchRepository.nextIds(stallIds.size());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = holdExpiryService.newHoldDeadline();
+        List<Reservation> reservations = new ArrayList<>(stallIds.size());
+        for (int i = 0; i < stallIds.size(); i++) {
+            reservations.add(Reservation.builder()
+                    .id(ids.get(i))
                     .user(user)
-                    .eventStall(eventStall)
+                    .eventStall(stallsById.get(stallIds.get(i)))
                     .status(Reservation.ReservationStatus.PENDING_PAYMENT)
+                    .expiresAt(expiresAt)
                     .emailSent(false)
-                    .qrCode("TEMP-" + UUID.randomUUID())
-                    .build();
-            
-            reservation = reservationRepository.save(reservation);
-            reservation.setQrCode("RES-" + reservation.getId());
-            reservations.add(reservationRepository.save(reservation));
+                    .qrCode("RES-" + ids.get(i))
+                    .createdAt(now)
+                    .build());
+        }
+
+        try {
+            reservationBatchRepository.insertAll(reservations);
+        } catch (DataIntegrityViolationException e) {
+            if (!ReservationBatchRepository.isActiveStallConflict(e)) {
+                throw e;
+            }
+            // uq_reservations_active_stall: booked through another instance between our check and insert
+            throw new ConflictException("Stall already reserved or pending: " + stallIds);
         }
+        reservations.forEach(r -> eventPublisher.publishEvent(ReservationTransitionEvent.of(r, null)));
 
         // Trigger Notification
         notificationService.createNotification(
             user, 
-            String.format("New booking initiated for %s. Complete payment to secure your stalls.", eventName),
+            String.format("New booking initiated for %s. Complete payment to secure your stalls.", event.getName()),
             com.bookfair.entity.Notification.NotificationType.INFO
         );
         
@@ -98,8 +133,9 @@ public class ReservationService {
     /**
      * Transitions a reservation from PENDING_PAYMENT to PAID after payment success.
      * This triggers the final QR ticket email.
+     * Throws ConflictException (without rolling back the caller) if the hold ended concurrently.
      */
-    @Transactional
+    @Transactional(noRollbackFor = ConflictException.class)
     public void confirmPayment(Long reservationId) {
         Reservation reservation = reservationRepository.findByIdWithDetails(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found"));
@@ -107,9 +143,12 @@ public class ReservationService {
         if (reservation.getStatus() != Reservation.ReservationStatus.PENDING_PAYMENT) {
             throw new BadRequestException("Can only confirm payment for PENDING_PAYMENT reservations");
         }
-
+        // Conditional on the status, so a concurrent expiry sweep and this payment cannot both win
+        if (reservationRepository.markPaid(reservationId) == 0) {
+            throw new ConflictException("Reservation hold ended before payment could be confirmed");
+        }
         reservation.setStatus(Reservation.ReservationStatus.PAID);
-        reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationTransitionEvent.of(reservation, Reservation.ReservationStatus.PENDING_PAYMENT));
 
         // Trigger Notification
         notificationService.createNotification(
@@ -120,16 +159,8 @@ public class ReservationService {
             com.bookfair.entity.Notification.NotificationType.SUCCESS
         );
 
-        // Send final confirmation email with QR Ticket
-        try {
-            List<Reservation> list = new ArrayList<>();
-            list.add(reservation);
-            emailService.sendConfirmation(reservation.getUser().getEmail(), list);
-            reservation.setEmailSent(true);
-            reservationRepository.save(reservation);
-        } catch (Exception e) {
-            log.error("Failed to send final ticket: {}", e.getMessage());
-        }
+        // Final confirmation email with QR Ticket goes through the outbox, sent after commit
+        emailOutboxService.enqueueConfirmation(reservation);
     }
     
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
@@ -201,6 +232,7 @@ public class ReservationService {
 
         reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
         reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationTransitionEvent.of(reservation, Reservation.ReservationStatus.PENDING_PAYMENT));
 
         // Trigger Notification if not cancelled by owner (e.g. by admin)
         if (!reservation.getUser().getId().equals(requester.getId())) {
@@ -232,6 +264,7 @@ public class ReservationService {
 
         reservation.setStatus(Reservation.ReservationStatus.PENDING_REFUND);
         reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationTransitionEvent.of(reservation, Reservation.ReservationStatus.PAID));
 
         // Notify admins regarding the refund request
         // (In a real system, you'd probably send an email or internal admin dashboard alert)
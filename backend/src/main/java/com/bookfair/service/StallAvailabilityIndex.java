@@ -0,0 +1,228 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.EventLayoutChangedEvent;
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import com.bookfair.repository.EventStallRepository;
+import com.bookfair.repository.ReservationRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of which event stalls are held by an active (PENDING_PAYMENT or PAID) reservation.
+ *
+ * Per event, stalls get a dense ordinal; a BitSet marks held ordinals and parallel arrays carry
+ * the occupant shown on the map. Indexes are loaded at startup and kept current by reservation
+ * transitions after commit, so availability lookups never scan the reservations table.
+ * A layout change for an event drops its index (stalls may have been added or removed) and
+ * the next lookup reloads it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StallAvailabilityIndex {
+
+    private static final int MAX_OPTIMISTIC_LOADS = 3;
+
+    private final EventStallRepository eventStallRepository;
+    private final ReservationRepository reservationRepository;
+
+    private final Map<Long, EventIndex> indexes = new ConcurrentHashMap<>();
+    /** Per-event transition counter; a load that raced a transition is discarded and retried. */
+    private final Map<Long, long[]> generations = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        List<Long> eventIds = eventStallRepository.findDistinctEventIds();
+        eventIds.forEach(this::indexFor);
+        log.info(">>> Loaded stall availability for {} events.", eventIds.size());
+    }
+
+    /** Occupant of the stall, or null when no active reservation holds it. */
+    public Occupant occupantOf(Long eventId, Long eventStallId) {
+        return indexFor(eventId).occupantOf(eventStallId);
+    }
+
+    /** Ids of the event's stalls without an active reservation, in ordinal (id) order. */
+    public List<Long> availableStallIds(Long eventId) {
+        return indexFor(eventId).availableStallIds();
+    }
+
+    // Runs before the other after-commit listeners so a map rebuilt on invalidation already sees the change
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationTransition(ReservationTransitionEvent event) {
+        long[] generation = generationOf(event.getEventId());
+        synchronized (generation) {
+            generation[0]++;
+            EventIndex index = indexes.get(event.getEventId());
+            if (index != null) {
+                index.apply(event);
+            }
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLayoutChanged(EventLayoutChangedEvent event) {
+        // Unscoped changes (halls, templates) never add or remove event stalls
+        if (event.getEventId() == null) return;
+        long[] generation = generationOf(event.getEventId());
+        synchronized (generation) {
+            generation[0]++;
+            indexes.remove(event.getEventId());
+        }
+    }
+
+    private EventIndex indexFor(Long eventId) {
+        EventIndex index = indexes.get(eventId);
+        if (index != null) {
+            return index;
+        }
+        long[] generation = generationOf(eventId);
+        for (int attempt = 0; attempt < MAX_OPTIMISTIC_LOADS; attempt++) {
+            long seen;
+            synchronized (generation) {
+                index = indexes.get(eventId);
+                if (index != null) return index;
+                seen = generation[0];
+            }
+            EventIndex loaded = load(eventId);
+            synchronized (generation) {
+                if (generation[0] == seen) {
+                    indexes.put(eventId, loaded);
+                    return loaded;
+                }
+            }
+            // A transition committed while loading; the load may predate it, so read again
+        }
+        // Under a steady stream of commits, load while holding off this event's transitions
+        synchronized (generation) {
+            index = indexes.get(eventId);
+            if (index == null) {
+                index = load(eventId);
+                indexes.put(eventId, index);
+            }
+            return index;
+        }
+    }
+
+    private EventIndex load(Long eventId) {
+        List<Long> stallIds = eventStallRepository.findIdsByEventId(eventId);
+        EventIndex index = new EventIndex(stallIds);
+        for (Reservation reservation : reservationRepository.findActiveByEventId(eventId)) {
+            index.hold(reservation.getEventStall().getId(), reservation.getId(), Occupant.of(reservation.getUser()));
+        }
+        return index;
+    }
+
+    private long[] generationOf(Long eventId) {
+        return generations.computeIfAbsent(eventId, k -> new long[1]);
+    }
+
+    /** What the map shows for a held stall. */
+    @Getter
+    public static class Occupant {
+        private final String businessName;
+        private final String publisherCategory;
+
+        public Occupant(String businessName, String publisherCategory) {
+            this.businessName = businessName;
+            this.publisherCategory = publisherCategory;
+        }
+
+        static Occupant of(User user) {
+            return new Occupant(user.getBusinessName(),
+                    user.getCategories() != null && !user.getCategories().isEmpty()
+                            ? user.getCategories().iterator().next().name() : null);
+        }
+    }
+
+    private static final class EventIndex {
+        private final Map<Long, Integer> ordinals;
+        private long[] stallIds;
+        private long[] reservationIds;
+        private Occupant[] occupants;
+        private final BitSet held = new BitSet();
+
+        EventIndex(List<Long> ids) {
+            this.ordinals = new HashMap<>(ids.size() * 2);
+            this.stallIds = new long[ids.size()];
+            this.reservationIds = new long[ids.size()];
+            this.occupants = new Occupant[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                stallIds[i] = ids.get(i);
+                ordinals.put(ids.get(i), i);
+            }
+        }
+
+        synchronized Occupant occupantOf(Long stallId) {
+            Integer ordinal = ordinals.get(stallId);
+            return ordinal != null && held.get(ordinal) ? occupants[ordinal] : null;
+        }
+
+        synchronized List<Long> availableStallIds() {
+            List<Long> available = new ArrayList<>(ordinals.size() - held.cardinality());
+            for (int i = held.nextClearBit(0); i < ordinals.size(); i = held.nextClearBit(i + 1)) {
+                available.add(stallIds[i]);
+            }
+            return available;
+        }
+
+        synchronized void apply(ReservationTransitionEvent event) {
+            if (!event.isAvailabilityChange()) return;
+            if (event.isReserved()) {
+                hold(event.getEventStallId(), event.getReservationId(),
+                        new Occupant(event.getOccupiedBy(), event.getPublisherCategory()));
+            } else {
+                Integer ordinal = ordinals.get(event.getEventStallId());
+                // Only the reservation that holds the stall can release it
+                if (ordinal != null && held.get(ordinal) && event.getReservationId() != null
+                        && reservationIds[ordinal] == event.getReservationId()) {
+                    held.clear(ordinal);
+                    occupants[ordinal] = null;
+                }
+            }
+        }
+
+        synchronized void hold(Long stallId, Long reservationId, Occupant occupant) {
+            Integer ordinal = ordinals.get(stallId);
+            if (ordinal == null) {
+                ordinal = grow(stallId);
+            }
+            held.set(ordinal);
+            reservationIds[ordinal] = reservationId != null ? reservationId : 0L;
+            occupants[ordinal] = occupant;
+        }
+
+        /** A stall created after the index was loaded (before its layout change reached us). */
+        private int grow(Long stallId) {
+            int ordinal = ordinals.size();
+            if (ordinal == stallIds.length) {
+                int capacity = Math.max(8, stallIds.length * 2);
+                stallIds = Arrays.copyOf(stallIds, capacity);
+                reservationIds = Arrays.copyOf(reservationIds, capacity);
+                occupants = Arrays.copyOf(occupants, capacity);
+            }
+            stallIds[ordinal] = stallId;
+            ordinals.put(stallId, ordinal);
+            return ordinal;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.event.StallAvailabilityChangedEvent;
+import com.bookfair.dto.response.StallChangeFeedResponse;
+import com.bookfair.dto.response.StallChangeFeedResponse.StallChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-event, sequenced log of stall availability changes behind /events/{id}/stalls/changes.
+ *
+ * Each event keeps the last `capacity` changes in a ring buffer. Sequences start from a
+ * base derived from the boot time, so they keep increasing across restarts and a cursor
+ * from a previous run is simply reported as too old (resync) instead of silently matching.
+ */
+@Component
+public class StallChangeFeed {
+
+    private final int capacity;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long baseSeq = System.currentTimeMillis() * 1000;
+    private final Map<Long, EventLog> logs = new ConcurrentHashMap<>();
+
+    public StallChangeFeed(@Value("${app.map.change-feed.capacity:1024}") int capacity,
+                           ApplicationEventPublisher eventPublisher) {
+        this.capacity = capacity;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Records transitions that flip a stall between held and free; status-only changes (e.g. PAID) are skipped. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationTransition(ReservationTransitionEvent event) {
+        if (!event.isAvailabilityChange()) return;
+        StallChange change = toChange(event);
+        logFor(event.getEventId()).append(change);
+        // Only a wake-up for push channels: they read the log from their own cursor on their own
+        // threads, so sequence order holds without holding the log lock on the committing thread
+        eventPublisher.publishEvent(new StallAvailabilityChangedEvent(event.getEventId(), change));
+    }
+
+    /** Sequence of the newest change for the event; the map snapshot hands it out as the starting cursor. */
+    public long latestSeq(Long eventId) {
+        EventLog log = logs.get(eventId);
+        return log != null ? log.latestSeq() : baseSeq;
+    }
+
+    public StallChangeFeedResponse changesSince(Long eventId, long since) {
+        EventLog log = logs.get(eventId);
+        if (log == null) {
+            return StallChangeFeedResponse.builder()
+                    .eventId(eventId)
+                    .latestSeq(baseSeq)
+                    .resync(since != baseSeq)
+                    .changes(List.of())
+                    .build();
+        }
+        return log.since(eventId, since);
+    }
+
+    private EventLog logFor(Long eventId) {
+        return logs.computeIfAbsent(eventId, k -> new EventLog(capacity, baseSeq));
+    }
+
+    static StallChange toChange(ReservationTransitionEvent event) {
+        // Mirrors StallService.mapToResponse: a released stall still shows as taken while blocked
+        boolean reserved = event.isReserved();
+        return StallChange.builder()
+                .stallId(event.getEventStallId())
+                .reserved(reserved || event.isStallBlocked())
+                .occupiedBy(reserved ? event.getOccupiedBy() : (event.isStallBlocked() ? "BLOCKED" : null))
+                .publisherCategory(reserved ? event.getPublisherCategory() : null)
+                .build();
+    }
+
+    private static final class EventLog {
+        private final StallChange[] ring;
+        private final long firstSeq;
+        private long lastSeq;
+
+        EventLog(int capacity, long baseSeq) {
+            this.ring = new StallChange[capacity];
+            this.firstSeq = baseSeq + 1;
+            this.lastSeq = baseSeq;
+        }
+
+        synchronized long append(StallChange change) {
+            change.setSeq(++lastSeq);
+            ring[(int) (lastSeq % ring.length)] = change;
+            return lastSeq;
+        }
+
+        synchronized long latestSeq() {
+            return lastSeq;
+        }
+
+        synchronized StallChangeFeedResponse since(Long eventId, long since) {
+            long oldestRetained = Math.max(firstSeq, lastSeq - ring.length + 1);
+            boolean resync = since < oldestRetained - 1 || since > lastSeq;
+
+            List<StallChange> changes = new ArrayList<>();
+            if (!resync) {
+                for (long seq = since + 1; seq <= lastSeq; seq++) {
+                    changes.add(ring[(int) (seq % ring.length)]);
+                }
+            }
+            return StallChangeFeedResponse.builder()
+                    .eventId(eventId)
+                    .latestSeq(lastSeq)
+                    .resync(resync)
+                    .changes(changes)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bookfair.service;
+
+import com.bookfair.exception.ConflictException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process claim table that serializes concurrent bookings of the same stall.
+ *
+ * A booking transaction claims its stalls with a compare-and-set before it reads or writes
+ * anything; a second transaction racing for the same stall fails immediately with a
+ * ConflictException instead of passing the availability check and waiting on row locks.
+ * Claims are released when the transaction completes, after the availability index has
+ * seen the committed reservation. The partial unique index on active reservations
+ * (see DatabaseMigrationConfig) remains the guarantee across application instances.
+ */
+@Component
+public class StallClaimRegistry {
+
+    private final Map<Long, Object> claims = new ConcurrentHashMap<>();
+
+    /**
+     * Claims every stall for the current transaction, all or nothing.
+     * Must be called inside a transaction; the claims are released on commit or rollback.
+     */
+    public void claimForTransaction(Collection<Long> eventStallIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stall claims require an active transaction");
+        }
+        Object token = new Object();
+        List<Long> acquired = new ArrayList<>(eventStallIds.size());
+        for (Long eventStallId : eventStallIds) {
+            Object holder = claims.putIfAbsent(eventStallId, token);
+            if (holder != null && holder != token) {
+                release(acquired, token);
+                throw new ConflictException("Stall is being booked by another vendor: " + eventStallId);
+            }
+            if (holder == null) {
+                acquired.add(eventStallId);
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(acquired, token);
+            }
+        });
+    }
+
+    public boolean isClaimed(Long eventStallId) {
+        return claims.containsKey(eventStallId);
+    }
+
+    private void release(List<Long> eventStallIds, Object token) {
+        for (Long eventStallId : eventStallIds) {
+            claims.remove(eventStallId, token);
+        }
+    }
+}
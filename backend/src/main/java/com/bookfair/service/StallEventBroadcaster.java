@@ -0,0 +1,329 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.StallAvailabilityChangedEvent;
+import com.bookfair.dto.response.StallChangeFeedResponse;
+import com.bookfair.dto.response.StallChangeFeedResponse.StallChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes stall reserved/released changes to booking-map clients over Server-Sent Events.
+ *
+ * Connections are async servlet requests, so an idle subscriber costs a socket and a small
+ * queue but no thread. A committed change only schedules the event's fan-out task; on the
+ * fixed drain pool it reads new changes from the feed past its cursor, serializes each once
+ * and offers it to every subscriber's bounded queue, and the same pool writes queued frames
+ * out. A subscriber whose queue overflows has it cleared and receives a single `resync` frame,
+ * telling it to reload the map rather than letting one slow consumer buffer without limit.
+ */
+@Component
+public class StallEventBroadcaster {
+
+    private static final Frame HEARTBEAT = new Frame(null, null, "heartbeat");
+
+    private final StallChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final ExecutorService drainPool;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, EventFanout> fanouts = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public StallEventBroadcaster(StallChangeFeed changeFeed,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.sse.buffer-size:64}") int bufferSize,
+                                 @Value("${app.sse.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${app.sse.max-subscribers:20000}") int maxSubscribers,
+                                 @Value("${app.sse.drain-threads:4}") int drainThreads) {
+        this.changeFeed = changeFeed;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.drainPool = Executors.newFixedThreadPool(drainThreads, r -> {
+            Thread t = new Thread(r, "sse-drain-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens a stream for an event. With a Last-Event-ID the missed changes are replayed from
+     * the change feed first (or a resync is sent if they are no longer retained).
+     * Empty when the subscriber limit is reached; the client should fall back to polling the delta feed.
+     */
+    public Optional<SseEmitter> subscribe(Long eventId, Long lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(eventId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscribers.computeIfAbsent(eventId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        // Registered before reading the feed, so a change is either replayed here or fanned out later
+        synchronized (subscriber) {
+            if (lastEventId != null) {
+                StallChangeFeedResponse missed = changeFeed.changesSince(eventId, lastEventId);
+                if (missed.isResync()) {
+                    subscriber.requestResync();
+                } else {
+                    missed.getChanges().forEach(change -> subscriber.offer(toFrame(change)));
+                }
+                subscriber.goLive(missed.getLatestSeq());
+            } else {
+                long latest = changeFeed.latestSeq(eventId);
+                subscriber.offer(new Frame(null, "ready", Long.toString(latest)));
+                subscriber.goLive(latest);
+            }
+        }
+        return Optional.of(emitter);
+    }
+
+    /** Runs on the committing thread, so it only schedules the event's fan-out. */
+    @EventListener
+    public void onStallAvailabilityChanged(StallAvailabilityChangedEvent event) {
+        Set<Subscriber> listeners = subscribers.get(event.getEventId());
+        if (listeners == null || listeners.isEmpty()) return;
+        fanouts.computeIfAbsent(event.getEventId(), id -> new EventFanout(id, event.getChange().getSeq() - 1)).schedule();
+    }
+
+    /** Keeps idle connections from being cut by proxies; skipped for subscribers with frames pending. */
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(set -> set.forEach(Subscriber::heartbeat));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainPool.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    }
+
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    private Frame toFrame(StallChange change) {
+        try {
+            return new Frame(Long.toString(change.getSeq()), "stall", objectMapper.writeValueAsString(change));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize stall change: " + e.getMessage(), e);
+        }
+    }
+
+    /** Pre-serialized SSE frame shared by all subscribers; a null name with comment text is a heartbeat. */
+    private static final class Frame {
+        final String id;
+        final String name;
+        final String data;
+
+        Frame(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment(data);
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            return id != null ? event.id(id) : event;
+        }
+    }
+
+    /**
+     * Delivers an event's changes in sequence order. At most one run per event is in flight;
+     * wake-ups arriving meanwhile are folded into another pass over the feed.
+     */
+    private final class EventFanout implements Runnable {
+        final Long eventId;
+        final AtomicBoolean running = new AtomicBoolean();
+        volatile boolean pending;
+        private long cursor; // only touched by the single in-flight run
+
+        EventFanout(Long eventId, long cursor) {
+            this.eventId = eventId;
+            this.cursor = cursor;
+        }
+
+        void schedule() {
+            pending = true;
+            if (running.compareAndSet(false, true)) {
+                try {
+                    drainPool.execute(this);
+                } catch (RuntimeException e) {
+                    // Pool shut down; subscribers are being completed
+                    running.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (pending) {
+                    pending = false;
+                    fanOut();
+                }
+            } finally {
+                running.set(false);
+            }
+            if (pending) {
+                schedule();
+            }
+        }
+
+        private void fanOut() {
+            StallChangeFeedResponse delta = changeFeed.changesSince(eventId, cursor);
+            cursor = delta.getLatestSeq();
+            Set<Subscriber> listeners = subscribers.get(eventId);
+            if (listeners == null || listeners.isEmpty()) return;
+            if (delta.isResync()) {
+                // Fell behind the feed's retention window
+                listeners.forEach(Subscriber::requestResync);
+                return;
+            }
+            for (StallChange change : delta.getChanges()) {
+                Frame frame = toFrame(change);
+                for (Subscriber subscriber : listeners) {
+                    subscriber.offerChange(change.getSeq(), frame);
+                }
+            }
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        final Long eventId;
+        final SseEmitter emitter;
+        final Queue<Frame> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile boolean resyncPending;
+        // Guarded by this: fan-out is dropped until the subscribe replay is queued, then deduplicated against it
+        private boolean live;
+        private long lastSeq;
+
+        Subscriber(Long eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+
+        synchronized void goLive(long seq) {
+            lastSeq = seq;
+            live = true;
+        }
+
+        synchronized void offerChange(long seq, Frame frame) {
+            if (!live || seq <= lastSeq) return;
+            lastSeq = seq;
+            offer(frame);
+        }
+
+        void offer(Frame frame) {
+            if (closed.get()) return;
+            if (!queue.offer(frame)) {
+                // Too far behind: anything still queued is superseded by a full reload
+                requestResync();
+                return;
+            }
+            schedule();
+        }
+
+        void requestResync() {
+            queue.clear();
+            resyncPending = true;
+            schedule();
+        }
+
+        void heartbeat() {
+            if (queue.isEmpty() && !resyncPending) {
+                offer(HEARTBEAT);
+            }
+        }
+
+        void schedule() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                try {
+                    drainPool.execute(this);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed.get()) {
+                    if (resyncPending) {
+                        resyncPending = false;
+                        emitter.send(SseEmitter.event().name("resync")
+                                .data(Long.toString(changeFeed.latestSeq(eventId)), MediaType.APPLICATION_JSON));
+                        continue;
+                    }
+                    Frame frame = queue.poll();
+                    if (frame == null) break;
+                    emitter.send(frame.toEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter already completed)
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Frames offered between the last poll and releasing the flag would otherwise wait for the next offer
+            if (!queue.isEmpty() || resyncPending) {
+                schedule();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            queue.clear();
+            Set<Subscriber> set = subscribers.get(eventId);
+            if (set != null) {
+                set.remove(this);
+            }
+            subscriberCount.decrementAndGet();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // Already completed by the container
+            }
+        }
+    }
+}
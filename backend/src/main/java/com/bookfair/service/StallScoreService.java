@@ -0,0 +1,92 @@
+package com.bookfair.service;
+
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Hall;
+import com.bookfair.repository.EventStallRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Write-time visibility scoring pipeline.
+ *
+ * Scores are deterministic given the hall layout and stall geometry, so they are computed
+ * when either changes and stored on the EventStall, stamped with the hall's layoutVersion.
+ * The map endpoint serves stored scores directly and only falls back to live scoring
+ * for stalls whose stamp does not match the current hall version.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StallScoreService {
+
+    private final EventStallRepository eventStallRepository;
+    private final StallScoringEngine scoringEngine;
+    private final ObjectMapper objectMapper;
+
+    /** Computes and stamps scores on the given stalls. Callers persist them. */
+    public void rescore(Collection<EventStall> stalls) {
+        for (EventStall stall : stalls) {
+            if (stall.getStallTemplate() == null) continue;
+            StallScoringEngine.ScoreResult result = scoringEngine.score(stall);
+            try {
+                stall.setScoreDrivers(objectMapper.writeValueAsString(result.getDrivers()));
+                stall.setVisibilityScore(result.getScore());
+                stall.setScoreLayoutVersion(layoutVersionOf(stall));
+            } catch (JsonProcessingException e) {
+                log.error("Failed to store score for stall {}: {}", stall.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /** Rescores every event stall placed in a hall, e.g. after its static layout changed. */
+    @Transactional
+    public void rescoreHall(Long hallId) {
+        List<EventStall> stalls = eventStallRepository.findByStallTemplate_Hall_Id(hallId);
+        rescore(stalls);
+        eventStallRepository.saveAll(stalls);
+    }
+
+    /** Rescores the event stalls instantiated from a template (template geometry is their fallback). */
+    @Transactional
+    public void rescoreTemplate(Long templateId) {
+        List<EventStall> stalls = eventStallRepository.findByStallTemplate_Id(templateId);
+        rescore(stalls);
+        eventStallRepository.saveAll(stalls);
+    }
+
+    /** True when the stored score was computed against the hall's current layout. */
+    public boolean isCurrent(EventStall stall) {
+        return stall.getVisibilityScore() != null
+                && stall.getScoreDrivers() != null
+                && stall.getStallTemplate() != null
+                && java.util.Objects.equals(stall.getScoreLayoutVersion(), layoutVersionOf(stall));
+    }
+
+    /**
+     * Backfills stalls created before scores were persisted (or by the seeder), and rescores
+     * stalls whose hall layout changed outside {@link #rescoreHall} (e.g. seeder layout refreshes).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillMissingScores() {
+        List<EventStall> stalls = eventStallRepository.findStaleScores();
+        if (stalls.isEmpty()) return;
+        rescore(stalls);
+        eventStallRepository.saveAll(stalls);
+        log.info(">>> Backfilled visibility scores for {} stalls.", stalls.size());
+    }
+
+    private static Long layoutVersionOf(EventStall stall) {
+        Hall hall = stall.getStallTemplate().getHall();
+        return hall != null && hall.getLayoutVersion() != null ? hall.getLayoutVersion() : 0L;
+    }
+}
@@ -0,0 +1,276 @@
+package com.bookfair.service;
+
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Hall;
+import com.bookfair.entity.StallTemplate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.bookfair.constant.ScoringConstants.*;
+
+/**
+ * Compiled spatial scoring model behind the "Visibility Score" on the stall map.
+ *
+ * Hall influences are parsed once per hall into primitive arrays and stall centroids once
+ * per EventStall, so scoring a stall is a loop over doubles instead of a Jackson tree walk.
+ * Each compiled entry remembers the JSON it was built from and is recompiled if the source
+ * no longer matches, so a missed invalidation can never serve a stale score.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StallScoringEngine {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, CompiledLayout> hallLayouts = new ConcurrentHashMap<>();
+    private final Map<Long, StallCentroid> stallCentroids = new ConcurrentHashMap<>();
+
+    /**
+     * Scores a stall against its hall's influences. Mirrors the original per-request algorithm:
+     * linear/exponential falloff per influence, an edge penalty, clamped to [MIN_SCORE, MAX_SCORE].
+     */
+    public ScoreResult score(EventStall eventStall) {
+        StallTemplate template = eventStall.getStallTemplate();
+        List<Map<String, Object>> drivers = new ArrayList<>();
+        int calculatedScore = 0;
+
+        CompiledLayout layout = template.getHall() != null ? layoutFor(template.getHall()) : CompiledLayout.EMPTY;
+        StallCentroid centroid = centroidFor(eventStall);
+
+        if (layout.invalid || (layout.present && centroid.invalid)) {
+            calculatedScore = template.getDefaultProximityScore() * DEFAULT_PROXIMITY_MULTIPLIER;
+        } else if (layout.present && centroid.hasPosition) {
+            double normStallX = (centroid.x / 100.0) * layout.width;
+            double normStallY = (centroid.y / 100.0) * layout.height;
+
+            for (int i = 0; i < layout.size; i++) {
+                double dx = normStallX - layout.infX[i];
+                double dy = normStallY - layout.infY[i];
+                double distSq = dx * dx + dy * dy;
+                if (distSq < layout.radiusSq[i]) {
+                    double factor = 1.0 - (Math.sqrt(distSq) / layout.radius[i]);
+                    if (layout.exponential[i]) factor = factor * factor;
+
+                    int contribution = (int) (layout.intensity[i] * factor);
+                    if (contribution > 0) {
+                        calculatedScore += contribution;
+                        Map<String, Object> driver = new HashMap<>();
+                        driver.put("label", layout.labels[i]);
+                        driver.put("value", "+" + contribution);
+                        drivers.add(driver);
+                    }
+                }
+            }
+        }
+
+        if (centroid.onEdge) {
+            calculatedScore -= EDGE_DISTANCE_PENALTY;
+            Map<String, Object> penalty = new HashMap<>();
+            penalty.put("label", "Edge Distance");
+            penalty.put("value", "-" + EDGE_DISTANCE_PENALTY);
+            drivers.add(penalty);
+        }
+
+        return new ScoreResult(Math.min(MAX_SCORE, Math.max(MIN_SCORE, calculatedScore)), drivers);
+    }
+
+    /** Drops the compiled influences of a hall after its static layout changes. */
+    public void evictHall(Long hallId) {
+        if (hallId != null) {
+            hallLayouts.remove(hallId);
+        }
+    }
+
+    /** Drops cached centroids after stall geometry changes (or the stalls are deleted). */
+    public void evictStalls(Collection<Long> eventStallIds) {
+        eventStallIds.forEach(stallCentroids::remove);
+    }
+
+    // ─── COMPILATION ─────────────────────────────────────────────
+
+    private CompiledLayout layoutFor(Hall hall) {
+        String source = hall.getStaticLayout();
+        if (hall.getId() == null) {
+            return compileLayout(source);
+        }
+        CompiledLayout cached = hallLayouts.get(hall.getId());
+        if (cached != null && cached.matches(source)) {
+            return cached;
+        }
+        CompiledLayout compiled = compileLayout(source);
+        hallLayouts.put(hall.getId(), compiled);
+        return compiled;
+    }
+
+    private StallCentroid centroidFor(EventStall eventStall) {
+        String geometry = eventStall.getGeometry();
+        String templateGeometry = eventStall.getStallTemplate().getGeometry();
+        // Scoring treats a blank event geometry as missing; the edge check only treats null as missing.
+        String scoringSource = geometry == null || geometry.trim().isEmpty() ? templateGeometry : geometry;
+        String edgeSource = geometry != null ? geometry : templateGeometry;
+
+        if (eventStall.getId() == null) {
+            return compileCentroid(scoringSource, edgeSource);
+        }
+        StallCentroid cached = stallCentroids.get(eventStall.getId());
+        if (cached != null && cached.matches(scoringSource, edgeSource)) {
+            return cached;
+        }
+        StallCentroid compiled = compileCentroid(scoringSource, edgeSource);
+        stallCentroids.put(eventStall.getId(), compiled);
+        return compiled;
+    }
+
+    private CompiledLayout compileLayout(String source) {
+        if (source == null || source.trim().isEmpty() || source.equals("{}")) {
+            return new CompiledLayout(source, false, false, 0, 0, 0);
+        }
+        try {
+            JsonNode hallNode = objectMapper.readTree(source);
+            JsonNode influences = hallNode.get("influences");
+            double width = hallNode.has("width") ? hallNode.get("width").asDouble() : 1000.0;
+            double height = hallNode.has("height") ? hallNode.get("height").asDouble() : 800.0;
+
+            int size = influences != null && influences.isArray() ? influences.size() : 0;
+            CompiledLayout layout = new CompiledLayout(source, true, false, width, height, size);
+            for (int i = 0; i < size; i++) {
+                JsonNode influence = influences.get(i);
+                layout.infX[i] = required(influence, "x").asDouble();
+                layout.infY[i] = required(influence, "y").asDouble();
+                layout.radius[i] = required(influence, "radius").asDouble();
+                layout.radiusSq[i] = layout.radius[i] > 0 ? layout.radius[i] * layout.radius[i] : -1;
+                layout.intensity[i] = required(influence, "intensity").asInt();
+                layout.labels[i] = required(influence, "type").asText() + " Proximity";
+                layout.exponential[i] = "EXPONENTIAL".equals(required(influence, "falloff").asText());
+            }
+            return layout;
+        } catch (Exception e) {
+            log.error("Spatial scoring failed: " + e.getMessage());
+            return new CompiledLayout(source, true, true, 0, 0, 0);
+        }
+    }
+
+    private StallCentroid compileCentroid(String scoringSource, String edgeSource) {
+        boolean onEdge = edgeSource != null && (edgeSource.contains("\"x\": 0") || edgeSource.contains("\"x\": 0.0") ||
+                edgeSource.contains("\"y\": 0") || edgeSource.contains("\"y\": 0.0"));
+
+        if (scoringSource == null || scoringSource.trim().isEmpty()) {
+            return new StallCentroid(scoringSource, edgeSource, false, false, 0, 0, onEdge);
+        }
+        try {
+            JsonNode stallGeom = objectMapper.readTree(scoringSource);
+            if (!stallGeom.has("x") || !stallGeom.has("y")) {
+                return new StallCentroid(scoringSource, edgeSource, false, false, 0, 0, onEdge);
+            }
+            double x = stallGeom.get("x").asDouble() + (stallGeom.has("w") ? stallGeom.get("w").asDouble() / 2 : 0);
+            double y = stallGeom.get("y").asDouble() + (stallGeom.has("h") ? stallGeom.get("h").asDouble() / 2 : 0);
+            return new StallCentroid(scoringSource, edgeSource, false, true, x, y, onEdge);
+        } catch (Exception e) {
+            log.error("Spatial scoring failed: " + e.getMessage());
+            return new StallCentroid(scoringSource, edgeSource, true, false, 0, 0, onEdge);
+        }
+    }
+
+    private static JsonNode required(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Influence is missing '" + field + "'");
+        }
+        return value;
+    }
+
+    // ─── COMPILED MODEL ──────────────────────────────────────────
+
+    @Getter
+    public static class ScoreResult {
+        private final int score;
+        private final List<Map<String, Object>> drivers;
+
+        public ScoreResult(int score, List<Map<String, Object>> drivers) {
+            this.score = score;
+            this.drivers = drivers;
+        }
+    }
+
+    /** Hall influences flattened into parallel arrays (structure-of-arrays). */
+    private static final class CompiledLayout {
+        static final CompiledLayout EMPTY = new CompiledLayout(null, false, false, 0, 0, 0);
+
+        // Re-pointed at the latest equal string so repeat lookups hit the identity check.
+        volatile String source;
+        final boolean present;
+        final boolean invalid;
+        final double width;
+        final double height;
+        final int size;
+        final double[] infX;
+        final double[] infY;
+        final double[] radius;
+        final double[] radiusSq;
+        final int[] intensity;
+        final boolean[] exponential;
+        final String[] labels;
+
+        CompiledLayout(String source, boolean present, boolean invalid, double width, double height, int size) {
+            this.source = source;
+            this.present = present;
+            this.invalid = invalid;
+            this.width = width;
+            this.height = height;
+            this.size = size;
+            this.infX = new double[size];
+            this.infY = new double[size];
+            this.radius = new double[size];
+            this.radiusSq = new double[size];
+            this.intensity = new int[size];
+            this.exponential = new boolean[size];
+            this.labels = new String[size];
+        }
+
+        boolean matches(String candidate) {
+            String current = source;
+            if (current == candidate) return true;
+            if (current == null || !current.equals(candidate)) return false;
+            source = candidate;
+            return true;
+        }
+    }
+
+    /** Stall center in layout percent coordinates, plus the edge-penalty flag. */
+    private static final class StallCentroid {
+        final String scoringSource;
+        final String edgeSource;
+        final boolean invalid;
+        final boolean hasPosition;
+        final double x;
+        final double y;
+        final boolean onEdge;
+
+        StallCentroid(String scoringSource, String edgeSource, boolean invalid, boolean hasPosition,
+                      double x, double y, boolean onEdge) {
+            this.scoringSource = scoringSource;
+            this.edgeSource = edgeSource;
+            this.invalid = invalid;
+            this.hasPosition = hasPosition;
+            this.x = x;
+            this.y = y;
+            this.onEdge = onEdge;
+        }
+
+        boolean matches(String scoring, String edge) {
+            return java.util.Objects.equals(scoringSource, scoring) && java.util.Objects.equals(edgeSource, edge);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.bookfair.service;
+
+import com.bookfair.exception.ResourceNotFoundException;
+import com.bookfair.repository.EventRepository;
+import com.bookfair.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Printable entry passes for a whole event, as one ZIP of QR PNGs plus a CSV manifest.
+ *
+ * PAID reservations are walked with an id cursor one page at a time; each page's QR codes are
+ * rendered in parallel on a bounded pool and written to the response in reservation order
+ * before the next page is fetched, so memory stays flat regardless of event size. The manifest
+ * rows are spooled to a temp file as the tickets go out and appended as the last entry, so they
+ * describe exactly the files in the archive. PNGs are already compressed and are stored rather
+ * than deflated again.
+ */
+@Service
+public class TicketPackService {
+
+    private final ReservationRepository reservationRepository;
+    private final EventRepository eventRepository;
+    private final QrService qrService;
+    private final TicketTokenService ticketTokenService;
+    private final int pageSize;
+    private final ExecutorService renderPool;
+
+    public TicketPackService(ReservationRepository reservationRepository,
+                             EventRepository eventRepository,
+                             QrService qrService,
+                             TicketTokenService ticketTokenService,
+                             @Value("${app.tickets.export-page-size:500}") int pageSize,
+                             @Value("${app.tickets.render-threads:4}") int renderThreads) {
+        this.reservationRepository = reservationRepository;
+        this.eventRepository = eventRepository;
+        this.qrService = qrService;
+        this.ticketTokenService = ticketTokenService;
+        this.pageSize = pageSize;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(renderThreads, r -> {
+            Thread t = new Thread(r, "ticket-render-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Checked before the response is committed, so a bad id still gets a proper 404. */
+    public void requireEvent(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found: " + eventId);
+        }
+    }
+
+    public void writeTicketPack(Long eventId, OutputStream out) throws IOException {
+        Path manifestFile = Files.createTempFile("ticket-manifest-", ".csv");
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            try (Writer manifest = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+                writeTickets(eventId, zip, manifest);
+            }
+            zip.putNextEntry(new ZipEntry("manifest.csv"));
+            Files.copy(manifestFile, zip);
+            zip.closeEntry();
+            zip.finish();
+        } finally {
+            Files.deleteIfExists(manifestFile);
+        }
+    }
+
+    private void writeTickets(Long eventId, ZipOutputStream zip, Writer manifest) throws IOException {
+        manifest.write("ReservationID,QRCode,Stall,Vendor,File\n");
+        long afterId = 0;
+        List<Object[]> page;
+        do {
+            page = reservationRepository.findPaidTicketsAfter(eventId, afterId, PageRequest.of(0, pageSize));
+            List<Future<byte[]>> renders = new ArrayList<>(page.size());
+            for (Object[] row : page) {
+                String token = ticketTokenService.issue((Long) row[0], eventId, (Long) row[4], (LocalDateTime) row[6], (LocalDateTime) row[5]);
+                renders.add(renderPool.submit(() -> qrService.renderUncached(token)));
+            }
+            for (int i = 0; i < page.size(); i++) {
+                Object[] row = page.get(i);
+                Long reservationId = (Long) row[0];
+                String stall = row[2] != null ? (String) row[2] : "";
+                String fileName = "ticket-" + reservationId + (stall.isEmpty() ? "" : "-" + stall.replaceAll("[^A-Za-z0-9_-]", "_")) + ".png";
+                writeStored(zip, fileName, await(renders.get(i)));
+                manifest.write(reservationId + "," + CsvExportService.escape(row[1]) + "," + CsvExportService.escape(stall)
+                        + "," + CsvExportService.escape(row[3]) + "," + fileName + "\n");
+                afterId = reservationId;
+            }
+            zip.flush();
+        } while (page.size() == pageSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private static void writeStored(ZipOutputStream zip, String name, byte[] bytes) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    private static byte[] await(Future<byte[]> render) throws IOException {
+        try {
+            return render.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Ticket export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render ticket QR code", e.getCause());
+        }
+    }
+}
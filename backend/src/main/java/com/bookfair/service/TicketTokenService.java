@@ -0,0 +1,159 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.TicketVerificationResponse;
+import com.bookfair.entity.Event;
+import com.bookfair.entity.Reservation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signed ticket tokens for QR codes, verifiable without a database.
+ *
+ * A token is {@code BF1.<reservation>.<event>.<stall>.<expiry>.<mac>}: ids and the expiry (epoch
+ * seconds) in base 36, then a truncated HMAC-SHA256 under a key derived per event from the
+ * server secret. A gate device only ever holds its own event's key, so a leaked device cannot
+ * forge passes for other events. Revocation (cancellations, refunds) is a per-event id list.
+ */
+@Service
+@Slf4j
+public class TicketTokenService {
+
+    static final String PREFIX = "BF1";
+    private static final String HMAC = "HmacSHA256";
+    private static final int MAC_BYTES = 12;
+    /** Assumed length of an event with no end date, counted from its start. */
+    static final Duration UNDATED_EVENT_LENGTH = Duration.ofDays(7);
+    /** Stands in for an event with neither date, so its tokens (and QR cache keys) still never change. */
+    private static final LocalDateTime UNDATED_EVENT_END = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    private final byte[] masterKey;
+    private final Duration validAfterEvent;
+    private final Map<Long, byte[]> eventKeys = new ConcurrentHashMap<>();
+
+    public TicketTokenService(@Value("${app.tickets.signing-secret:}") String signingSecret,
+                              @Value("${app.jwtSecret:}") String jwtSecret,
+                              @Value("${app.tickets.valid-after-event-hours:24}") long validAfterEventHours) {
+        String secret = !signingSecret.isBlank() ? signingSecret : jwtSecret;
+        if (secret.isBlank()) {
+            log.warn("No ticket signing secret configured; issued QR tokens will not survive a restart");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            this.masterKey = random;
+        } else {
+            this.masterKey = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.validAfterEvent = Duration.ofHours(validAfterEventHours);
+    }
+
+    /** Token for a reservation; entities must be loaded (reservation → event stall → event). */
+    public String issue(Reservation reservation) {
+        Event event = reservation.getEventStall().getEvent();
+        return issue(reservation.getId(), event.getId(), reservation.getEventStall().getId(), event.getStartDate(), event.getEndDate());
+    }
+
+    /**
+     * The expiry is derived from the event dates only, never from the clock, so the same
+     * reservation always gets the same token.
+     */
+    public String issue(Long reservationId, Long eventId, Long eventStallId, LocalDateTime eventStart, LocalDateTime eventEnd) {
+        LocalDateTime end = eventEnd != null ? eventEnd
+                : eventStart != null ? eventStart.plus(UNDATED_EVENT_LENGTH) : UNDATED_EVENT_END;
+        LocalDateTime until = end.plus(validAfterEvent);
+        long expiry = until.atZone(ZoneId.systemDefault()).toEpochSecond();
+        String payload = PREFIX + "." + Long.toString(reservationId, 36) + "." + Long.toString(eventId, 36)
+                + "." + Long.toString(eventStallId, 36) + "." + Long.toString(expiry, 36);
+        return payload + "." + encode(mac(eventKey(eventId), payload));
+    }
+
+    public static boolean looksLikeToken(String value) {
+        return value != null && value.startsWith(PREFIX + ".");
+    }
+
+    /** Checks signature and expiry only; no database access. */
+    public TicketVerificationResponse verify(String token) {
+        return verify(token, LocalDateTime.now());
+    }
+
+    /** As {@link #verify(String)}, judging expiry at the given time (an offline scan's, say). */
+    public TicketVerificationResponse verify(String token, LocalDateTime at) {
+        String[] parts = token != null ? token.split("\\.") : new String[0];
+        if (parts.length != 6 || !PREFIX.equals(parts[0])) {
+            return invalid("Malformed ticket");
+        }
+        long reservationId;
+        long eventId;
+        long eventStallId;
+        long expiry;
+        byte[] actual;
+        try {
+            reservationId = Long.parseLong(parts[1], 36);
+            eventId = Long.parseLong(parts[2], 36);
+            eventStallId = Long.parseLong(parts[3], 36);
+            expiry = Long.parseLong(parts[4], 36);
+            actual = Base64.getUrlDecoder().decode(parts[5]);
+        } catch (IllegalArgumentException e) {
+            return invalid("Malformed ticket");
+        }
+        byte[] expected = mac(eventKey(eventId), token.substring(0, token.lastIndexOf('.')));
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return invalid("Signature mismatch");
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(expiry), ZoneId.systemDefault());
+        boolean expired = expiresAt.isBefore(at);
+        return TicketVerificationResponse.builder()
+                .valid(!expired)
+                .message(expired ? "Ticket expired" : "Signature valid")
+                .reservationId(reservationId)
+                .eventId(eventId)
+                .eventStallId(eventStallId)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    /** The per-event verification key handed to gate devices for offline checks. */
+    public String verificationKey(Long eventId) {
+        return encode(eventKey(eventId));
+    }
+
+    private byte[] eventKey(long eventId) {
+        return eventKeys.computeIfAbsent(eventId, id -> mac(masterKey, "bf-gate-key:" + id, 32));
+    }
+
+    private static byte[] mac(byte[] key, String data) {
+        return mac(key, data, MAC_BYTES);
+    }
+
+    private static byte[] mac(byte[] key, String data, int length) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(key, HMAC));
+            return Arrays.copyOf(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)), length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static TicketVerificationResponse invalid(String message) {
+        return TicketVerificationResponse.builder().valid(false).message(message).build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.BulkMailResponse;
+import com.bookfair.dto.response.MailingJobResponse;
+import com.bookfair.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs vendor mailings in the background, so the admin's request returns at once instead of
+ * staying open for the minutes a rate-limited SMTP run takes.
+ *
+ * Runs go one at a time on a single thread (they already share the bulk sender's connection
+ * pool). Each gets a job id whose progress and outcome can be polled; finished jobs are kept
+ * for the retention period, then dropped. Like the rest of the in-memory state, jobs are per
+ * instance and do not survive a restart.
+ */
+@Service
+@Slf4j
+public class VendorMailingService {
+
+    private final EmailService emailService;
+    private final long retentionMinutes;
+    private final ExecutorService runner;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public VendorMailingService(EmailService emailService,
+                                @Value("${app.mail.bulk.job-retention-minutes:60}") long retentionMinutes) {
+        this.emailService = emailService;
+        this.retentionMinutes = retentionMinutes;
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "vendor-mailing");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Queues a mailing to the given recipients and returns its job. */
+    public MailingJobResponse submit(Long eventId, List<String> recipients, String subject, String body) {
+        purgeFinished();
+        Job job = new Job(UUID.randomUUID().toString(), eventId, recipients.size());
+        jobs.put(job.id, job);
+        runner.execute(() -> run(job, recipients, subject, body));
+        return job.toResponse();
+    }
+
+    public MailingJobResponse get(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Mailing job not found: " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    void run(Job job, List<String> recipients, String subject, String body) {
+        job.startedAt = LocalDateTime.now();
+        job.status = MailingJobResponse.Status.RUNNING;
+        try {
+            job.result = emailService.sendBulk(recipients, subject, body, job.processed::incrementAndGet);
+            job.status = MailingJobResponse.Status.COMPLETED;
+            log.info("Vendor mailing {} for event {} done: {} sent, {} failed",
+                    job.id, job.eventId, job.result.getSent(), job.result.getFailed());
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            job.status = MailingJobResponse.Status.FAILED;
+            log.error("Vendor mailing {} for event {} failed: {}", job.id, job.eventId, e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    static final class Job {
+        final String id;
+        final Long eventId;
+        final int requested;
+        final LocalDateTime queuedAt = LocalDateTime.now();
+        final AtomicInteger processed = new AtomicInteger();
+        volatile MailingJobResponse.Status status = MailingJobResponse.Status.QUEUED;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile BulkMailResponse result;
+        volatile String error;
+
+        Job(String id, Long eventId, int requested) {
+            this.id = id;
+            this.eventId = eventId;
+            this.requested = requested;
+        }
+
+        MailingJobResponse toResponse() {
+            return MailingJobResponse.builder()
+                    .jobId(id)
+                    .eventId(eventId)
+                    .status(status)
+                    .requested(requested)
+                    .processed(processed.get())
+                    .queuedAt(queuedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .result(result)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -60,6 +60,15 @@ class AdminControllerTest {
     @MockBean
     private HallRepository hallRepository;
 
+    @MockBean
+    private com.bookfair.service.TicketPackService ticketPackService;
+
+    @MockBean
+    private com.bookfair.service.CsvExportService csvExportService;
+
+    @MockBean
+    private com.bookfair.service.ReservationListService reservationListService;
+
     @MockBean
     private com.bookfair.security.JwtUtils jwtUtils;
 
@@ -1,5 +1,72 @@
 package com.bookfair.controller;
 
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import com.bookfair.exception.ConflictException;
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.ReservationRepository;
+import com.bookfair.repository.UserRepository;
+import com.bookfair.service.GateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
 public class EmployeeControllerTest {
-    
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CheckInLogRepository checkInLogRepository;
+    @Mock
+    private GateService gateService;
+
+    @InjectMocks
+    private EmployeeController employeeController;
+
+    private final Principal principal = () -> "gate1";
+
+    @BeforeEach
+    void setUp() {
+        Reservation reservation = Reservation.builder().id(10L).status(Reservation.ReservationStatus.PAID).build();
+        when(gateService.admit(10L, "gate1")).thenReturn(Optional.empty());
+        when(reservationRepository.findById(10L)).thenReturn(Optional.of(reservation));
+        when(userRepository.findByUsername("gate1")).thenReturn(Optional.of(new User()));
+        when(gateService.tryClaim(10L)).thenReturn(true);
+    }
+
+    @Test
+    void admitReservation_ShouldReleaseGateClaim_WhenWriteFails() {
+        when(checkInLogRepository.saveAndFlush(any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatThrownBy(() -> employeeController.admitReservation(10L, principal)).isInstanceOf(QueryTimeoutException.class);
+
+        verify(gateService).release(10L);
+    }
+
+    @Test
+    void admitReservation_ShouldKeepGateClaim_WhenAnotherGateWroteTheRow() {
+        when(checkInLogRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException(
+                "ERROR: duplicate key value violates unique constraint \"uq_check_in_logs_reservation\""));
+
+        assertThatThrownBy(() -> employeeController.admitReservation(10L, principal)).isInstanceOf(ConflictException.class);
+
+        verify(gateService, never()).release(any());
+    }
 }
@@ -0,0 +1,90 @@
+package com.bookfair.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyFilterTest {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(100, 60, 1000);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final FilterChain booking = (req, res) -> {
+        int n = executions.incrementAndGet();
+        res.setContentType("application/json");
+        res.getWriter().write("[{\"id\":" + n + "}]");
+    };
+
+    @Test
+    void doFilter_ShouldReplayFirstResponse_ForSameKey() throws Exception {
+        MockHttpServletResponse first = send("key-1", booking);
+        MockHttpServletResponse retry = send("key-1", booking);
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(retry.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+    }
+
+    @Test
+    void doFilter_ShouldExecuteAgain_ForDifferentKey() throws Exception {
+        send("key-1", booking);
+        send("key-2", booking);
+
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    void doFilter_ShouldNotKeepServerErrors() throws Exception {
+        FilterChain failing = (req, res) -> {
+            executions.incrementAndGet();
+            ((jakarta.servlet.http.HttpServletResponse) res).setStatus(503);
+        };
+        send("key-1", failing);
+        MockHttpServletResponse retry = send("key-1", booking);
+
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(retry.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_ShouldReject_KeyReusedWithDifferentBody() throws Exception {
+        FilterChain echo = (req, res) -> {
+            executions.incrementAndGet();
+            res.getOutputStream().write(req.getInputStream().readAllBytes());
+        };
+        MockHttpServletResponse first = send("key-1", "{\"stallIds\":[10]}", echo);
+        MockHttpServletResponse reused = send("key-1", "{\"stallIds\":[11]}", echo);
+
+        assertThat(first.getContentAsString()).isEqualTo("{\"stallIds\":[10]}");
+        assertThat(reused.getStatus()).isEqualTo(422);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_ShouldIgnoreRequestsWithoutKey() throws Exception {
+        send(null, booking);
+        send(null, booking);
+
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse send(String key, FilterChain chain) throws Exception {
+        return send(key, "", chain);
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/vendor/reservations");
+        request.setContent(body.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
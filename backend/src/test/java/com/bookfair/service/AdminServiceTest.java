@@ -5,6 +5,7 @@ import com.bookfair.entity.*;
 import com.bookfair.exception.ResourceNotFoundException;
 import com.bookfair.repository.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,6 +40,14 @@ class AdminServiceTest {
     private AuditLogRepository auditLogRepository;
     @Mock
     private ObjectMapper objectMapper;
+    @Mock
+    private StallScoringEngine scoringEngine;
+    @Mock
+    private StallScoreService scoreService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private VendorMailingService vendorMailingService;
 
     @InjectMocks
     private AdminService adminService;
@@ -122,5 +131,39 @@ class AdminServiceTest {
         // Assert
         assertThat(testHall.getStaticLayout()).isEqualTo("{\"layout\":\"data\"}");
         verify(hallRepository).save(testHall);
+        assertThat(testHall.getLayoutVersion()).isEqualTo(1L);
+        verify(scoringEngine).evictHall(1L);
+        verify(scoreService).rescoreHall(1L);
+    }
+
+    @Test
+    void getEventStats_ShouldFoldGroupedRows_WithoutLoadingStalls() {
+        HallTier tier = HallTier.values()[0];
+        when(eventStallRepository.aggregateStatsByEventId(1L)).thenReturn(List.of(
+                new Object[]{1L, "Main Hall", tier, StallSize.SMALL, EventStallStatus.RESERVED, Reservation.ReservationStatus.PAID, 3L, 300_000L},
+                // Stall status not yet caught up with a fresh hold, and with an expired one
+                new Object[]{1L, "Main Hall", tier, StallSize.SMALL, EventStallStatus.AVAILABLE, Reservation.ReservationStatus.PENDING_PAYMENT, 1L, 100_000L},
+                new Object[]{1L, "Main Hall", tier, StallSize.LARGE, EventStallStatus.RESERVED, null, 1L, 200_000L},
+                new Object[]{1L, "Main Hall", tier, StallSize.LARGE, EventStallStatus.AVAILABLE, null, 3L, 600_000L},
+                new Object[]{2L, "Annex", tier, StallSize.SMALL, EventStallStatus.BLOCKED, null, 2L, 200_000L}));
+
+        com.bookfair.dto.response.EventStatsResponse stats = adminService.getEventStats(1L);
+
+        assertThat(stats.getTotalStalls()).isEqualTo(10L);
+        assertThat(stats.getReservedStalls()).isEqualTo(4L);
+        assertThat(stats.getAvailableStalls()).isEqualTo(4L);
+        assertThat(stats.getBlockedStalls()).isEqualTo(2L);
+        assertThat(stats.getFillRate()).isEqualTo(40.0);
+        assertThat(stats.getProjectedRevenueCents()).isEqualTo(400_000L);
+        assertThat(stats.getPaidRevenueCents()).isEqualTo(300_000L);
+        assertThat(stats.getPendingReservations()).isEqualTo(1L);
+        assertThat(stats.getPendingExposureCents()).isEqualTo(100_000L);
+        assertThat(stats.getByHall()).extracting("name", "totalStalls", "fillRate", "paidRevenueCents")
+                .containsExactly(org.assertj.core.groups.Tuple.tuple("Main Hall", 8L, 50.0, 300_000L),
+                        org.assertj.core.groups.Tuple.tuple("Annex", 2L, 0.0, 0L));
+        assertThat(stats.getBySize()).extracting("name", "reservedStalls")
+                .containsExactly(org.assertj.core.groups.Tuple.tuple("SMALL", 4L), org.assertj.core.groups.Tuple.tuple("LARGE", 0L));
+        assertThat(stats.getByTier()).singleElement().extracting("totalStalls").isEqualTo(10L);
+        verify(eventStallRepository, never()).findByEvent_Id(any());
     }
 }
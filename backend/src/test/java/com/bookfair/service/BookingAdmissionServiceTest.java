@@ -0,0 +1,77 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.AdmissionTicketResponse;
+import com.bookfair.exception.AdmissionQueuedException;
+import com.bookfair.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookingAdmissionServiceTest {
+
+    // One admission per second, so the second caller in the same second has to queue
+    private final BookingAdmissionService admission = new BookingAdmissionService(1, 2, 100, 30, 60, 100);
+
+    @Test
+    void admit_ShouldServeDirectly_WhenIdle() {
+        assertThat(admission.admit("alice", null, () -> "booked")).isEqualTo("booked");
+        assertThat(admission.waitingCount()).isZero();
+    }
+
+    @Test
+    void admit_ShouldQueueInOrder_WhenRateIsExhausted() {
+        admission.admit("alice", null, () -> "booked");
+
+        AdmissionTicketResponse bob = queue("bob");
+        AdmissionTicketResponse carol = queue("carol");
+
+        assertThat(bob.getPosition()).isEqualTo(1);
+        assertThat(carol.getPosition()).isEqualTo(2);
+        assertThat(admission.waitingCount()).isEqualTo(2);
+    }
+
+    @Test
+    void admitWaiting_ShouldAdmitHeadTicket_WhichIsSingleUse() throws InterruptedException {
+        admission.admit("alice", null, () -> "booked");
+        AdmissionTicketResponse bob = queue("bob");
+
+        Thread.sleep(1100); // let the rate refill
+        admission.admitWaiting(System.currentTimeMillis());
+
+        assertThat(admission.status("bob", bob.getTicketId()).isAdmitted()).isTrue();
+        assertThat(admission.admit("bob", bob.getTicketId(), () -> "booked")).isEqualTo("booked");
+        assertThatThrownBy(() -> admission.admit("bob", bob.getTicketId(), () -> "again"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void admitWaiting_ShouldDropAbandonedTickets() {
+        admission.admit("alice", null, () -> "booked");
+        AdmissionTicketResponse bob = queue("bob");
+
+        admission.admitWaiting(System.currentTimeMillis() + 31_000);
+
+        assertThat(admission.waitingCount()).isZero();
+        assertThatThrownBy(() -> admission.status("bob", bob.getTicketId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void status_ShouldRejectTicketOfAnotherUser() {
+        admission.admit("alice", null, () -> "booked");
+        AdmissionTicketResponse bob = queue("bob");
+
+        assertThatThrownBy(() -> admission.status("mallory", bob.getTicketId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private AdmissionTicketResponse queue(String username) {
+        try {
+            admission.admit(username, null, () -> "booked");
+        } catch (AdmissionQueuedException e) {
+            return e.getTicket();
+        }
+        throw new AssertionError(username + " was not queued");
+    }
+}
@@ -0,0 +1,84 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.BulkMailResponse;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkMailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    private BulkMailSender bulkMailSender;
+
+    @AfterEach
+    void tearDown() {
+        bulkMailSender.shutdown();
+    }
+
+    @Test
+    void sendAll_ShouldDeliverEveryMessage_OverPooledConnections() throws Exception {
+        bulkMailSender = newSender(2, 3, 100);
+
+        BulkMailResponse result = bulkMailSender.sendAll(messages(7));
+
+        assertThat(result.getSent()).isEqualTo(7);
+        assertThat(result.getFailed()).isZero();
+        assertThat(greenMail.getReceivedMessages()).hasSize(7);
+        // 3 batches over at most 2 connections: sessions are reused, not opened per message
+        assertThat((Long) bulkMailSender.stats().get("connectionsOpened")).isLessThanOrEqualTo(2L);
+    }
+
+    @Test
+    void sendAll_ShouldRecycleConnection_AfterMessageCap() throws Exception {
+        bulkMailSender = newSender(1, 10, 2);
+
+        bulkMailSender.sendAll(messages(5));
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(5);
+        assertThat((Long) bulkMailSender.stats().get("connectionsOpened")).isEqualTo(3L);
+    }
+
+    @Test
+    void sendAll_ShouldReuseIdleConnection_AcrossRuns() throws Exception {
+        bulkMailSender = newSender(1, 10, 100);
+
+        bulkMailSender.sendAll(messages(2));
+        bulkMailSender.sendAll(messages(2));
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(4);
+        assertThat((Long) bulkMailSender.stats().get("connectionsOpened")).isEqualTo(1L);
+    }
+
+    private BulkMailSender newSender(int poolSize, int batchSize, int messagesPerConnection) {
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        return new BulkMailSender(mailSender, poolSize, batchSize, messagesPerConnection, 1000, 60000);
+    }
+
+    private List<MimeMessage> messages(int count) throws Exception {
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+            helper.setFrom("fair@example.com");
+            helper.setTo("vendor" + i + "@example.com");
+            helper.setSubject("Thanks for exhibiting");
+            helper.setText("See you next year.");
+            messages.add(message);
+        }
+        return messages;
+    }
+}
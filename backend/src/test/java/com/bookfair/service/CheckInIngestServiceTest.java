@@ -0,0 +1,189 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.request.OfflineScanSyncRequest;
+import com.bookfair.dto.response.BulkCheckInResponse;
+import com.bookfair.dto.response.BulkCheckInResponse.ScanResult;
+import com.bookfair.entity.Event;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import com.bookfair.repository.CheckInBatchRepository;
+import com.bookfair.repository.CheckInBatchRepository.CheckInRow;
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.EventRepository;
+import com.bookfair.repository.ReservationRepository;
+import com.bookfair.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CheckInIngestServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private CheckInLogRepository checkInLogRepository;
+    @Mock
+    private CheckInBatchRepository checkInBatchRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private GateService gateService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private DashboardCounters dashboardCounters;
+    @Mock
+    private NotificationInbox notificationInbox;
+    @Mock
+    private EventRepository eventRepository;
+
+    private final TicketTokenService ticketTokenService = new TicketTokenService("test-secret", "", 24);
+    private CheckInIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        ingestService = newService(5);
+        Event event = new Event();
+        event.setId(1L);
+        event.setStartDate(LocalDateTime.now().minusDays(1));
+        lenient().when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        User employee = new User();
+        employee.setId(7L);
+        when(userRepository.findByUsername("gate1")).thenReturn(Optional.of(employee));
+    }
+
+    @Test
+    void syncOffline_ShouldDeduplicate_AndWriteOneBatch() {
+        LocalDateTime eventEnd = LocalDateTime.now().plusDays(1);
+        LocalDateTime scannedAt = LocalDateTime.now().minusMinutes(30);
+        String paid = ticketTokenService.issue(10L, 1L, 100L, null, eventEnd);
+        String checkedIn = ticketTokenService.issue(11L, 1L, 101L, null, eventEnd);
+        String cancelled = ticketTokenService.issue(12L, 1L, 102L, null, eventEnd);
+        String otherEvent = ticketTokenService.issue(13L, 2L, 103L, null, eventEnd);
+        when(reservationRepository.findCheckInCandidates(Set.of(10L, 11L, 12L))).thenReturn(List.of(
+                new Object[]{10L, Reservation.ReservationStatus.PAID, 1L, 200L, "Sarasavi", "A1", "CIBF 2026"},
+                new Object[]{11L, Reservation.ReservationStatus.PAID, 1L, 201L, "Godage", "A2", "CIBF 2026"},
+                new Object[]{12L, Reservation.ReservationStatus.CANCELLED, 1L, 202L, "Vijitha", "A3", "CIBF 2026"}));
+        when(checkInLogRepository.findCheckedInAmong(Set.of(10L, 11L, 12L))).thenReturn(List.of(11L));
+        when(gateService.tryClaim(10L)).thenReturn(true);
+        when(checkInBatchRepository.insertAll(anyList())).thenReturn(new boolean[]{true});
+
+        BulkCheckInResponse response = ingestService.syncOffline(1L, List.of(
+                scan(paid, scannedAt), scan(paid, scannedAt), scan(checkedIn, null), scan(cancelled, null),
+                scan(otherEvent, null), scan("BF1.a.1.2.zz.forged", null)), "gate1");
+
+        assertThat(response.getResults()).extracting(ScanResult::getOutcome).containsExactly(
+                CheckInIngestService.ADMITTED, CheckInIngestService.DUPLICATE, CheckInIngestService.DUPLICATE,
+                CheckInIngestService.REJECTED, CheckInIngestService.INVALID, CheckInIngestService.INVALID);
+        assertThat(response.getAdmitted()).isEqualTo(1);
+        assertThat(response.getDuplicates()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(3);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CheckInRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(checkInBatchRepository).insertAll(rows.capture());
+        assertThat(rows.getValue()).singleElement().satisfies(row -> {
+            assertThat(row.getReservationId()).isEqualTo(10L);
+            assertThat(row.getEmployeeId()).isEqualTo(7L);
+            assertThat(row.getCheckInTime()).isEqualTo(scannedAt);
+            assertThat(row.getNotificationMessage()).contains("CIBF 2026", "A1");
+        });
+    }
+
+    @Test
+    void ingest_ShouldReportRowsSkippedByTheDatabaseAsDuplicates() {
+        when(reservationRepository.findCheckInCandidates(Set.of(10L))).thenReturn(List.<Object[]>of(
+                new Object[]{10L, Reservation.ReservationStatus.PAID, 1L, 200L, "Sarasavi", null, "CIBF 2026"}));
+        when(checkInLogRepository.findCheckedInAmong(Set.of(10L))).thenReturn(List.of());
+        when(gateService.tryClaim(10L)).thenReturn(true);
+        when(checkInBatchRepository.insertAll(anyList())).thenReturn(new boolean[]{false});
+
+        BulkCheckInResponse response = ingestService.ingest(null, List.of(
+                CheckInIngestService.Scan.builder().scan("10").reservationId(10L).build()), "gate1");
+
+        assertThat(response.getResults()).singleElement()
+                .extracting(ScanResult::getOutcome).isEqualTo(CheckInIngestService.DUPLICATE);
+    }
+
+    @Test
+    void ingestScans_ShouldResolveQrCodesInOneQuery_AndReportUnknownScans() {
+        String token = ticketTokenService.issue(11L, 1L, 101L, null, LocalDateTime.now().plusDays(1));
+        when(reservationRepository.findIdsByQrCodes(Set.of("RES-10", "RES-404", "12"))).thenReturn(List.<Object[]>of(
+                new Object[]{"RES-10", 10L}));
+        when(reservationRepository.findCheckInCandidates(Set.of(10L, 11L, 12L))).thenReturn(List.of(
+                new Object[]{10L, Reservation.ReservationStatus.PAID, 1L, 200L, "Sarasavi", "A1", "CIBF 2026"},
+                new Object[]{11L, Reservation.ReservationStatus.PAID, 1L, 201L, "Godage", "A2", "CIBF 2026"},
+                new Object[]{12L, Reservation.ReservationStatus.PENDING_PAYMENT, 1L, 202L, "Vijitha", "A3", "CIBF 2026"}));
+        when(checkInLogRepository.findCheckedInAmong(Set.of(10L, 11L, 12L))).thenReturn(List.of());
+        when(gateService.tryClaim(10L)).thenReturn(true);
+        when(gateService.tryClaim(11L)).thenReturn(true);
+        when(checkInBatchRepository.insertAll(anyList())).thenReturn(new boolean[]{true, true});
+
+        BulkCheckInResponse response = ingestService.ingestScans(1L, List.of("RES-10", token, "12", "RES-404", "RES-10"), "gate1");
+
+        assertThat(response.getResults()).extracting(ScanResult::getOutcome).containsExactly(
+                CheckInIngestService.ADMITTED, CheckInIngestService.ADMITTED, CheckInIngestService.REJECTED,
+                CheckInIngestService.NOT_FOUND, CheckInIngestService.DUPLICATE);
+        assertThat(response.getResults()).extracting(ScanResult::getReservationId).containsExactly(10L, 11L, 12L, null, 10L);
+        assertThat(ingestService.stats()).containsEntry("admitted", 2L).containsEntry("scans", 5L);
+    }
+
+    @Test
+    void syncOffline_ShouldRejectScansBeforeTheEventOrInTheFuture() {
+        String paid = ticketTokenService.issue(10L, 1L, 100L, null, LocalDateTime.now().plusDays(1));
+
+        BulkCheckInResponse response = ingestService.syncOffline(1L, List.of(
+                scan(paid, LocalDateTime.now().minusDays(2)), scan(paid, LocalDateTime.now().plusHours(1))), "gate1");
+
+        assertThat(response.getResults()).allSatisfy(result -> {
+            assertThat(result.getOutcome()).isEqualTo(CheckInIngestService.INVALID);
+            assertThat(result.getMessage()).isEqualTo("Scan time outside the accepted window");
+        });
+        verify(checkInBatchRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void syncOffline_ShouldRejectScansOlderThanTheGatesPreviousSync() {
+        ingestService = newService(0);
+        String paid = ticketTokenService.issue(10L, 1L, 100L, null, LocalDateTime.now().plusDays(1));
+        ingestService.syncOffline(1L, List.of(), "gate1");
+
+        BulkCheckInResponse response = ingestService.syncOffline(1L, List.of(
+                scan(paid, LocalDateTime.now().minusMinutes(30))), "gate1");
+
+        assertThat(response.getResults()).singleElement()
+                .extracting(ScanResult::getOutcome).isEqualTo(CheckInIngestService.INVALID);
+        verify(checkInBatchRepository, never()).insertAll(anyList());
+    }
+
+    private CheckInIngestService newService(long clockSkewMinutes) {
+        return new CheckInIngestService(reservationRepository, checkInLogRepository, checkInBatchRepository,
+                userRepository, gateService, ticketTokenService, new TransactionTemplate(transactionManager), dashboardCounters,
+                notificationInbox, eventRepository, clockSkewMinutes);
+    }
+
+    private static OfflineScanSyncRequest.Scan scan(String token, LocalDateTime scannedAt) {
+        OfflineScanSyncRequest.Scan scan = new OfflineScanSyncRequest.Scan();
+        scan.setToken(token);
+        scan.setScannedAt(scannedAt);
+        return scan;
+    }
+}
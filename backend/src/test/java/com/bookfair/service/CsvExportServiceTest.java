@@ -0,0 +1,75 @@
+package com.bookfair.service;
+
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CsvExportServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private CheckInLogRepository checkInLogRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CsvExportService csvExportService;
+
+    @BeforeEach
+    void setUp() {
+        csvExportService = new CsvExportService(reservationRepository, checkInLogRepository,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void writeReservations_ShouldStreamEscapedRows() throws Exception {
+        when(reservationRepository.streamExportRows()).thenReturn(Stream.of(
+                new Object[]{1L, "sarasavi", "a@b.lk", "RES-1", "PAID", 150000L, null},
+                new Object[]{2L, "Godage, Bros", "c@d.lk", "RES-2", "PENDING_PAYMENT", 0L, null}));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csvExportService.writeReservations(out, false);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "ID,Vendor,Email,QRCode,Status,TotalLKR,CreatedAt\n"
+                        + "1,sarasavi,a@b.lk,RES-1,PAID,150000,\n"
+                        + "2,\"Godage, Bros\",c@d.lk,RES-2,PENDING_PAYMENT,0,\n");
+    }
+
+    @Test
+    void writeAttendance_ShouldGzip_WhenRequested() throws Exception {
+        when(checkInLogRepository.streamExportRows()).thenReturn(Stream.<Object[]>of(
+                new Object[]{7L, null, 3L, "A1", "vendor", "gate1", "N/A"}));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csvExportService.writeAttendance(out, true);
+
+        byte[] csv = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        assertThat(new String(csv, StandardCharsets.UTF_8)).isEqualTo(
+                "LogID,Timestamp,ReservationID,Stall,Vendor,Employee,OverrideReason\n"
+                        + "7,,3,A1,vendor,gate1,N/A\n");
+    }
+
+    @Test
+    void acceptsGzip_ShouldReadAcceptEncodingHeader() {
+        assertThat(CsvExportService.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(CsvExportService.acceptsGzip("identity")).isFalse();
+        assertThat(CsvExportService.acceptsGzip(null)).isFalse();
+    }
+}
@@ -0,0 +1,101 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.response.AdminDashboardStats;
+import com.bookfair.dto.response.DashboardStats;
+import com.bookfair.entity.Reservation;
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.EventStallRepository;
+import com.bookfair.repository.ReservationRepository;
+import com.bookfair.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DashboardCountersTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private CheckInLogRepository checkInLogRepository;
+    @Mock
+    private EventStallRepository eventStallRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private DashboardCounters dashboardCounters;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.count()).thenReturn(40L);
+        when(reservationRepository.countByEventAndStatus()).thenReturn(List.of(
+                new Object[]{1L, Reservation.ReservationStatus.PAID, 3L, 300_000L},
+                new Object[]{1L, Reservation.ReservationStatus.PENDING_PAYMENT, 1L, 100_000L},
+                new Object[]{1L, Reservation.ReservationStatus.CANCELLED, 2L, 200_000L},
+                new Object[]{2L, Reservation.ReservationStatus.PAID, 1L, 50_000L}));
+        when(reservationRepository.countActiveHoldsByEventAndVendor()).thenReturn(List.of(
+                new Object[]{1L, 100L, 3L},
+                new Object[]{1L, 101L, 1L},
+                new Object[]{2L, 100L, 1L}));
+        when(checkInLogRepository.countCheckedInByEvent()).thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+        when(eventStallRepository.countByEvent()).thenReturn(List.of(new Object[]{1L, 10L}, new Object[]{2L, 10L}));
+    }
+
+    @Test
+    void stats_ShouldLoadOnce_AndServeFromMemory() {
+        DashboardStats employee = dashboardCounters.employeeStats();
+        DashboardStats event = dashboardCounters.employeeStats(1L);
+        AdminDashboardStats admin = dashboardCounters.adminStats();
+
+        assertThat(employee.getTotalStalls()).isEqualTo(20L);
+        assertThat(employee.getReservedStalls()).isEqualTo(5L);
+        assertThat(employee.getAvailableStalls()).isEqualTo(15L);
+        assertThat(employee.getTotalReservations()).isEqualTo(7L);
+        assertThat(employee.getTotalUsers()).isEqualTo(40L);
+        assertThat(event.getReservedStalls()).isEqualTo(4L);
+        assertThat(event.getCheckedInCount()).isEqualTo(2L);
+        assertThat(admin.getTotalRevenueLkr()).isEqualTo(350_000L);
+        assertThat(admin.getActiveVendors()).isEqualTo(2.0);
+        assertThat(admin.getFillRate()).isEqualTo(25.0);
+        verify(reservationRepository, times(1)).countByEventAndStatus();
+    }
+
+    @Test
+    void onReservationTransition_ShouldMoveCountersBetweenStatuses() {
+        dashboardCounters.reconcile();
+
+        dashboardCounters.onReservationTransition(transition(200L, 102L, null, Reservation.ReservationStatus.PENDING_PAYMENT));
+        dashboardCounters.onReservationTransition(transition(200L, 102L, Reservation.ReservationStatus.PENDING_PAYMENT, Reservation.ReservationStatus.PAID));
+        // Vendor 101's only hold expires, so it stops counting as active
+        dashboardCounters.onReservationTransition(transition(201L, 101L, Reservation.ReservationStatus.PENDING_PAYMENT, Reservation.ReservationStatus.EXPIRED));
+        dashboardCounters.recordCheckIns(1L, 1);
+
+        AdminDashboardStats admin = dashboardCounters.adminStats();
+        DashboardStats event = dashboardCounters.employeeStats(1L);
+        assertThat(admin.getTotalReservations()).isEqualTo(5L);
+        assertThat(admin.getTotalRevenueLkr()).isEqualTo(450_000L);
+        assertThat(admin.getActiveVendors()).isEqualTo(2.0);
+        assertThat(event.getTotalReservations()).isEqualTo(7L);
+        assertThat(event.getReservedStalls()).isEqualTo(4L);
+        assertThat(event.getCheckedInCount()).isEqualTo(3L);
+    }
+
+    private static ReservationTransitionEvent transition(Long reservationId, Long userId,
+                                                         Reservation.ReservationStatus from, Reservation.ReservationStatus to) {
+        return ReservationTransitionEvent.builder()
+                .reservationId(reservationId).eventId(1L).userId(userId).priceCents(100_000L)
+                .previousStatus(from).status(to).build();
+    }
+}
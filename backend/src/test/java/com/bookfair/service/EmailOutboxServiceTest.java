@@ -0,0 +1,133 @@
+package com.bookfair.service;
+
+import com.bookfair.entity.EmailOutbox;
+import com.bookfair.entity.Reservation;
+import com.bookfair.repository.EmailOutboxRepository;
+import com.bookfair.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxServiceTest {
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EmailOutboxService outboxService;
+    private EmailOutbox row;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new EmailOutboxService(outboxRepository, reservationRepository, emailService,
+                transactionTemplate, 50, 3, 30, 5, 1);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        Reservation reservation = new Reservation();
+        reservation.setId(7L);
+        row = EmailOutbox.builder()
+                .id(1L)
+                .reservation(reservation)
+                .recipient("vendor@example.com")
+                .type(EmailOutbox.EmailType.RESERVATION_CONFIRMATION)
+                .status(EmailOutbox.Status.SENDING)
+                .claimToken("claim-1")
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        lenient().when(outboxRepository.findById(1L)).thenReturn(Optional.of(row));
+        // Behaves like the conditional UPDATE: only the current claim on a SENDING row wins
+        lenient().when(outboxRepository.startSending(eq(1L), anyString(), any())).thenAnswer(inv ->
+                row.getStatus() == EmailOutbox.Status.SENDING && inv.getArgument(1).equals(row.getClaimToken()) ? 1 : 0);
+        lenient().when(reservationRepository.findByIdWithDetails(7L)).thenReturn(Optional.of(reservation));
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxService.shutdown();
+    }
+
+    @Test
+    void deliver_ShouldMarkSentAndFlagReservation_OnSuccess() {
+        outboxService.deliver(1L, "claim-1");
+
+        assertThat(row.getStatus()).isEqualTo(EmailOutbox.Status.SENT);
+        assertThat(row.getSentAt()).isNotNull();
+        verify(reservationRepository).markEmailSent(7L);
+    }
+
+    @Test
+    void deliver_ShouldBackOff_OnFailure() {
+        doThrow(new RuntimeException("SMTP down")).when(emailService).sendConfirmation(anyString(), anyList());
+
+        outboxService.deliver(1L, "claim-1");
+
+        assertThat(row.getStatus()).isEqualTo(EmailOutbox.Status.PENDING);
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(25));
+        assertThat(row.getLastError()).isEqualTo("SMTP down");
+        verify(reservationRepository, never()).markEmailSent(any());
+    }
+
+    @Test
+    void deliver_ShouldDeadLetter_AfterMaxAttempts() {
+        row.setAttempts(2);
+        doThrow(new RuntimeException("SMTP down")).when(emailService).sendConfirmation(anyString(), anyList());
+
+        outboxService.deliver(1L, "claim-1");
+
+        assertThat(row.getStatus()).isEqualTo(EmailOutbox.Status.DEAD);
+        assertThat(row.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void deliver_ShouldSkipRowsNotClaimed() {
+        row.setStatus(EmailOutbox.Status.SENT);
+
+        outboxService.deliver(1L, "claim-1");
+
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void claimBatch_ShouldCountExpiredLease_AndSendOnlyUnderTheNewClaim() {
+        row.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        when(outboxRepository.lockDue(any(), eq(50))).thenReturn(List.of(row));
+
+        Map<Long, String> claimed = outboxService.claimBatch();
+
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(claimed).containsOnlyKeys(1L).doesNotContainValue("claim-1");
+        // The first claim's worker finally reaches the row: its token is stale
+        outboxService.deliver(1L, "claim-1");
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void claimBatch_ShouldDeadLetter_WhenLeasesKeepExpiring() {
+        row.setAttempts(2);
+        when(outboxRepository.lockDue(any(), eq(50))).thenReturn(List.of(row));
+
+        assertThat(outboxService.claimBatch()).isEmpty();
+        assertThat(row.getStatus()).isEqualTo(EmailOutbox.Status.DEAD);
+    }
+}
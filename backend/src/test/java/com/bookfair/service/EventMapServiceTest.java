@@ -0,0 +1,105 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.EventLayoutChangedEvent;
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.entity.Event;
+import com.bookfair.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventMapServiceTest {
+
+    @Mock
+    private EventService eventService;
+    @Mock
+    private StallService stallService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EventMapService eventMapService;
+
+    @BeforeEach
+    void setUp() {
+        eventMapService = new EventMapService(eventService, stallService, new StallChangeFeed(16, event -> { }), new ObjectMapper(), transactionTemplate);
+
+        Event event = new Event();
+        event.setId(1L);
+        event.setName("Book Fair");
+        lenient().when(eventService.existsById(1L)).thenReturn(true);
+        lenient().when(eventService.getEventById(1L)).thenReturn(event);
+        lenient().when(stallService.getByEventId(1L)).thenReturn(List.of());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void getSnapshot_ShouldServeCachedBytesUntilInvalidated() {
+        EventMapService.Snapshot first = eventMapService.getSnapshot(1L);
+        EventMapService.Snapshot second = eventMapService.getSnapshot(1L);
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.getBody())).contains("\"eventName\":\"Book Fair\"");
+        verify(stallService, times(1)).getByEventId(1L);
+    }
+
+    @Test
+    void getSnapshot_ShouldRebuildWithNewEtagAfterReservationTransition() {
+        EventMapService.Snapshot before = eventMapService.getSnapshot(1L);
+
+        eventMapService.onReservationTransition(ReservationTransitionEvent.builder().reservationId(5L).eventId(1L).eventStallId(7L).build());
+        EventMapService.Snapshot after = eventMapService.getSnapshot(1L);
+
+        assertThat(after.getEtag()).isNotEqualTo(before.getEtag());
+        assertThat(before.matches(after.getEtag())).isFalse();
+        verify(stallService, times(2)).getByEventId(1L);
+    }
+
+    @Test
+    void getSnapshot_ShouldRebuildAfterUnscopedLayoutChange() {
+        EventMapService.Snapshot before = eventMapService.getSnapshot(1L);
+
+        eventMapService.onLayoutChanged(EventLayoutChangedEvent.allEvents());
+
+        assertThat(eventMapService.getSnapshot(1L).getEtag()).isNotEqualTo(before.getEtag());
+    }
+
+    @Test
+    void getSnapshot_ShouldRejectUnknownEventWithoutBuilding() {
+        when(eventService.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> eventMapService.getSnapshot(99L)).isInstanceOf(ResourceNotFoundException.class);
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void getSnapshot_ShouldStopServingDeletedEvent() {
+        eventMapService.getSnapshot(1L);
+
+        eventMapService.onLayoutChanged(EventLayoutChangedEvent.deleted(1L));
+        when(eventService.existsById(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> eventMapService.getSnapshot(1L)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void matches_ShouldHonourWeakAndListedValidators() {
+        EventMapService.Snapshot snapshot = eventMapService.getSnapshot(1L);
+
+        assertThat(snapshot.matches("\"other\", W/" + snapshot.getEtag())).isTrue();
+        assertThat(snapshot.matches("*")).isTrue();
+        assertThat(snapshot.matches(null)).isFalse();
+    }
+}
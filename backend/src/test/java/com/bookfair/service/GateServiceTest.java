@@ -0,0 +1,183 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.response.QrVerificationResponse;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import com.bookfair.exception.ConflictException;
+import com.bookfair.repository.CheckInBatchRepository;
+import com.bookfair.repository.CheckInBatchRepository.CheckInRow;
+import com.bookfair.repository.CheckInLogRepository;
+import com.bookfair.repository.EventRepository;
+import com.bookfair.repository.ReservationRepository;
+import com.bookfair.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class GateServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private CheckInLogRepository checkInLogRepository;
+    @Mock
+    private CheckInBatchRepository checkInBatchRepository;
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private DashboardCounters dashboardCounters;
+    @Mock
+    private NotificationInbox notificationInbox;
+
+    private GateService gateService;
+
+    @BeforeEach
+    void setUp() {
+        gateService = new GateService(reservationRepository, checkInLogRepository, checkInBatchRepository,
+                eventRepository, userRepository, new TransactionTemplate(transactionManager), dashboardCounters, notificationInbox, 2);
+        when(eventRepository.existsById(1L)).thenReturn(true);
+        when(reservationRepository.findGateAdmissions(1L)).thenReturn(List.of(
+                new Object[]{10L, "RES-10", 100L, "Sarasavi", "A1", "CIBF 2026"},
+                new Object[]{11L, "RES-11", 101L, "Godage", null, "CIBF 2026"}));
+        when(checkInLogRepository.findCheckedInReservationIdsByEventId(1L)).thenReturn(List.of(11L));
+        gateService.openGate(1L);
+    }
+
+    @Test
+    void lookup_ShouldAnswerFromMemory() {
+        QrVerificationResponse ready = gateService.lookup("RES-10").orElseThrow();
+        QrVerificationResponse done = gateService.lookup("11").orElseThrow();
+
+        assertThat(ready.isValid()).isTrue();
+        assertThat(ready.getStallName()).isEqualTo("A1");
+        assertThat(done.isValid()).isFalse();
+        assertThat(done.getMessage()).isEqualTo("Already checked in");
+        assertThat(gateService.lookup("RES-99")).isEmpty();
+    }
+
+    @Test
+    void admit_ShouldAdmitOnce_AndBatchTheWrites() {
+        User employee = new User();
+        employee.setId(7L);
+        when(userRepository.findByUsername("gate1")).thenReturn(Optional.of(employee));
+
+        assertThat(gateService.admit(10L, "gate1")).isPresent();
+        assertThatThrownBy(() -> gateService.admit(10L, "gate1")).isInstanceOf(ConflictException.class);
+        assertThat(gateService.admit(99L, "gate1")).isEmpty();
+        verify(checkInBatchRepository, never()).insertAll(anyList());
+
+        when(checkInBatchRepository.insertAll(anyList())).thenReturn(new boolean[]{true});
+        gateService.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CheckInRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(checkInBatchRepository).insertAll(rows.capture());
+        assertThat(rows.getValue()).singleElement().satisfies(row -> {
+            assertThat(row.getReservationId()).isEqualTo(10L);
+            assertThat(row.getEmployeeId()).isEqualTo(7L);
+            assertThat(row.getVendorUserId()).isEqualTo(100L);
+            assertThat(row.getNotificationMessage()).contains("CIBF 2026", "A1");
+        });
+        verify(userRepository, times(1)).findByUsername("gate1");
+        verify(dashboardCounters).recordCheckIns(1L, 1);
+        verify(notificationInbox).adjust(100L, 1);
+    }
+
+    @Test
+    void tryClaim_ShouldBlockMemoryAdmission_ForTicketsCheckedInThroughTheDatabase() {
+        assertThat(gateService.tryClaim(10L)).isTrue();
+        assertThat(gateService.tryClaim(10L)).isFalse();
+        assertThat(gateService.tryClaim(99L)).isTrue();
+        assertThat(gateService.lookup("RES-10").orElseThrow().isValid()).isFalse();
+    }
+
+    @Test
+    void onReservationTransition_ShouldDropCancelledTickets() {
+        Reservation.ReservationStatus paid = Reservation.ReservationStatus.PAID;
+        gateService.onReservationTransition(ReservationTransitionEvent.builder()
+                .reservationId(10L).eventId(1L).previousStatus(paid).status(Reservation.ReservationStatus.CANCELLED).build());
+
+        assertThat(gateService.lookup("RES-10")).isEmpty();
+        assertThat(gateService.gateStatus(1L)).containsEntry("admissions", 1);
+    }
+
+    @Test
+    void openGate_ShouldLoadCheckedInTickets_BeforeAdmissionsBecomeVisible() {
+        when(checkInLogRepository.findCheckedInReservationIdsByEventId(1L)).thenAnswer(inv -> {
+            assertThat(gateService.lookup("RES-11")).isEmpty();
+            return List.of(11L);
+        });
+
+        gateService.openGate(1L);
+
+        assertThat(gateService.lookup("RES-11").orElseThrow().isValid()).isFalse();
+    }
+
+    @Test
+    void flush_ShouldDeadLetterRowThatFailsOnItsOwn_AndWriteTheRest() {
+        admitTwo();
+        when(checkInBatchRepository.insertAll(anyList())).thenAnswer(inv -> {
+            List<CheckInRow> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getReservationId() == 12L)) {
+                throw new DataIntegrityViolationException("check_in_logs_employee_id_fkey");
+            }
+            return new boolean[]{true};
+        });
+
+        gateService.flush();
+        gateService.flush();
+
+        // The batch, then each row on its own; nothing is left to retry
+        verify(checkInBatchRepository, times(3)).insertAll(anyList());
+        verify(dashboardCounters).recordCheckIns(1L, 1);
+        assertThat(gateService.stats()).containsEntry("pendingWrites", 0).containsEntry("deadLettered", 1L);
+    }
+
+    @Test
+    void flush_ShouldRequeueWholeBatch_OnTransientFailure() {
+        admitTwo();
+        when(checkInBatchRepository.insertAll(anyList())).thenThrow(new QueryTimeoutException("lock timeout"));
+
+        gateService.flush();
+
+        verify(checkInBatchRepository, times(1)).insertAll(anyList());
+        assertThat(gateService.stats()).containsEntry("pendingWrites", 2).containsEntry("deadLettered", 0L);
+    }
+
+    private void admitTwo() {
+        when(reservationRepository.findGateAdmissions(1L)).thenReturn(List.of(
+                new Object[]{10L, "RES-10", 100L, "Sarasavi", "A1", "CIBF 2026"},
+                new Object[]{12L, "RES-12", 102L, "Vijitha", "B4", "CIBF 2026"}));
+        when(checkInLogRepository.findCheckedInReservationIdsByEventId(1L)).thenReturn(List.of());
+        gateService.openGate(1L);
+        User employee = new User();
+        employee.setId(7L);
+        when(userRepository.findByUsername("gate1")).thenReturn(Optional.of(employee));
+        gateService.admit(10L, "gate1");
+        gateService.admit(12L, "gate1");
+    }
+}
@@ -0,0 +1,106 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.entity.Event;
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import com.bookfair.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldExpiryServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private HoldExpiryService holdExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        holdExpiryService = new HoldExpiryService(reservationRepository, eventPublisher, transactionTemplate, 15, 15, 100);
+    }
+
+    @Test
+    void sweep_ShouldExpireDueHoldsAndPublishRelease() {
+        Reservation hold = pendingHold(1L, LocalDateTime.now().minusMinutes(1));
+        holdExpiryService.onReservationTransition(ReservationTransitionEvent.of(hold, null));
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(reservationRepository.expireDueHolds(eq(List.of(1L)), any())).thenReturn(List.of(1L));
+        hold.setStatus(Reservation.ReservationStatus.EXPIRED); // as reloaded after the conditional update
+        when(reservationRepository.findWithDetailsByIdIn(List.of(1L))).thenReturn(List.of(hold));
+
+        holdExpiryService.sweep();
+
+        ArgumentCaptor<ReservationTransitionEvent> published = ArgumentCaptor.forClass(ReservationTransitionEvent.class);
+        verify(eventPublisher).publishEvent(published.capture());
+        assertThat(published.getValue().isAvailabilityChange()).isTrue();
+        assertThat(holdExpiryService.pendingCount()).isZero();
+        verify(reservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void sweep_ShouldRequeueHoldExtendedAfterItWasDrained() {
+        Reservation hold = pendingHold(3L, LocalDateTime.now().minusMinutes(1));
+        holdExpiryService.onReservationTransition(ReservationTransitionEvent.of(hold, null));
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Checkout pushed the deadline out, so the conditional update leaves the row alone
+        when(reservationRepository.expireDueHolds(eq(List.of(3L)), any())).thenReturn(List.of());
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(15));
+        when(reservationRepository.findPendingByIdIn(List.of(3L))).thenReturn(List.of(hold));
+
+        holdExpiryService.sweep();
+
+        verifyNoInteractions(eventPublisher);
+        verify(reservationRepository, never()).findWithDetailsByIdIn(any());
+        assertThat(holdExpiryService.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sweep_ShouldLeaveHoldsThatAreNotDue() {
+        Reservation hold = pendingHold(2L, LocalDateTime.now().plusMinutes(10));
+        holdExpiryService.onReservationTransition(ReservationTransitionEvent.of(hold, null));
+
+        holdExpiryService.sweep();
+
+        verifyNoInteractions(reservationRepository);
+        assertThat(holdExpiryService.pendingCount()).isEqualTo(1);
+    }
+
+    private static Reservation pendingHold(Long id, LocalDateTime expiresAt) {
+        Event event = new Event();
+        event.setId(1L);
+        EventStall stall = new EventStall();
+        stall.setId(10L);
+        stall.setEvent(event);
+        User user = new User();
+        user.setId(5L);
+        return Reservation.builder()
+                .id(id)
+                .user(user)
+                .eventStall(stall)
+                .status(Reservation.ReservationStatus.PENDING_PAYMENT)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.UnreadCountChangedEvent;
+import com.bookfair.repository.NotificationRepository;
+import com.bookfair.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationInboxTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    private NotificationInbox inbox;
+
+    @BeforeEach
+    void setUp() {
+        inbox = new NotificationInbox(notificationRepository, userRepository, 300_000, 25_000, 10);
+        when(notificationRepository.countByRecipientIdAndIsReadFalse(5L)).thenReturn(3L);
+    }
+
+    @Test
+    void unreadCount_ShouldLoadOnce_AndFollowEvents() {
+        assertThat(inbox.unreadCount(5L)).isEqualTo(3L);
+        inbox.onUnreadCountChanged(new UnreadCountChangedEvent(5L, 1));
+        inbox.onUnreadCountChanged(new UnreadCountChangedEvent(5L, -1));
+        inbox.adjust(5L, 1);
+
+        assertThat(inbox.unreadCount(5L)).isEqualTo(4L);
+        verify(notificationRepository, times(1)).countByRecipientIdAndIsReadFalse(5L);
+    }
+
+    @Test
+    void awaitChange_ShouldAnswerAtOnce_WhenClientIsBehind() {
+        DeferredResult<Map<String, Long>> result = inbox.awaitChange(5L, 1L);
+
+        assertThat(result.getResult()).isEqualTo(Map.of("count", 3L));
+    }
+
+    @Test
+    void awaitChange_ShouldPark_UntilANotificationArrives() {
+        DeferredResult<Map<String, Long>> result = inbox.awaitChange(5L, 3L);
+        assertThat(result.hasResult()).isFalse();
+        assertThat(inbox.stats()).containsEntry("waiting", 1);
+
+        inbox.onUnreadCountChanged(new UnreadCountChangedEvent(5L, 1));
+
+        assertThat(result.getResult()).isEqualTo(Map.of("count", 4L));
+        assertThat(inbox.stats()).containsEntry("wakeups", 1L);
+    }
+}
@@ -0,0 +1,179 @@
+package com.bookfair.service;
+
+import com.bookfair.entity.Event;
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import com.bookfair.exception.BadRequestException;
+import com.bookfair.exception.ConflictException;
+import com.bookfair.repository.ReservationRepository;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.RefundCreateParams;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private ReservationService reservationService;
+    @Mock
+    private HoldExpiryService holdExpiryService;
+
+    @InjectMocks
+    private PaymentService paymentService;
+
+    @Test
+    void createPaymentIntent_ShouldRejectExpiredHold() {
+        Reservation hold = hold(Reservation.ReservationStatus.PENDING_PAYMENT, LocalDateTime.now().minusMinutes(1));
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(hold));
+
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(1L)).isInstanceOf(BadRequestException.class);
+
+        hold.setStatus(Reservation.ReservationStatus.EXPIRED);
+        assertThatThrownBy(() -> paymentService.createPaymentIntent(1L)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void createPaymentIntent_ShouldRecordIntentAndExtendDeadline() {
+        LocalDateTime extended = LocalDateTime.now().plusMinutes(15);
+        Reservation hold = hold(Reservation.ReservationStatus.PENDING_PAYMENT, LocalDateTime.now().plusMinutes(1));
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(hold));
+        when(holdExpiryService.paymentDeadline(any())).thenReturn(extended);
+        when(reservationRepository.startCheckout(1L, "pi_1", extended)).thenReturn(1);
+        PaymentIntent intent = mock(PaymentIntent.class);
+        when(intent.getId()).thenReturn("pi_1");
+        when(intent.getClientSecret()).thenReturn("secret");
+
+        try (MockedStatic<PaymentIntent> stripe = mockStatic(PaymentIntent.class)) {
+            stripe.when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class))).thenReturn(intent);
+
+            assertThat(paymentService.createPaymentIntent(1L)).isEqualTo("secret");
+        }
+        assertThat(hold.getPaymentId()).isEqualTo("pi_1");
+        assertThat(hold.getExpiresAt()).isEqualTo(extended);
+    }
+
+    @Test
+    void createPaymentIntent_ShouldExtendDeadline_WhenReusingIntentInFlight() {
+        LocalDateTime extended = LocalDateTime.now().plusMinutes(15);
+        Reservation hold = hold(Reservation.ReservationStatus.PENDING_PAYMENT, LocalDateTime.now().plusMinutes(1));
+        hold.setPaymentId("pi_1");
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(hold));
+        when(holdExpiryService.paymentDeadline(any())).thenReturn(extended);
+        when(reservationRepository.startCheckout(1L, "pi_1", extended)).thenReturn(1);
+        PaymentIntent intent = mock(PaymentIntent.class);
+        when(intent.getId()).thenReturn("pi_1");
+        when(intent.getStatus()).thenReturn("requires_payment_method");
+        when(intent.getClientSecret()).thenReturn("secret");
+
+        try (MockedStatic<PaymentIntent> stripe = mockStatic(PaymentIntent.class)) {
+            stripe.when(() -> PaymentIntent.retrieve("pi_1")).thenReturn(intent);
+
+            assertThat(paymentService.createPaymentIntent(1L)).isEqualTo("secret");
+
+            stripe.verify(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)), never());
+        }
+        assertThat(hold.getExpiresAt()).isEqualTo(extended);
+    }
+
+    @Test
+    void createPaymentIntent_ShouldReject_WhenHoldExpiresDuringCheckout() {
+        Reservation hold = hold(Reservation.ReservationStatus.PENDING_PAYMENT, LocalDateTime.now().plusMinutes(1));
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(hold));
+        when(reservationRepository.startCheckout(eq(1L), eq("pi_1"), any())).thenReturn(0);
+        PaymentIntent intent = mock(PaymentIntent.class);
+        when(intent.getId()).thenReturn("pi_1");
+
+        try (MockedStatic<PaymentIntent> stripe = mockStatic(PaymentIntent.class)) {
+            stripe.when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class))).thenReturn(intent);
+
+            assertThatThrownBy(() -> paymentService.createPaymentIntent(1L)).isInstanceOf(BadRequestException.class);
+        }
+        assertThat(hold.getPaymentId()).isNull();
+    }
+
+    @Test
+    void confirmPayment_ShouldRefund_WhenHoldExpiredBeforePaymentLanded() {
+        Reservation hold = hold(Reservation.ReservationStatus.PENDING_PAYMENT, LocalDateTime.now().minusMinutes(1));
+        hold.setPaymentId("pi_1");
+        hold.setStatus(Reservation.ReservationStatus.EXPIRED);
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(hold));
+        PaymentIntent intent = mock(PaymentIntent.class);
+        when(intent.getId()).thenReturn("pi_1");
+        when(intent.getStatus()).thenReturn("succeeded");
+        when(intent.getAmount()).thenReturn(1_000L);
+
+        try (MockedStatic<PaymentIntent> stripe = mockStatic(PaymentIntent.class);
+             MockedStatic<Refund> refunds = mockStatic(Refund.class)) {
+            stripe.when(() -> PaymentIntent.retrieve("pi_1")).thenReturn(intent);
+
+            assertThatThrownBy(() -> paymentService.confirmPayment(1L, "pi_1")).isInstanceOf(ConflictException.class);
+
+            refunds.verify(() -> Refund.create(any(RefundCreateParams.class), any(RequestOptions.class)));
+        }
+        verify(reservationService, never()).confirmPayment(any());
+        verify(reservationRepository).recordPaymentId(1L, "pi_1");
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void confirmPayment_ShouldRefund_WhenSweepExpiresHoldDuringConfirmation() {
+        Reservation hold = hold(Reservation.ReservationStatus.PENDING_PAYMENT, LocalDateTime.now().minusMinutes(1));
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(hold));
+        doThrow(new ConflictException("Reservation hold ended before payment could be confirmed"))
+                .when(reservationService).confirmPayment(1L);
+        PaymentIntent intent = mock(PaymentIntent.class);
+        when(intent.getId()).thenReturn("pi_1");
+        when(intent.getStatus()).thenReturn("succeeded");
+        when(intent.getAmount()).thenReturn(1_000L);
+
+        try (MockedStatic<PaymentIntent> stripe = mockStatic(PaymentIntent.class);
+             MockedStatic<Refund> refunds = mockStatic(Refund.class)) {
+            stripe.when(() -> PaymentIntent.retrieve("pi_1")).thenReturn(intent);
+
+            assertThatThrownBy(() -> paymentService.confirmPayment(1L, "pi_1"))
+                    .isInstanceOf(ConflictException.class)
+                    .hasMessageContaining("refunded");
+
+            refunds.verify(() -> Refund.create(any(RefundCreateParams.class), any(RequestOptions.class)));
+        }
+        verify(reservationRepository).recordPaymentId(1L, "pi_1");
+    }
+
+    private static Reservation hold(Reservation.ReservationStatus status, LocalDateTime expiresAt) {
+        Event event = new Event();
+        event.setId(1L);
+        EventStall stall = new EventStall();
+        stall.setId(10L);
+        stall.setEvent(event);
+        stall.setFinalPriceCents(300_000L);
+        User vendor = new User();
+        vendor.setId(5L);
+        return Reservation.builder()
+                .id(1L)
+                .user(vendor)
+                .eventStall(stall)
+                .status(status)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookfair.service;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QrServiceTest {
+
+    @Test
+    void generateQrCode_ShouldProduceDecodablePng() throws Exception {
+        QrService qrService = new QrService(1 << 20);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(qrService.generateQrCode("RES-42")));
+
+        assertThat(image.getWidth()).isEqualTo(200);
+        assertThat(image.getHeight()).isEqualTo(200);
+        String decoded = new MultiFormatReader()
+                .decode(new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image))))
+                .getText();
+        assertThat(decoded).isEqualTo("RES-42");
+    }
+
+    @Test
+    void generateQrCode_ShouldServeRepeatsFromCache() {
+        QrService qrService = new QrService(1 << 20);
+
+        byte[] first = qrService.generateQrCode("RES-42");
+        byte[] second = qrService.generateQrCode("RES-42");
+
+        assertThat(second).isSameAs(first);
+        assertThat(qrService.cacheStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void generateQrCode_ShouldEvictLeastRecentlyUsed_WhenOverByteBudget() {
+        int pngSize = new QrService(0).generateQrCode("RES-1").length;
+        QrService qrService = new QrService(pngSize * 2L + pngSize / 2);
+
+        byte[] first = qrService.generateQrCode("RES-1");
+        qrService.generateQrCode("RES-2");
+        qrService.generateQrCode("RES-3");
+
+        assertThat((Long) qrService.cacheStats().get("bytes")).isLessThanOrEqualTo(pngSize * 2L + pngSize / 2);
+        assertThat(qrService.generateQrCode("RES-1")).isNotSameAs(first);
+    }
+
+    @Test
+    void renderUncached_ShouldLeaveCacheUntouched() {
+        QrService qrService = new QrService(1 << 20);
+        byte[] cached = qrService.generateQrCode("RES-42");
+
+        assertThat(qrService.renderUncached("RES-42")).isEqualTo(cached).isNotSameAs(cached);
+        qrService.renderUncached("RES-43");
+
+        assertThat(qrService.cacheStats()).containsEntry("entries", 1).containsEntry("hits", 0L).containsEntry("misses", 1L);
+    }
+}
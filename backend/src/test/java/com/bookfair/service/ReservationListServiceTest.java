@@ -0,0 +1,134 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.CursorPage;
+import com.bookfair.dto.response.ReservationResponse;
+import com.bookfair.entity.HallTier;
+import com.bookfair.entity.PublisherCategory;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.StallSize;
+import com.bookfair.entity.User;
+import com.bookfair.exception.BadRequestException;
+import com.bookfair.repository.ReservationListView;
+import com.bookfair.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationListServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @InjectMocks
+    private ReservationListService reservationListService;
+
+    @Test
+    void page_ShouldBuildResponsesFromProjectionRows() {
+        ReservationListView row = row(5L, LocalDateTime.now().minusMinutes(1));
+        lenient().when(row.getQrCode()).thenReturn("RES-5");
+        lenient().when(row.getStatus()).thenReturn(Reservation.ReservationStatus.PENDING_PAYMENT);
+        lenient().when(row.getExpiresAt()).thenReturn(LocalDateTime.now().plusMinutes(10));
+        lenient().when(row.getUsername()).thenReturn("sarasavi");
+        lenient().when(row.getRole()).thenReturn(User.Role.VENDOR);
+        lenient().when(row.getEventStallId()).thenReturn(9L);
+        lenient().when(row.getFinalPriceCents()).thenReturn(150000L);
+        lenient().when(row.getStallName()).thenReturn("A1");
+        lenient().when(row.getStallSize()).thenReturn(StallSize.MEDIUM);
+        lenient().when(row.getHallName()).thenReturn("Main Hall");
+        lenient().when(row.getHallTier()).thenReturn(HallTier.STANDARD);
+        lenient().when(row.getEventId()).thenReturn(1L);
+        lenient().when(row.getEventName()).thenReturn("CIBF 2026");
+        lenient().when(row.getVenueName()).thenReturn("BMICH");
+        when(reservationRepository.findListViews("", null, null, null, PageRequest.of(0, 51))).thenReturn(List.of(row));
+        when(reservationRepository.findCategoriesByUserIds(Set.of(2L))).thenReturn(List.<Object[]>of(
+                new Object[]{2L, PublisherCategory.values()[0]}));
+
+        CursorPage<ReservationResponse> page = reservationListService.page(null, null, null, null, null, 50);
+
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getContent()).hasSize(1);
+        ReservationResponse res = page.getContent().get(0);
+        assertThat(res.getStatus()).isEqualTo("PENDING_PAYMENT");
+        assertThat(res.getEmailSent()).isFalse();
+        assertThat(res.getTtlSeconds()).isPositive();
+        assertThat(res.getUser().getRole()).isEqualTo("VENDOR");
+        assertThat(res.getUser().getCategories()).containsExactly(PublisherCategory.values()[0].name());
+        assertThat(res.getStalls()).containsExactly("A1");
+        assertThat(res.getStallDetails().getHallTier()).isEqualTo("STANDARD");
+        assertThat(res.getTotalPriceCents()).isEqualTo(150000L);
+        assertThat(res.getEvent().getVenueName()).isEqualTo("BMICH");
+    }
+
+    @Test
+    void page_ShouldSeekPastCursor_AndReportNextOne() {
+        LocalDateTime t = LocalDateTime.of(2026, 3, 1, 10, 0, 0, 123_000_000);
+        ReservationListView newest = row(9L, t);
+        ReservationListView middle = row(8L, t);
+        ReservationListView extra = row(3L, t.minusSeconds(5));
+        when(reservationRepository.findListViews("%sara%", Reservation.ReservationStatus.PAID, null, null, PageRequest.of(0, 3)))
+                .thenReturn(List.of(newest, middle, extra));
+
+        CursorPage<ReservationResponse> first = reservationListService.page(" Sara ", Reservation.ReservationStatus.PAID, null, null, null, 2);
+
+        assertThat(first.getContent()).extracting(ReservationResponse::getId).containsExactly(9L, 8L);
+        assertThat(first.isHasMore()).isTrue();
+
+        when(reservationRepository.findListViewsAfter("%sara%", Reservation.ReservationStatus.PAID, null, null, t, 8L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(extra));
+
+        CursorPage<ReservationResponse> second = reservationListService.page("sara", Reservation.ReservationStatus.PAID, null, null, first.getNextCursor(), 2);
+
+        assertThat(second.getContent()).extracting(ReservationResponse::getId).containsExactly(3L);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void page_ShouldRejectTamperedCursor() {
+        assertThatThrownBy(() -> reservationListService.page("", null, null, null, "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void page_ShouldSkipCategoryQuery_WhenPageIsEmpty() {
+        when(reservationRepository.findListViews("", null, null, "nobody", PageRequest.of(0, 201))).thenReturn(List.of());
+
+        assertThat(reservationListService.page("", null, null, "nobody", null, 10_000).getContent()).isEmpty();
+        verify(reservationRepository, never()).findCategoriesByUserIds(anyCollection());
+    }
+
+    @Test
+    void page_ShouldTreatLikeWildcardsInQueryLiterally() {
+        when(reservationRepository.findListViews("%50\\%\\_off%", null, null, null, PageRequest.of(0, 11)))
+                .thenReturn(List.of());
+
+        assertThat(reservationListService.page("50%_off", null, null, null, null, 10).getContent()).isEmpty();
+    }
+
+    private static ReservationListView row(Long id, LocalDateTime createdAt) {
+        ReservationListView row = mock(ReservationListView.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getCreatedAt()).thenReturn(createdAt);
+        lenient().when(row.getStatus()).thenReturn(Reservation.ReservationStatus.PAID);
+        lenient().when(row.getUserId()).thenReturn(2L);
+        return row;
+    }
+}
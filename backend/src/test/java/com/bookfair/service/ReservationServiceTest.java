@@ -1,5 +1,121 @@
 package com.bookfair.service;
 
+import com.bookfair.dto.request.ReservationRequest;
+import com.bookfair.entity.Event;
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.User;
+import com.bookfair.exception.ConflictException;
+import com.bookfair.repository.EventStallRepository;
+import com.bookfair.repository.ReservationBatchRepository;
+import com.bookfair.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
 public class ReservationServiceTest {
-    
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private EventStallRepository eventStallRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private EmailOutboxService emailOutboxService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private StallClaimRegistry claimRegistry;
+    @Mock
+    private ReservationBatchRepository reservationBatchRepository;
+    @Mock
+    private StallAvailabilityIndex availabilityIndex;
+    @Mock
+    private HoldExpiryService holdExpiryService;
+
+    @InjectMocks
+    private ReservationService reservationService;
+
+    private User vendor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reservationService, "maxStallsPerPublisher", 3);
+
+        vendor = new User();
+        vendor.setId(5L);
+        when(userService.getByIdForServices(5L)).thenReturn(vendor);
+
+        Event event = new Event();
+        event.setId(1L);
+        event.setName("Book Fair");
+        EventStall first = new EventStall();
+        first.setId(10L);
+        first.setEvent(event);
+        EventStall second = new EventStall();
+        second.setId(11L);
+        second.setEvent(event);
+        when(eventStallRepository.findAllByIdWithEvent(List.of(10L, 11L))).thenReturn(List.of(first, second));
+    }
+
+    @Test
+    void createReservations_ShouldInsertAllStallsInOneBatch() {
+        when(reservationBatchRepository.nextIds(2)).thenReturn(List.of(100L, 101L));
+        when(holdExpiryService.newHoldDeadline()).thenReturn(LocalDateTime.now().plusMinutes(15));
+
+        List<Reservation> reservations = reservationService.createReservations(new ReservationRequest(5L, List.of(10L, 11L), 1L));
+
+        assertThat(reservations).extracting(Reservation::getQrCode).containsExactly("RES-100", "RES-101");
+        verify(claimRegistry).claimForTransaction(List.of(10L, 11L));
+        verify(reservationBatchRepository, times(1)).insertAll(anyList());
+        verify(reservationRepository, never()).save(any());
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void createReservations_ShouldRejectHeldStallBeforeInserting() {
+        when(availabilityIndex.occupantOf(eq(1L), anyLong()))
+                .thenAnswer(inv -> Long.valueOf(11L).equals(inv.getArgument(1))
+                        ? new StallAvailabilityIndex.Occupant("Other", null) : null);
+
+        assertThatThrownBy(() -> reservationService.createReservations(new ReservationRequest(5L, List.of(10L, 11L), 1L)))
+                .isInstanceOf(ConflictException.class);
+        verifyNoInteractions(reservationBatchRepository);
+    }
+
+    @Test
+    void createReservations_ShouldOnlyReportActiveStallViolationsAsConflicts() {
+        when(reservationBatchRepository.nextIds(2)).thenReturn(List.of(100L, 101L));
+        ReservationRequest request = new ReservationRequest(5L, List.of(10L, 11L), 1L);
+
+        doThrow(new DataIntegrityViolationException("Batch entry 1 was aborted",
+                new java.sql.BatchUpdateException("ERROR: duplicate key value violates unique constraint \"uq_reservations_active_stall\"", new int[0])))
+                .when(reservationBatchRepository).insertAll(anyList());
+        assertThatThrownBy(() -> reservationService.createReservations(request)).isInstanceOf(ConflictException.class);
+
+        doThrow(new DataIntegrityViolationException("ERROR: null value in column \"user_id\" violates not-null constraint"))
+                .when(reservationBatchRepository).insertAll(anyList());
+        assertThatThrownBy(() -> reservationService.createReservations(request)).isInstanceOf(DataIntegrityViolationException.class);
+    }
 }
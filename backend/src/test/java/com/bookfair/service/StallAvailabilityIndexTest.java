@@ -0,0 +1,96 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.EventLayoutChangedEvent;
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Reservation;
+import com.bookfair.entity.Reservation.ReservationStatus;
+import com.bookfair.entity.User;
+import com.bookfair.repository.EventStallRepository;
+import com.bookfair.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StallAvailabilityIndexTest {
+
+    @Mock
+    private EventStallRepository eventStallRepository;
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @InjectMocks
+    private StallAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        User vendor = new User();
+        vendor.setBusinessName("Books Ltd");
+        EventStall stall = new EventStall();
+        stall.setId(11L);
+        Reservation reservation = new Reservation();
+        reservation.setId(100L);
+        reservation.setUser(vendor);
+        reservation.setEventStall(stall);
+
+        when(eventStallRepository.findIdsByEventId(1L)).thenReturn(List.of(10L, 11L, 12L));
+        when(reservationRepository.findActiveByEventId(1L)).thenReturn(List.of(reservation));
+    }
+
+    @Test
+    void load_ShouldMarkStallsHeldByActiveReservations() {
+        assertThat(index.occupantOf(1L, 11L).getBusinessName()).isEqualTo("Books Ltd");
+        assertThat(index.occupantOf(1L, 10L)).isNull();
+        assertThat(index.availableStallIds(1L)).containsExactly(10L, 12L);
+        verify(reservationRepository, times(1)).findActiveByEventId(1L);
+    }
+
+    @Test
+    void onReservationTransition_ShouldHoldAndReleaseWithoutReloading() {
+        index.availableStallIds(1L);
+
+        index.onReservationTransition(transition(200L, 12L, null, ReservationStatus.PENDING_PAYMENT));
+        index.onReservationTransition(transition(100L, 11L, ReservationStatus.PAID, ReservationStatus.PENDING_REFUND));
+
+        assertThat(index.availableStallIds(1L)).containsExactly(10L, 11L);
+        assertThat(index.occupantOf(1L, 12L).getBusinessName()).isEqualTo("Other Books");
+        verify(reservationRepository, times(1)).findActiveByEventId(1L);
+    }
+
+    @Test
+    void onReservationTransition_ShouldIgnoreReleaseFromAnotherReservation() {
+        index.onReservationTransition(transition(999L, 11L, ReservationStatus.PENDING_PAYMENT, ReservationStatus.CANCELLED));
+
+        assertThat(index.occupantOf(1L, 11L)).isNotNull();
+    }
+
+    @Test
+    void onLayoutChanged_ShouldReloadEventOnNextLookup() {
+        index.availableStallIds(1L);
+
+        index.onLayoutChanged(new EventLayoutChangedEvent(1L));
+        index.availableStallIds(1L);
+
+        verify(eventStallRepository, times(2)).findIdsByEventId(1L);
+    }
+
+    private static ReservationTransitionEvent transition(Long reservationId, Long stallId, ReservationStatus from, ReservationStatus to) {
+        return ReservationTransitionEvent.builder()
+                .reservationId(reservationId)
+                .eventId(1L)
+                .eventStallId(stallId)
+                .occupiedBy("Other Books")
+                .previousStatus(from)
+                .status(to)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.response.StallChangeFeedResponse;
+import com.bookfair.entity.Reservation.ReservationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StallChangeFeedTest {
+
+    private StallChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new StallChangeFeed(4, event -> { });
+    }
+
+    @Test
+    void changesSince_ShouldReturnOnlyNewerAvailabilityChanges() {
+        long start = feed.latestSeq(1L);
+
+        feed.onReservationTransition(transition(10L, null, ReservationStatus.PENDING_PAYMENT));
+        // Payment confirmation keeps the stall held, so it is not an availability change
+        feed.onReservationTransition(transition(10L, ReservationStatus.PENDING_PAYMENT, ReservationStatus.PAID));
+        feed.onReservationTransition(transition(11L, ReservationStatus.PENDING_PAYMENT, ReservationStatus.CANCELLED));
+
+        StallChangeFeedResponse response = feed.changesSince(1L, start);
+
+        assertThat(response.isResync()).isFalse();
+        assertThat(response.getLatestSeq()).isEqualTo(start + 2);
+        assertThat(response.getChanges()).extracting(StallChangeFeedResponse.StallChange::getStallId).containsExactly(10L, 11L);
+        assertThat(response.getChanges().get(0).getOccupiedBy()).isEqualTo("Books Ltd");
+        assertThat(response.getChanges().get(1).getReserved()).isFalse();
+        assertThat(feed.changesSince(1L, start + 1).getChanges()).hasSize(1);
+    }
+
+    @Test
+    void changesSince_ShouldAskForResyncWhenCursorFellOutOfWindow() {
+        long start = feed.latestSeq(1L);
+        for (long stall = 1; stall <= 6; stall++) {
+            feed.onReservationTransition(transition(stall, null, ReservationStatus.PENDING_PAYMENT));
+        }
+
+        assertThat(feed.changesSince(1L, start).isResync()).isTrue();
+        assertThat(feed.changesSince(1L, start + 2).getChanges()).hasSize(4);
+    }
+
+    @Test
+    void changesSince_ShouldAskForResyncForCursorFromAnotherRun() {
+        assertThat(feed.changesSince(1L, feed.latestSeq(1L) + 50).isResync()).isTrue();
+        assertThat(feed.changesSince(2L, 3L).isResync()).isTrue();
+    }
+
+    private static ReservationTransitionEvent transition(Long stallId, ReservationStatus from, ReservationStatus to) {
+        return ReservationTransitionEvent.builder()
+                .eventId(1L)
+                .eventStallId(stallId)
+                .occupiedBy("Books Ltd")
+                .previousStatus(from)
+                .status(to)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.bookfair.service;
+
+import com.bookfair.exception.ConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StallClaimRegistryTest {
+
+    private final StallClaimRegistry registry = new StallClaimRegistry();
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void claimForTransaction_ShouldRejectStallClaimedByAnotherTransaction() {
+        registry.claimForTransaction(List.of(1L, 2L));
+
+        assertThatThrownBy(() -> registry.claimForTransaction(List.of(3L, 2L)))
+                .isInstanceOf(ConflictException.class);
+        // The losing claim is all-or-nothing
+        assertThat(registry.isClaimed(3L)).isFalse();
+    }
+
+    @Test
+    void claimForTransaction_ShouldReleaseOnCompletion() {
+        registry.claimForTransaction(List.of(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(registry.isClaimed(1L)).isFalse();
+    }
+}
@@ -0,0 +1,160 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.event.ReservationTransitionEvent;
+import com.bookfair.dto.event.StallAvailabilityChangedEvent;
+import com.bookfair.entity.Reservation.ReservationStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StallEventBroadcasterTest {
+
+    private StallChangeFeed feed;
+    private StallEventBroadcaster broadcaster;
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final CountDownLatch releaseDrain = new CountDownLatch(1);
+    private volatile boolean holdFirstSend;
+
+    @BeforeEach
+    void setUp() {
+        StallEventBroadcaster[] target = new StallEventBroadcaster[1];
+        feed = new StallChangeFeed(8, event -> target[0].onStallAvailabilityChanged((StallAvailabilityChangedEvent) event));
+        broadcaster = new StallEventBroadcaster(feed, new ObjectMapper(), 4, 60000, 2, 2) {
+            @Override
+            SseEmitter newEmitter(long timeout) {
+                RecordingEmitter emitter = new RecordingEmitter(timeout);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        target[0] = broadcaster;
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseDrain.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void subscribe_ShouldRefuseBeyondSubscriberLimit() {
+        assertThat(broadcaster.subscribe(1L, null)).isPresent();
+        assertThat(broadcaster.subscribe(2L, null)).isPresent();
+
+        assertThat(broadcaster.subscribe(1L, null)).isEmpty();
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void onStallAvailabilityChanged_ShouldReplaceOverflowedBufferWithSingleResync() throws Exception {
+        holdFirstSend = true;
+        broadcaster.subscribe(1L, null);
+        RecordingEmitter emitter = emitters.get(0);
+        // The drain thread is stuck writing "ready", so the 4-frame buffer fills up behind it
+        waitFor(emitter, frames -> emitter.sendStarted);
+
+        long start = feed.latestSeq(1L);
+        for (long stall = 1; stall <= 6; stall++) {
+            feed.onReservationTransition(transition(stall));
+        }
+        waitForFanOut(start + 6);
+        releaseDrain.countDown();
+
+        List<String> frames = waitFor(emitter, sent -> sent.stream().anyMatch(f -> f.contains("id:" + (start + 6))));
+        assertThat(frames.stream().filter(f -> f.contains("event:resync")).count()).isEqualTo(1);
+        assertThat(frames).noneMatch(f -> f.contains("id:" + (start + 1)));
+    }
+
+    @Test
+    void subscribe_ShouldReplayChangesAfterLastEventId() throws Exception {
+        long start = feed.latestSeq(1L);
+        for (long stall = 1; stall <= 3; stall++) {
+            feed.onReservationTransition(transition(stall));
+        }
+
+        broadcaster.subscribe(1L, start + 1);
+        RecordingEmitter emitter = emitters.get(0);
+
+        List<String> frames = waitFor(emitter, sent -> sent.size() >= 2);
+        assertThat(frames).hasSize(2);
+        assertThat(frames.get(0)).contains("id:" + (start + 2)).contains("\"stallId\":2");
+        assertThat(frames.get(1)).contains("id:" + (start + 3)).contains("\"stallId\":3");
+    }
+
+    @Test
+    void subscribe_ShouldSendResyncWhenLastEventIdIsNoLongerRetained() throws Exception {
+        long start = feed.latestSeq(1L);
+        for (long stall = 1; stall <= 10; stall++) {
+            feed.onReservationTransition(transition(stall));
+        }
+
+        broadcaster.subscribe(1L, start);
+        RecordingEmitter emitter = emitters.get(0);
+
+        List<String> frames = waitFor(emitter, sent -> !sent.isEmpty());
+        assertThat(frames).hasSize(1);
+        assertThat(frames.get(0)).contains("event:resync");
+    }
+
+    private void waitForFanOut(long seq) throws InterruptedException {
+        // The fan-out runs on the second drain thread; give it time to drain the feed into the buffer
+        long deadline = System.currentTimeMillis() + 5000;
+        while (feed.latestSeq(1L) < seq && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+    }
+
+    private static List<String> waitFor(RecordingEmitter emitter, Predicate<List<String>> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.test(emitter.frames) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100); // let anything that should not arrive show up
+        return List.copyOf(emitter.frames);
+    }
+
+    private static ReservationTransitionEvent transition(Long stallId) {
+        return ReservationTransitionEvent.builder()
+                .eventId(1L)
+                .eventStallId(stallId)
+                .occupiedBy("Books Ltd")
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .build();
+    }
+
+    /** Records each frame as its wire text; optionally blocks the first write until released. */
+    private class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new CopyOnWriteArrayList<>();
+        volatile boolean sendStarted;
+
+        RecordingEmitter(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (holdFirstSend && !sendStarted) {
+                sendStarted = true;
+                try {
+                    releaseDrain.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            frames.add(builder.build().stream().map(part -> part.getData().toString()).collect(Collectors.joining()));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bookfair.service;
+
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Hall;
+import com.bookfair.entity.StallTemplate;
+import com.bookfair.repository.EventStallRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StallScoreServiceTest {
+
+    @Mock
+    private EventStallRepository eventStallRepository;
+
+    @Mock
+    private StallScoringEngine scoringEngine;
+
+    private StallScoreService scoreService;
+    private Hall hall;
+    private EventStall stall;
+
+    @BeforeEach
+    void setUp() {
+        scoreService = new StallScoreService(eventStallRepository, scoringEngine, new ObjectMapper());
+
+        hall = new Hall();
+        hall.setId(1L);
+        hall.setLayoutVersion(0L);
+        hall.setStaticLayout("{\"influences\": []}");
+
+        StallTemplate template = new StallTemplate();
+        template.setHall(hall);
+
+        stall = new EventStall();
+        stall.setId(10L);
+        stall.setStallTemplate(template);
+    }
+
+    @Test
+    void rescore_ShouldStampScoreDriversAndLayoutVersion() {
+        when(scoringEngine.score(stall)).thenReturn(
+                new StallScoringEngine.ScoreResult(42, List.of(Map.of("label", "Base", "value", "+42"))));
+
+        scoreService.rescore(List.of(stall));
+
+        assertThat(stall.getVisibilityScore()).isEqualTo(42);
+        assertThat(stall.getScoreDrivers()).contains("\"label\":\"Base\"");
+        assertThat(stall.getScoreLayoutVersion()).isEqualTo(hall.getLayoutVersion());
+        assertThat(scoreService.isCurrent(stall)).isTrue();
+    }
+
+    @Test
+    void isCurrent_ShouldBeFalseOnceHallLayoutIsRewritten() {
+        when(scoringEngine.score(stall)).thenReturn(new StallScoringEngine.ScoreResult(42, List.of()));
+        scoreService.rescore(List.of(stall));
+
+        hall.setStaticLayout("{\"influences\": [{\"type\": \"STAGE\"}]}");
+
+        assertThat(scoreService.isCurrent(stall)).isFalse();
+    }
+
+    @Test
+    void isCurrent_ShouldSurviveRewritingTheSameLayout() {
+        when(scoringEngine.score(stall)).thenReturn(new StallScoringEngine.ScoreResult(42, List.of()));
+        scoreService.rescore(List.of(stall));
+
+        hall.setStaticLayout("{\"influences\": []}");
+
+        assertThat(scoreService.isCurrent(stall)).isTrue();
+    }
+
+    @Test
+    void backfillMissingScores_ShouldRescoreAndPersistStaleStalls() {
+        when(eventStallRepository.findStaleScores()).thenReturn(List.of(stall));
+        when(scoringEngine.score(stall)).thenReturn(new StallScoringEngine.ScoreResult(7, List.of()));
+
+        scoreService.backfillMissingScores();
+
+        assertThat(stall.getVisibilityScore()).isEqualTo(7);
+        assertThat(scoreService.isCurrent(stall)).isTrue();
+        verify(eventStallRepository).saveAll(List.of(stall));
+    }
+
+    @Test
+    void backfillMissingScores_ShouldDoNothingWhenAllScoresAreCurrent() {
+        when(eventStallRepository.findStaleScores()).thenReturn(List.of());
+
+        scoreService.backfillMissingScores();
+
+        verify(eventStallRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookfair.service;
+
+import com.bookfair.entity.EventStall;
+import com.bookfair.entity.Hall;
+import com.bookfair.entity.StallTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StallScoringEngineTest {
+
+    private static final String LAYOUT = "{\"width\": 1000, \"height\": 800, \"influences\": [" +
+            "{\"type\": \"ENTRANCE\", \"x\": 500, \"y\": 400, \"radius\": 200, \"intensity\": 80, \"falloff\": \"LINEAR\"}," +
+            "{\"type\": \"STAGE\", \"x\": 900, \"y\": 400, \"radius\": 100, \"intensity\": 100, \"falloff\": \"EXPONENTIAL\"}]}";
+
+    private StallScoringEngine engine;
+    private Hall hall;
+    private EventStall stall;
+
+    @BeforeEach
+    void setUp() {
+        engine = new StallScoringEngine(new ObjectMapper());
+
+        hall = new Hall();
+        hall.setId(1L);
+        hall.setStaticLayout(LAYOUT);
+
+        StallTemplate template = new StallTemplate();
+        template.setHall(hall);
+        template.setDefaultProximityScore(3);
+
+        stall = new EventStall();
+        stall.setId(10L);
+        stall.setStallTemplate(template);
+        // Centroid (50%, 50%) -> (500, 400): on top of the entrance, out of stage range
+        stall.setGeometry("{\"x\": 45, \"y\": 45, \"w\": 10, \"h\": 10}");
+    }
+
+    @Test
+    void score_ShouldApplyInfluenceWithinRadius() {
+        StallScoringEngine.ScoreResult result = engine.score(stall);
+
+        assertThat(result.getScore()).isEqualTo(80);
+        assertThat(result.getDrivers()).hasSize(1);
+        assertThat(result.getDrivers().get(0)).containsEntry("label", "ENTRANCE Proximity").containsEntry("value", "+80");
+    }
+
+    @Test
+    void score_ShouldRecompileWhenLayoutChanges() {
+        engine.score(stall);
+
+        hall.setStaticLayout("{\"influences\": []}");
+
+        assertThat(engine.score(stall).getScore()).isEqualTo(5);
+    }
+
+    @Test
+    void score_ShouldFallBackToDefaultProximityForMalformedInfluence() {
+        hall.setStaticLayout("{\"influences\": [{\"x\": 1}]}");
+
+        assertThat(engine.score(stall).getScore()).isEqualTo(30);
+    }
+
+    @Test
+    void score_ShouldApplyEdgePenalty() {
+        stall.setGeometry("{\"x\": 0, \"y\": 45, \"w\": 10, \"h\": 10}");
+        engine.evictStalls(List.of(10L));
+
+        StallScoringEngine.ScoreResult result = engine.score(stall);
+
+        assertThat(result.getDrivers()).extracting(d -> d.get("label")).contains("Edge Distance");
+    }
+}
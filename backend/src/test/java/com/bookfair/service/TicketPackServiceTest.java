@@ -0,0 +1,73 @@
+package com.bookfair.service;
+
+import com.bookfair.repository.EventRepository;
+import com.bookfair.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketPackServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private EventRepository eventRepository;
+
+    private TicketPackService ticketPackService;
+
+    @AfterEach
+    void tearDown() {
+        ticketPackService.shutdown();
+    }
+
+    @Test
+    void writeTicketPack_ShouldWalkPagesByCursor_AndZipEveryTicket() throws Exception {
+        QrService qrService = new QrService(1 << 20);
+        ticketPackService = new TicketPackService(reservationRepository, eventRepository, qrService,
+                new TicketTokenService("test-secret", "", 24), 2, 2);
+        when(reservationRepository.findPaidTicketsAfter(1L, 0L, PageRequest.of(0, 2))).thenReturn(List.of(
+                new Object[]{10L, "RES-10", "A1", "Sarasavi", 100L, null, null},
+                new Object[]{11L, "RES-11", "A 2", "Godage, Bros", 101L, null, null}));
+        when(reservationRepository.findPaidTicketsAfter(1L, 11L, PageRequest.of(0, 2))).thenReturn(List.<Object[]>of(
+                new Object[]{15L, "RES-15", null, "Vijitha\nPublishers", 105L, null, null}));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ticketPackService.writeTicketPack(1L, out);
+
+        List<String> names = new ArrayList<>();
+        String manifest = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                byte[] content = zip.readAllBytes();
+                names.add(entry.getName());
+                if (entry.getName().equals("manifest.csv")) {
+                    manifest = new String(content, StandardCharsets.UTF_8);
+                } else {
+                    assertThat(content).startsWith(0x89, 'P', 'N', 'G');
+                }
+            }
+        }
+
+        assertThat(names).containsExactly("ticket-10-A1.png", "ticket-11-A_2.png", "ticket-15.png", "manifest.csv");
+        assertThat(manifest).contains("11,RES-11,A 2,\"Godage, Bros\",ticket-11-A_2.png");
+        assertThat(manifest).contains("15,RES-15,,\"Vijitha\nPublishers\",ticket-15.png");
+        // Bulk renders bypass the QR cache instead of evicting its hot entries
+        assertThat(qrService.cacheStats()).containsEntry("entries", 0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.TicketVerificationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TicketTokenServiceTest {
+
+    private final TicketTokenService tokens = new TicketTokenService("test-secret", "", 24);
+
+    @Test
+    void verify_ShouldAcceptIssuedToken_WithoutDatabase() {
+        String token = tokens.issue(42L, 1L, 7L, null, LocalDateTime.now().plusDays(2));
+
+        TicketVerificationResponse ticket = tokens.verify(token);
+
+        assertThat(TicketTokenService.looksLikeToken(token)).isTrue();
+        assertThat(ticket.isValid()).isTrue();
+        assertThat(ticket.getReservationId()).isEqualTo(42L);
+        assertThat(ticket.getEventId()).isEqualTo(1L);
+        assertThat(ticket.getEventStallId()).isEqualTo(7L);
+        assertThat(ticket.getExpiresAt()).isAfter(LocalDateTime.now().plusDays(2).plusHours(23));
+    }
+
+    @Test
+    void verify_ShouldRejectTamperedOrForeignTokens() {
+        String token = tokens.issue(42L, 1L, 7L, null, LocalDateTime.now().plusDays(2));
+        String otherReservation = token.replaceFirst("^BF1\\.16\\.", "BF1.17.");
+        String otherSecret = new TicketTokenService("another-secret", "", 24).issue(42L, 1L, 7L, null, LocalDateTime.now().plusDays(2));
+
+        assertThat(tokens.verify(otherReservation).getMessage()).isEqualTo("Signature mismatch");
+        assertThat(tokens.verify(otherSecret).isValid()).isFalse();
+        assertThat(tokens.verify("RES-42").getMessage()).isEqualTo("Malformed ticket");
+        assertThat(tokens.verify("BF1.16.1.7.zz.%%%").getMessage()).isEqualTo("Malformed ticket");
+    }
+
+    @Test
+    void verify_ShouldJudgeExpiryAtScanTime() {
+        LocalDateTime eventEnd = LocalDateTime.now().minusDays(3);
+        String token = tokens.issue(42L, 1L, 7L, null, eventEnd);
+
+        assertThat(tokens.verify(token).getMessage()).isEqualTo("Ticket expired");
+        assertThat(tokens.verify(token, eventEnd.plusHours(1)).isValid()).isTrue();
+    }
+
+    @Test
+    void issue_ShouldGiveUndatedEventsAStableExpiry() {
+        LocalDateTime eventStart = LocalDateTime.of(2026, 9, 20, 9, 0);
+        String token = tokens.issue(42L, 1L, 7L, eventStart, null);
+
+        assertThat(tokens.issue(42L, 1L, 7L, eventStart, null)).isEqualTo(token);
+        assertThat(tokens.issue(42L, 1L, 7L, null, null)).isEqualTo(tokens.issue(42L, 1L, 7L, null, null));
+        assertThat(tokens.verify(token, eventStart).getExpiresAt()).isEqualTo(
+                eventStart.plus(TicketTokenService.UNDATED_EVENT_LENGTH).plusHours(24));
+    }
+
+    @Test
+    void verificationKey_ShouldDifferPerEvent() {
+        assertThat(tokens.verificationKey(1L)).isNotEqualTo(tokens.verificationKey(2L));
+        assertThat(tokens.verificationKey(1L)).isEqualTo(new TicketTokenService("test-secret", "", 24).verificationKey(1L));
+    }
+}
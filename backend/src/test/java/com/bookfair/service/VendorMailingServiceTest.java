@@ -0,0 +1,67 @@
+package com.bookfair.service;
+
+import com.bookfair.dto.response.BulkMailResponse;
+import com.bookfair.dto.response.MailingJobResponse;
+import com.bookfair.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class VendorMailingServiceTest {
+
+    @Mock
+    private EmailService emailService;
+
+    private VendorMailingService mailingService;
+
+    @BeforeEach
+    void setUp() {
+        mailingService = new VendorMailingService(emailService, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailingService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldReturnAtOnce_AndReportProgressAndResult() throws InterruptedException {
+        List<String> recipients = List.of("a@example.com", "b@example.com");
+        when(emailService.sendBulk(eq(recipients), eq("Notice"), eq("Body"), any())).thenAnswer(inv -> {
+            Runnable onMessageDone = inv.getArgument(3);
+            onMessageDone.run();
+            onMessageDone.run();
+            return BulkMailResponse.builder().requested(2).sent(1).failed(1).failedRecipients(List.of("b@example.com")).build();
+        });
+
+        MailingJobResponse queued = mailingService.submit(1L, recipients, "Notice", "Body");
+
+        assertThat(queued.getRequested()).isEqualTo(2);
+        MailingJobResponse done = mailingService.get(queued.getJobId());
+        for (int i = 0; i < 100 && done.getFinishedAt() == null; i++) {
+            Thread.sleep(50);
+            done = mailingService.get(queued.getJobId());
+        }
+        assertThat(done.getStatus()).isEqualTo(MailingJobResponse.Status.COMPLETED);
+        assertThat(done.getProcessed()).isEqualTo(2);
+        assertThat(done.getResult().getFailedRecipients()).containsExactly("b@example.com");
+        assertThat(done.getFinishedAt()).isNotNull();
+    }
+
+    @Test
+    void get_ShouldRejectUnknownJob() {
+        assertThatThrownBy(() -> mailingService.get("missing")).isInstanceOf(ResourceNotFoundException.class);
+    }
+}
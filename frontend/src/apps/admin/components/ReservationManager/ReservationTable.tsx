@@ -9,7 +9,7 @@ interface ReservationTableProps {
     onAction: (e: React.MouseEvent, type: 'PAYMENT' | 'CANCEL' | 'REFUND' | 'DOCS', res: Reservation) => void;
     actionLoading: number | null;
     page: number;
-    totalPages: number;
+    hasNext: boolean;
     onPageChange: (newPage: number) => void;
 }
 
@@ -19,7 +19,7 @@ export const ReservationTable: React.FC<ReservationTableProps> = ({
     onAction,
     actionLoading,
     page,
-    totalPages,
+    hasNext,
     onPageChange
 }) => {
     return (
@@ -146,7 +146,7 @@ export const ReservationTable: React.FC<ReservationTableProps> = ({
                     Showing {reservations.length} Bookings
                 </p>
 
-                {totalPages > 1 && (
+                {(page > 0 || hasNext) && (
                     <div className="flex items-center gap-2">
                         <button
                             disabled={page === 0}
@@ -155,9 +155,9 @@ export const ReservationTable: React.FC<ReservationTableProps> = ({
                         >
                             Prev
                         </button>
-                        <span className="text-xs font-bold text-gray-500 py-1 px-2">Page {page + 1} of {totalPages}</span>
+                        <span className="text-xs font-bold text-gray-500 py-1 px-2">Page {page + 1}</span>
                         <button
-                            disabled={page >= totalPages - 1}
+                            disabled={!hasNext}
                             onClick={() => onPageChange(page + 1)}
                             className="px-3 py-1 bg-white border border-gray-200 rounded text-xs font-bold disabled:opacity-50 hover:bg-gray-50 transition-colors"
                         >
@@ -1,4 +1,4 @@
-import { useState, useEffect, useMemo } from 'react';
+import { useState, useEffect } from 'react';
 import { adminApi } from '@/shared/api/adminApi';
 import { Reservation } from '@/shared/types/api';
 import { Download } from 'lucide-react';
@@ -30,27 +30,42 @@ export default function AdminReservationManager() {
     const [refundReason, setRefundReason] = useState('');
     const [vendorDocsModal, setVendorDocsModal] = useState<Reservation | null>(null);
 
+    // Keyset paging: cursors[i] fetches page i, so Prev just reuses an earlier cursor
     const [page, setPage] = useState(0);
+    const [cursors, setCursors] = useState<(string | null)[]>([null]);
+    const [hasNext, setHasNext] = useState(false);
     const pageSize = 10;
 
-    useEffect(() => {
-        console.info('[Reservations] Triggering initial load');
-        loadReservations();
-    }, []);
+    const resetPaging = () => {
+        setPage(0);
+        setCursors([null]);
+    };
 
     useEffect(() => {
         const handler = setTimeout(() => {
             setDebouncedSearchTerm(searchTerm);
+            resetPaging();
         }, 300);
         return () => clearTimeout(handler);
     }, [searchTerm]);
 
+    useEffect(() => {
+        loadReservations();
+    }, [page, debouncedSearchTerm, statusFilter]);
+
     const loadReservations = async () => {
-        console.info('[Reservations] Fetching all reservations from API');
-        setLoading(true);
         try {
-            const data = await adminApi.getAllReservations();
-            setReservations(data);
+            const data = await adminApi.getReservations({
+                q: debouncedSearchTerm,
+                status: statusFilter === 'ALL' ? undefined : statusFilter,
+                cursor: cursors[page],
+                limit: pageSize
+            });
+            setReservations(data.content);
+            setHasNext(data.hasMore);
+            if (data.nextCursor) {
+                setCursors(prev => prev.length > page + 1 ? prev : [...prev, data.nextCursor]);
+            }
         } catch (err) {
             setError('Failed to load reservations.');
         } finally {
@@ -123,28 +138,6 @@ export default function AdminReservationManager() {
         }
     };
 
-    const filteredReservations = useMemo(() => {
-        if (!Array.isArray(reservations)) return [];
-        return reservations.filter(res => {
-            const username = res.user?.username || '';
-            const qrCode = res.qrCode || '';
-            const fallbackId = `RES-${res.id}`;
-            const matchesSearch =
-                username.toLowerCase().includes(debouncedSearchTerm.toLowerCase()) ||
-                qrCode.toLowerCase().includes(debouncedSearchTerm.toLowerCase()) ||
-                fallbackId.toLowerCase().includes(debouncedSearchTerm.toLowerCase());
-            const matchesStatus = statusFilter === 'ALL' || res.status === statusFilter;
-            return matchesSearch && matchesStatus;
-        });
-    }, [reservations, debouncedSearchTerm, statusFilter]);
-
-    const totalPages = Math.ceil(filteredReservations.length / pageSize);
-    const paginatedReservations = filteredReservations.slice(page * pageSize, (page + 1) * pageSize);
-
-    useEffect(() => {
-        setPage(0);
-    }, [searchTerm, statusFilter]);
-
     if (loading) return <LoadingState message="Loading Reservations..." fullPage />;
 
     return (
@@ -176,16 +169,19 @@ export default function AdminReservationManager() {
                 searchTerm={searchTerm}
                 onSearchChange={setSearchTerm}
                 statusFilter={statusFilter}
-                onStatusChange={setStatusFilter}
+                onStatusChange={(status) => {
+                    setStatusFilter(status);
+                    resetPaging();
+                }}
             />
 
             <ReservationTable
-                reservations={paginatedReservations}
+                reservations={reservations}
                 onRowClick={(id) => navigate(`/admin/reservations/${id}`)}
                 onAction={handleAction}
                 actionLoading={actionLoading}
                 page={page}
-                totalPages={totalPages}
+                hasNext={hasNext}
                 onPageChange={setPage}
             />
 
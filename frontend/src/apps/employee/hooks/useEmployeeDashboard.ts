@@ -1,12 +1,12 @@
 import { useState } from 'react';
 import { useQuery, useMutation } from '@tanstack/react-query';
 import { employeeApi } from '@/shared/api/employeeApi';
-import { PageEnvelope, Reservation } from '@/shared/types/api';
+import { CursorPage, Reservation } from '@/shared/types/api';
 
 export function useEmployeeDashboard() {
     const [activeTab, setActiveTab] = useState<'DASHBOARD' | 'SCAN' | 'SEARCH'>('SCAN');
     const [searchQuery, setSearchQuery] = useState('');
-    const [searchResults, setSearchResults] = useState<PageEnvelope<Reservation> | null>(null);
+    const [searchResults, setSearchResults] = useState<CursorPage<Reservation> | null>(null);
 
     // QUERY: Stats
     const { data: stats, isLoading: loadingStats } = useQuery({
@@ -17,13 +17,21 @@ export function useEmployeeDashboard() {
 
     // MUTATION: Search
     const searchMutation = useMutation({
-        mutationFn: (query: string) => employeeApi.search(query), // Explicit wrapper to discard extra args
-        onSuccess: (data) => setSearchResults(data)
+        mutationFn: ({ query, cursor }: { query: string; cursor?: string }) => employeeApi.search(query, cursor),
+        // A cursor means "next page": append to what is already shown
+        onSuccess: (data, { cursor }) => setSearchResults(prev =>
+            cursor && prev ? { ...data, content: [...prev.content, ...data.content] } : data)
     });
 
     const handleSearch = (e?: React.FormEvent) => {
         e?.preventDefault();
-        if (searchQuery) searchMutation.mutate(searchQuery);
+        if (searchQuery) searchMutation.mutate({ query: searchQuery });
+    };
+
+    const loadMoreResults = () => {
+        if (searchResults?.nextCursor) {
+            searchMutation.mutate({ query: searchQuery, cursor: searchResults.nextCursor });
+        }
     };
 
     return {
@@ -33,6 +41,7 @@ export function useEmployeeDashboard() {
         searchQuery, setSearchQuery,
         searchResults,
         handleSearch,
+        loadMoreResults,
         isSearching: searchMutation.isPending,
         searchError: searchMutation.error
     };
@@ -10,7 +10,7 @@ export default function EmployeePortalPage() {
     const {
         activeTab, setActiveTab,
         stats, loadingStats,
-        searchQuery, setSearchQuery, searchResults, handleSearch
+        searchQuery, setSearchQuery, searchResults, handleSearch, loadMoreResults
     } = useEmployeeDashboard();
 
     const {
@@ -310,6 +310,14 @@ export default function EmployeePortalPage() {
                                     </div>
                                 </div>
                             ))}
+                            {searchResults?.hasMore && (
+                                <button
+                                    onClick={loadMoreResults}
+                                    className="w-full py-3 bg-slate-100 text-slate-600 rounded-2xl font-black text-xs uppercase hover:bg-slate-200 transition-all"
+                                >
+                                    Load more
+                                </button>
+                            )}
                             {searchResults?.content.length === 0 && (
                                 <div className="text-center py-12 text-slate-400 font-bold italic">
                                     Enter a query to browse reservations.
@@ -11,6 +11,7 @@ interface BookingPanelProps {
   eventName: string
   error: string | null
   isPending: boolean
+  pendingLabel?: string // e.g. waiting-room position while the booking is queued
   onConfirm: () => void
   onClearSelection: () => void
 }
@@ -23,6 +24,7 @@ interface ConfirmModalProps {
   eventName: string
   totalCents: number
   isPending: boolean
+  pendingLabel?: string
   onConfirm: () => void
   onClose: () => void
 }
@@ -33,6 +35,7 @@ function ConfirmModal({
   eventName,
   totalCents,
   isPending,
+  pendingLabel,
   onConfirm,
   onClose,
 }: ConfirmModalProps) {
@@ -107,7 +110,7 @@ function ConfirmModal({
                        text-white py-3 rounded-xl font-bold text-[11px] uppercase
                        tracking-wider transition-all active:scale-95"
           >
-            {isPending ? 'Processing…' : 'Secure Slots'}
+            {isPending ? (pendingLabel ?? 'Processing…') : 'Secure Slots'}
           </button>
         </div>
       </div>
@@ -124,6 +127,7 @@ export function BookingPanel({
   eventName,
   error,
   isPending,
+  pendingLabel,
   onConfirm,
   onClearSelection,
 }: BookingPanelProps) {
@@ -202,6 +206,7 @@ export function BookingPanel({
           eventName={eventName}
           totalCents={totalCents}
           isPending={isPending}
+          pendingLabel={pendingLabel}
           onConfirm={handleConfirm}
           onClose={() => setShowModal(false)}
         />,
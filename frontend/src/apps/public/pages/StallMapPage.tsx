@@ -41,6 +41,7 @@ export default function StallMapPage() {
   // ── UI State ──────────────────────────────────────────────────────────────
   const [selectedIds, setSelectedIds] = useState<number[]>([])
   const [error, setError] = useState<string | null>(null)
+  const [queueLabel, setQueueLabel] = useState<string | undefined>(undefined)
   const [selectedHall, setSelectedHall] = useState<string | null>(null)
   const [showHeatmap, setShowHeatmap] = useState(false)
   const [hoveredStall, setHoveredStall] = useState<MapStall | null>(null)
@@ -131,7 +132,11 @@ export default function StallMapPage() {
   // ── Mutation ──────────────────────────────────────────────────────────────
   const mutation = useMutation({
     mutationFn: (vars: { userId: number, stallIds: number[] }) =>
-      eventId ? vendorApi.createReservation({ ...vars, eventId }) : Promise.reject('No Event ID'),
+      eventId
+        ? vendorApi.createReservation({ ...vars, eventId },
+            ticket => setQueueLabel(`In queue: #${ticket.position} (~${ticket.etaSeconds}s)`))
+        : Promise.reject('No Event ID'),
+    onSettled: () => setQueueLabel(undefined),
     onSuccess: (data) => {
       queryClient.invalidateQueries({ queryKey: ['stalls'] })
       queryClient.invalidateQueries({ queryKey: ['reservations'] })
@@ -333,6 +338,7 @@ export default function StallMapPage() {
           eventName={rawEventMap?.eventName ?? ''}
           error={error}
           isPending={mutation.isPending}
+          pendingLabel={queueLabel}
           onConfirm={handleConfirm}
           onClearSelection={handleClearSelection}
         />
@@ -1,5 +1,6 @@
 import api from './client';
 import {
+    CursorPage,
     PageEnvelope,
     EventStall,
     Event,
@@ -8,6 +9,7 @@ import {
     StallSize,
     StallCategory,
     AdminDashboardStats,
+    EventStats,
     AuditLog,
     SystemHealth,
     Reservation,
@@ -75,8 +77,8 @@ export const adminApi = {
         return response.data;
     },
 
-    getEventStats: async (eventId: number): Promise<{ totalStalls: number, reservedStalls: number, revenueCents: number }> => {
-        const response = await api.get<{ totalStalls: number, reservedStalls: number, revenueCents: number }>(`/admin/events/${eventId}/stats`);
+    getEventStats: async (eventId: number): Promise<EventStats> => {
+        const response = await api.get<EventStats>(`/admin/events/${eventId}/stats`);
         return response.data;
     },
 
@@ -96,8 +98,10 @@ export const adminApi = {
     },
 
     // ─── RESERVATION MANAGEMENT ──────────────────────────────────
-    getAllReservations: async (): Promise<Reservation[]> => {
-        const response = await api.get<Reservation[]>('/admin/reservations');
+    getReservations: async (params: { q?: string; status?: string; cursor?: string | null; limit?: number } = {}): Promise<CursorPage<Reservation>> => {
+        const response = await api.get<CursorPage<Reservation>>('/admin/reservations', {
+            params: { ...params, cursor: params.cursor || undefined }
+        });
         return response.data;
     },
 
@@ -130,6 +134,19 @@ export const adminApi = {
         window.URL.revokeObjectURL(url);
     },
 
+    // ZIP of every paid entry pass for an event (QR PNGs + manifest.csv), for printing
+    exportTicketPack: async (eventId: number): Promise<void> => {
+        const response = await api.get(`/admin/events/${eventId}/tickets/export`, { responseType: 'blob' });
+        const url = window.URL.createObjectURL(new Blob([response.data], { type: 'application/zip' }));
+        const link = document.createElement('a');
+        link.href = url;
+        link.setAttribute('download', `tickets-event-${eventId}.zip`);
+        document.body.appendChild(link);
+        link.click();
+        link.remove();
+        window.URL.revokeObjectURL(url);
+    },
+
     // ─── REFUNDS ─────────────────────────────────────────────────
     refundReservation: async (reservationId: number, reason: string): Promise<RefundResponse> => {
         const response = await api.post<RefundResponse>('/admin/payments/refund', {
@@ -1,7 +1,8 @@
 import api from './client';
 import {
+    BulkCheckInResponse,
     CheckInResponse,
-    PageEnvelope,
+    CursorPage,
     Reservation,
     DashboardStats
 } from '../types/api';
@@ -25,6 +26,12 @@ export const employeeApi = {
         return response.data;
     },
 
+    // BULK CHECK-IN (a gate's queued scans: QR codes, signed tickets or ids; one result per scan)
+    bulkCheckIn: async (scans: string[], eventId?: number): Promise<BulkCheckInResponse> => {
+        const response = await api.post<BulkCheckInResponse>('/employee/check-ins/bulk', { scans, eventId });
+        return response.data;
+    },
+
     // GET TEST QR CODE
     getTestQrCode: async (): Promise<{ qrCode: string; message: string }> => {
         const response = await api.get<{ qrCode: string; message: string }>('/employee/qr/test');
@@ -32,9 +39,9 @@ export const employeeApi = {
     },
 
     // SEARCH RESERVATIONS
-    search: async (query: string, page = 0, status?: string, eventId?: number): Promise<PageEnvelope<Reservation>> => {
-        const response = await api.get<PageEnvelope<Reservation>>('/employee/search', {
-            params: { q: query, page, status, eventId }
+    search: async (query: string, cursor?: string, status?: string, eventId?: number): Promise<CursorPage<Reservation>> => {
+        const response = await api.get<CursorPage<Reservation>>('/employee/search', {
+            params: { q: query, cursor, status, eventId }
         });
         return response.data;
     },
@@ -53,6 +60,16 @@ export const employeeApi = {
         return response.data;
     },
 
+    // GATE MODE (preload an event's tickets so scans are decided in memory)
+    openGate: async (eventId: number): Promise<{ eventId: number; open: boolean; admissions?: number; checkedIn?: number }> => {
+        const response = await api.post(`/employee/gate/${eventId}`);
+        return response.data;
+    },
+
+    closeGate: async (eventId: number): Promise<void> => {
+        await api.delete(`/employee/gate/${eventId}`);
+    },
+
     // CANCEL RESERVATION (e.g. User request at gate)
     cancelReservation: async (id: number): Promise<void> => {
         await api.delete(`/employee/reservations/${id}`);
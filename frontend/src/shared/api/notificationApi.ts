@@ -1,9 +1,9 @@
 import api from './client';
-import { NotificationResponse } from '../types/api';
+import { CursorPage, NotificationResponse } from '../types/api';
 
 export const notificationApi = {
-    getNotifications: async (): Promise<NotificationResponse[]> => {
-        const response = await api.get('/notifications');
+    getNotifications: async (cursor?: string): Promise<CursorPage<NotificationResponse>> => {
+        const response = await api.get<CursorPage<NotificationResponse>>('/notifications', { params: { cursor } });
         return response.data;
     },
 
@@ -12,6 +12,12 @@ export const notificationApi = {
         return response.data.count;
     },
 
+    /** Long-poll: resolves once the unread count differs from `known`, or after ~25s with the current count. */
+    pollUnreadCount: async (known: number): Promise<number> => {
+        const response = await api.get('/notifications/unread-count/poll', { params: { known }, timeout: 35000 });
+        return response.data.count;
+    },
+
     markAsRead: async (id: number): Promise<void> => {
         await api.patch(`/notifications/${id}/read`);
     }
@@ -7,7 +7,10 @@ export const paymentApi = {
     },
 
     confirmPayment: async (reservationId: number, paymentIntentId: string) => {
-        const response = await api.post(`/payments/confirm/${reservationId}`, { paymentIntentId });
+        // Keyed by the intent, so any retry of the same confirmation is answered from the first response
+        const response = await api.post(`/payments/confirm/${reservationId}`, { paymentIntentId }, {
+            headers: { 'Idempotency-Key': `confirm-${paymentIntentId}` },
+        });
         return response.data;
     }
 };
@@ -1,9 +1,11 @@
 import api from './client';
+import { APP_CONFIG } from '@/config';
 import {
     PageEnvelope,
     Event,
     Venue,
     EventStall,
+    StallChangeFeed,
 } from '@/shared/types/api';
 
 export const publicApi = {
@@ -34,8 +36,8 @@ export const publicApi = {
     },
 
     // GET EVENT MAP
-    getEventMap: async (eventId: number): Promise<{ eventId: number; eventName: string; stalls: EventStall[]; zones: string; halls?: any[] }> => {
-        const response = await api.get<{ eventId: number; eventName: string; stalls: EventStall[]; layout?: Record<string, any>; zones?: string; halls?: any[] }>(`/public/events/${eventId}/map`);
+    getEventMap: async (eventId: number): Promise<{ eventId: number; eventName: string; stalls: EventStall[]; zones: string; halls?: any[]; changeSeq?: number }> => {
+        const response = await api.get<{ eventId: number; eventName: string; stalls: EventStall[]; layout?: Record<string, any>; zones?: string; halls?: any[]; changeSeq?: number }>(`/public/events/${eventId}/map`);
 
         // Map and parse geometry JSON string into object for stalls
         const stalls = response.data.stalls.map((stall: EventStall) => {
@@ -69,7 +71,22 @@ export const publicApi = {
             eventName: response.data.eventName,
             stalls,
             zones: zonesString,
-            halls: response.data.halls || []
+            halls: response.data.halls || [],
+            changeSeq: response.data.changeSeq
         };
+    },
+
+    // GET STALL AVAILABILITY CHANGES SINCE A MAP CURSOR
+    getStallChanges: async (eventId: number, since: number): Promise<StallChangeFeed> => {
+        const response = await api.get<StallChangeFeed>(`/public/events/${eventId}/stalls/changes`, {
+            params: { since }
+        });
+        return response.data;
+    },
+
+    // LIVE STALL CHANGES (SSE): 'stall' events carry a StallChange, 'resync' means reload the map.
+    // EventSource reconnects on its own and resumes via Last-Event-ID.
+    subscribeStallChanges: (eventId: number): EventSource => {
+        return new EventSource(`${APP_CONFIG.API_BASE_URL}/public/events/${eventId}/stalls/stream`);
     }
 };
@@ -1,20 +1,46 @@
 import api from './client';
 import {
+    AdmissionTicket,
+    CursorPage,
     Reservation,
     ReservationRequest,
     User
 } from '../types/api';
 
+const sleep = (ms: number) => new Promise(resolve => setTimeout(resolve, ms));
+
 export const vendorApi = {
     // ATOMIC BATCH BOOKING
-    createReservation: async (data: ReservationRequest): Promise<Reservation[]> => {
-        const response = await api.post<Reservation[]>('/vendor/reservations', data);
-        return response.data;
+    // When booking is busy the server answers 429 QUEUED with a ticket; wait in line, then retry with it.
+    createReservation: async (data: ReservationRequest, onQueued?: (ticket: AdmissionTicket) => void): Promise<Reservation[]> => {
+        // One key per booking attempt, so a retried submit is replayed instead of booked twice
+        const idempotencyKey = crypto.randomUUID();
+        let ticketId: string | undefined;
+        for (;;) {
+            try {
+                const response = await api.post<Reservation[]>('/vendor/reservations', data, {
+                    headers: {
+                        'Idempotency-Key': idempotencyKey,
+                        ...(ticketId ? { 'X-Queue-Ticket': ticketId } : {}),
+                    },
+                });
+                return response.data;
+            } catch (err: any) {
+                if (err.code !== 'QUEUED' || !err.details?.ticketId) throw err;
+                let ticket = err.details as unknown as AdmissionTicket;
+                while (!ticket.admitted) {
+                    onQueued?.(ticket);
+                    await sleep(Math.max(1, ticket.retryAfterSeconds) * 1000);
+                    ticket = (await api.get<AdmissionTicket>(`/vendor/reservations/queue/${ticket.ticketId}`)).data;
+                }
+                ticketId = ticket.ticketId;
+            }
+        }
     },
 
     // GET MY RESERVATIONS
-    getMyReservations: async (): Promise<Reservation[]> => {
-        const response = await api.get<Reservation[]>('/vendor/reservations/me');
+    getMyReservations: async (cursor?: string): Promise<CursorPage<Reservation>> => {
+        const response = await api.get<CursorPage<Reservation>>('/vendor/reservations/me', { params: { cursor } });
         return response.data;
     },
 
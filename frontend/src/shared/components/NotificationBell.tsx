@@ -12,9 +12,26 @@ export default function NotificationBell() {
     const { user } = useAuth();
 
     useEffect(() => {
-        fetchData();
-        const interval = setInterval(fetchData, 60000); // Poll every minute
-        return () => clearInterval(interval);
+        let active = true;
+        // Long-poll the unread count; the server answers as soon as it changes
+        const poll = async () => {
+            let known = await fetchData();
+            while (active) {
+                try {
+                    const count = await notificationApi.pollUnreadCount(known);
+                    if (!active) break;
+                    if (count !== known) {
+                        known = count;
+                        setUnreadCount(count);
+                        fetchList();
+                    }
+                } catch (error) {
+                    await new Promise(resolve => setTimeout(resolve, 5000));
+                }
+            }
+        };
+        poll();
+        return () => { active = false; };
     }, []);
 
     useEffect(() => {
@@ -27,15 +44,25 @@ export default function NotificationBell() {
         return () => document.removeEventListener('mousedown', handleClickOutside);
     }, []);
 
-    const fetchData = async () => {
+    const fetchList = async () => {
+        try {
+            const page = await notificationApi.getNotifications();
+            setNotifications(page.content);
+        } catch (error) {
+        }
+    };
+
+    const fetchData = async (): Promise<number> => {
         try {
-            const [list, count] = await Promise.all([
+            const [page, count] = await Promise.all([
                 notificationApi.getNotifications(),
                 notificationApi.getUnreadCount()
             ]);
-            setNotifications(list);
+            setNotifications(page.content);
             setUnreadCount(count);
+            return count;
         } catch (error) {
+            return -1;
         }
     };
 
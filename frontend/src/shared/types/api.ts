@@ -6,6 +6,14 @@ export interface PageEnvelope<T> {
     totalPages: number;
 }
 
+/** Keyset page: pass nextCursor back as `cursor`; null once the listing is exhausted. */
+export interface CursorPage<T> {
+    content: T[];
+    size: number;
+    nextCursor: string | null;
+    hasMore: boolean;
+}
+
 export interface ErrorDetails {
     [key: string]: string | number | boolean | null | undefined;
 }
@@ -121,6 +129,32 @@ export interface AdminDashboardStats {
     fillRate: number;
 }
 
+export interface EventStatsBreakdown {
+    hallId?: number;
+    name: string;
+    totalStalls: number;
+    reservedStalls: number;
+    fillRate: number;
+    paidRevenueCents: number;
+    pendingExposureCents: number;
+}
+
+export interface EventStats {
+    eventId: number;
+    totalStalls: number;
+    reservedStalls: number;
+    availableStalls: number;
+    blockedStalls: number;
+    fillRate: number;
+    projectedRevenueCents: number;
+    paidRevenueCents: number;
+    pendingReservations: number;
+    pendingExposureCents: number;
+    byHall: EventStatsBreakdown[];
+    byTier: EventStatsBreakdown[];
+    bySize: EventStatsBreakdown[];
+}
+
 export interface Venue {
     id: number;
     name: string;
@@ -173,6 +207,30 @@ export interface EventStall {
     pricingBreakdown?: Record<string, number | string>;
 }
 
+/** Absolute post-change state of one stall, as returned by /stalls/changes */
+export interface StallChange {
+    seq: number;
+    stallId: number;
+    reserved: boolean;
+    occupiedBy?: string;
+    publisherCategory?: string;
+}
+
+export interface StallChangeFeed {
+    eventId: number;
+    latestSeq: number;
+    resync: boolean; // cursor too old: reload the map and continue from its changeSeq
+    changes: StallChange[];
+}
+
+export interface AdmissionTicket {
+    ticketId: string;
+    admitted: boolean;
+    position: number; // 0 once admitted
+    etaSeconds: number;
+    retryAfterSeconds: number;
+}
+
 export type ZoneType = 'ENTRANCE' | 'EXIT' | 'WALKWAY' | 'STAGE' | 'PILLAR' | 'RESTRICTED';
 
 export interface LayoutZone {
@@ -268,6 +326,20 @@ export interface CheckInResponse {
     timestamp: string;
 }
 
+export interface BulkCheckInResponse {
+    received: number;
+    admitted: number;
+    duplicates: number;
+    rejected: number;
+    results: {
+        scan: string;
+        reservationId?: number;
+        outcome: 'ADMITTED' | 'DUPLICATE' | 'REJECTED' | 'INVALID' | 'NOT_FOUND';
+        message: string;
+        checkInTime?: string;
+    }[];
+}
+
 export interface AuthResponse {
     token: string;
     user: User;